@@ -0,0 +1,154 @@
+package com.acepero13.chromadb.client;
+
+import com.acepero13.chromadb.client.handler.DefaultApi;
+import com.acepero13.chromadb.client.model.AsyncCollection;
+import com.acepero13.chromadb.client.model.Collection;
+import com.acepero13.chromadb.client.model.CollectionName;
+import com.acepero13.chromadb.client.model.EmbeddingFunction;
+import com.acepero13.chromadb.client.model.Metadata;
+import com.acepero13.chromadb.client.model.UpdateCollection;
+import com.acepero13.chromadb.client.utils.FutureUtils;
+import com.google.gson.internal.LinkedTreeMap;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.acepero13.chromadb.client.utils.FutureUtils.toFuture;
+
+/**
+ * Non-blocking counterpart of {@link DbClient}. Every operation returns a {@link CompletableFuture} backed by the
+ * asynchronous methods of the generated api, so no thread is parked while Chroma answers.
+ * <p>
+ * Collections are returned as regular {@link Collection}s; use {@link Collection#async()} (or the
+ * {@code *Async} shortcuts of this class) to keep operating on them without blocking.
+ */
+@SuppressWarnings("unchecked")
+public class AsyncDbClient {
+    private final DbClient client;
+    private final DefaultApi api;
+
+    AsyncDbClient(DbClient client, DefaultApi api) {
+        this.client = client;
+        this.api = api;
+    }
+
+    public static AsyncDbClient create(URL basePath) {
+        return DbClient.create(basePath).async();
+    }
+
+    public CompletableFuture<Collection> createCollection(Collection.CreateParams createParams) {
+        return toFuture(callback -> api.createCollectionAsync(createParams.request(), callback))
+                .thenCompose(resp -> {
+                    String name = ((LinkedTreeMap<String, String>) resp).get("name");
+                    return getCollection(CollectionName.of(name), createParams.embeddingsFunction());
+                })
+                .thenApply(collection -> {
+                    client.register(collection);
+                    return collection;
+                });
+    }
+
+    public CompletableFuture<Collection> createCollection(String collectionName) {
+        return createCollection(CollectionName.of(collectionName));
+    }
+
+    public CompletableFuture<Collection> createCollection(CollectionName collectionName) {
+        return createCollection(Collection.CreateParams.create(collectionName));
+    }
+
+    /**
+     * Creates (or gets) a collection and returns its non-blocking view.
+     *
+     * @param createParams the parameters of the collection
+     * @return the future non-blocking view of the collection
+     */
+    public CompletableFuture<AsyncCollection> createCollectionAsync(Collection.CreateParams createParams) {
+        return createCollection(createParams).thenApply(Collection::async);
+    }
+
+    public CompletableFuture<Collection> getCollection(CollectionName collectionName, EmbeddingFunction embeddingFunction) {
+        return toFuture(callback -> api.getCollectionAsync(collectionName.getName(), callback))
+                .thenApply(resp -> client.toCollection(resp, embeddingFunction));
+    }
+
+    public CompletableFuture<Optional<Collection>> getCollection(CollectionName collectionName) {
+        return getCollection(collectionName, EmbeddingFunction.defaultFunction())
+                .thenApply(fetched -> Optional.ofNullable(client.cachedOr(collectionName, fetched)));
+    }
+
+    /**
+     * Gets a collection and returns its non-blocking view.
+     *
+     * @param collectionName    the name of the collection
+     * @param embeddingFunction the embedding function of the collection
+     * @return the future non-blocking view of the collection
+     */
+    public CompletableFuture<AsyncCollection> getCollectionAsync(CollectionName collectionName, EmbeddingFunction embeddingFunction) {
+        return getCollection(collectionName, embeddingFunction).thenApply(Collection::async);
+    }
+
+    public CompletableFuture<Void> deleteCollection(Collection collection) {
+        return toFuture(callback -> api.deleteCollectionAsync(collection.getNameAsString(), callback))
+                .thenAccept(ignored -> client.unregister(collection));
+    }
+
+    public CompletableFuture<Collection> update(Collection collection, CollectionName newName, Metadata newMetadata, EmbeddingFunction embeddingFunction) {
+        UpdateCollection req = new UpdateCollection();
+        String oldName = collection.getName().getName();
+        req.setNewName(newName.getName());
+        req.setNewMetadata(newMetadata.toMap());
+        return toFuture(callback -> api.updateCollectionAsync(req, collection.getId(), callback))
+                .thenCompose(ignored -> getCollection(newName, embeddingFunction))
+                .thenApply(updatedCollection -> {
+                    client.replace(oldName, updatedCollection);
+                    return updatedCollection;
+                });
+    }
+
+    public CompletableFuture<List<Collection>> listCollections() {
+        return toFuture(callback -> api.listCollectionsAsync(callback))
+                .thenCompose(resp -> {
+                    List<CompletableFuture<Collection>> collections = ((List<LinkedTreeMap<String, Object>>) resp).stream()
+                            .map(response -> getCollection(CollectionName.of(response.get("name")), null))
+                            .collect(Collectors.toList());
+                    return CompletableFuture.allOf(collections.toArray(new CompletableFuture<?>[0]))
+                            .thenApply(ignored -> collections.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+                });
+    }
+
+    /**
+     * Deletes every collection. The collections are deleted concurrently; the returned future fails if any of the
+     * deletions failed.
+     *
+     * @return a future completed once every collection is deleted
+     */
+    public CompletableFuture<Void> deleteAllCollections() {
+        return listCollections().thenCompose(collections -> CompletableFuture.allOf(collections.stream()
+                .map(this::deleteCollection)
+                .toArray(CompletableFuture<?>[]::new)));
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> heartbeat() {
+        return FutureUtils.<Map<String, BigDecimal>>toFuture(api::heartbeatAsync);
+    }
+
+    public CompletableFuture<String> version() {
+        return FutureUtils.<String>toFuture(api::versionAsync);
+    }
+
+    public CompletableFuture<Boolean> reset() {
+        return FutureUtils.<Boolean>toFuture(api::resetAsync);
+    }
+
+    /**
+     * Returns the blocking client this view was created from.
+     */
+    public DbClient blocking() {
+        return client;
+    }
+}
@@ -1,20 +1,28 @@
 package com.acepero13.chromadb.client;
 
-import com.acepero13.chromadb.client.handler.ApiClient;
 import com.acepero13.chromadb.client.handler.ApiException;
 import com.acepero13.chromadb.client.handler.DefaultApi;
 import com.acepero13.chromadb.client.model.Collection;
 import com.acepero13.chromadb.client.model.*;
+import com.acepero13.chromadb.client.serialization.StreamingApiClient;
 import com.google.gson.internal.LinkedTreeMap;
 
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
 import java.math.BigDecimal;
 import java.net.URL;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unchecked")
 public class DbClient {
     private final DefaultApi api;
-    private final Map<String, Collection> collections = new HashMap<>();
+    private final Map<String, Collection> collections = new ConcurrentHashMap<>();
 
 
     DbClient(DefaultApi api) {
@@ -22,16 +30,79 @@ public class DbClient {
     }
 
     public static DbClient create(URL basePath) {
-        var api = new ApiClient();
-        api.setBasePath(basePath.toString());
-        return new DbClient(new DefaultApi(api));
+        return builder(basePath).build();
+    }
+
+    /**
+     * Creates a client that sends its requests through the given {@link OkHttpClient}, sharing its dispatcher
+     * and connection pool.
+     *
+     * @param basePath   the url of the Chroma server
+     * @param httpClient the http client to use
+     * @return a new client
+     */
+    public static DbClient create(URL basePath, OkHttpClient httpClient) {
+        return builder(basePath).withHttpClient(httpClient).build();
+    }
+
+    /**
+     * Creates a client with the given OkHttp dispatcher and connection pool. The dispatcher decides how many
+     * requests run concurrently and on which {@link ExecutorService}; the pool decides how many connections are
+     * kept alive between requests.
+     *
+     * @param basePath       the url of the Chroma server
+     * @param dispatcher     the dispatcher running asynchronous calls
+     * @param connectionPool the pool of reusable connections
+     * @return a new client
+     */
+    public static DbClient create(URL basePath, Dispatcher dispatcher, ConnectionPool connectionPool) {
+        return builder(basePath).withDispatcher(dispatcher).withConnectionPool(connectionPool).build();
+    }
+
+    /**
+     * Returns a new {@link Builder} to configure the http layer of a client.
+     *
+     * @param basePath the url of the Chroma server
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder(URL basePath) {
+        return new Builder(basePath);
+    }
+
+    OkHttpClient httpClient() {
+        return api.getApiClient().getHttpClient();
+    }
+
+    /**
+     * Returns a non-blocking view of this client. Both share the same api and collection cache.
+     *
+     * @return an {@link AsyncDbClient} backed by this client
+     */
+    public AsyncDbClient async() {
+        return new AsyncDbClient(this, api);
+    }
+
+    void register(Collection collection) {
+        collections.putIfAbsent(collection.getId(), collection);
+    }
+
+    void unregister(Collection collection) {
+        collections.remove(collection.getId());
+    }
+
+    void replace(String oldName, Collection updatedCollection) {
+        collections.put(oldName, updatedCollection);
+    }
+
+    Collection cachedOr(CollectionName collectionName, Collection fetched) {
+        return collections.getOrDefault(collectionName.getName(), fetched);
     }
 
     public Collection createCollection(Collection.CreateParams createParams) throws ApiException {
         LinkedTreeMap<String, String> resp = (LinkedTreeMap<String, String>) api.createCollection(createParams.request());
         Collection collection = fetch(CollectionName.of(resp.get("name")), createParams.embeddingsFunction());
 
-        this.collections.putIfAbsent(collection.getId(), collection);
+        register(collection);
         return collection;
     }
 
@@ -44,7 +115,11 @@ public class DbClient {
     }
 
     private Collection fetch(CollectionName collectionName, EmbeddingFunction embeddingFunction) throws ApiException {
-        LinkedTreeMap<String, Object> respCollection = (LinkedTreeMap<String, Object>) api.getCollection(collectionName.getName());
+        return toCollection(api.getCollection(collectionName.getName()), embeddingFunction);
+    }
+
+    Collection toCollection(Object response, EmbeddingFunction embeddingFunction) {
+        LinkedTreeMap<String, Object> respCollection = (LinkedTreeMap<String, Object>) response;
         CollectionName name = CollectionName.of(respCollection.get("name").toString());
         String collectionId = respCollection.get("id").toString();
         Map<String, Object> metadata = (LinkedTreeMap<String, Object>) respCollection.get("metadata");
@@ -57,7 +132,7 @@ public class DbClient {
     }
 
     public Optional<Collection> getCollection(CollectionName collectionName) throws ApiException {
-        Collection collection = collections.getOrDefault(collectionName.getName(), getCollection(collectionName, EmbeddingFunction.defaultFunction()));
+        Collection collection = cachedOr(collectionName, getCollection(collectionName, EmbeddingFunction.defaultFunction()));
         return Optional.ofNullable(collection);
 
     }
@@ -65,7 +140,7 @@ public class DbClient {
 
     public void deleteCollection(Collection collection) throws ApiException {
         api.deleteCollection(collection.getNameAsString());
-        this.collections.remove(collection.getId());
+        unregister(collection);
     }
 
     public Collection update(Collection collection, CollectionName newName, Metadata newMetadata, EmbeddingFunction embeddingFunction) throws ApiException {
@@ -75,7 +150,7 @@ public class DbClient {
         req.setNewMetadata(newMetadata.toMap());
         api.updateCollection(req, collection.getId());
         Collection updatedCollection = fetch(newName, embeddingFunction);
-        collections.put(oldName, updatedCollection);
+        replace(oldName, updatedCollection);
         return updatedCollection;
     }
 
@@ -111,6 +186,133 @@ public class DbClient {
         });
     }
 
+    public static class Builder {
+        private final URL basePath;
+        private OkHttpClient httpClient;
+        private Dispatcher dispatcher;
+        private ExecutorService executor;
+        private Integer maxRequests;
+        private Integer maxRequestsPerHost;
+        private ConnectionPool connectionPool;
+        private Duration connectTimeout;
+        private Duration readTimeout;
 
+        private Builder(URL basePath) {
+            this.basePath = Objects.requireNonNull(basePath);
+        }
 
+        /**
+         * Uses the given client as the base of the http layer. The other settings of this builder are applied
+         * on top of it, without modifying it.
+         *
+         * @param httpClient the base http client
+         * @return this builder
+         */
+        public Builder withHttpClient(OkHttpClient httpClient) {
+            this.httpClient = Objects.requireNonNull(httpClient);
+            return this;
+        }
+
+        /**
+         * Sets the dispatcher running asynchronous calls.
+         *
+         * @param dispatcher the dispatcher
+         * @return this builder
+         */
+        public Builder withDispatcher(Dispatcher dispatcher) {
+            this.dispatcher = Objects.requireNonNull(dispatcher);
+            return this;
+        }
+
+        /**
+         * Runs asynchronous calls on the given executor, for instance a virtual-thread-per-task executor.
+         * Ignored if a dispatcher is set.
+         *
+         * @param executor the executor of the dispatcher
+         * @return this builder
+         */
+        public Builder withExecutor(ExecutorService executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of asynchronous requests in flight, in total and to the Chroma host.
+         * OkHttp defaults to 64 and 5; since every request goes to the same host, raise both for highly
+         * concurrent workloads.
+         *
+         * @param maxRequests        the maximum number of concurrent requests
+         * @param maxRequestsPerHost the maximum number of concurrent requests to the same host
+         * @return this builder
+         */
+        public Builder withMaxRequests(int maxRequests, int maxRequestsPerHost) {
+            if (maxRequests < 1 || maxRequestsPerHost < 1) {
+                throw new IllegalArgumentException("Maximum number of requests must be at least 1");
+            }
+            this.maxRequests = maxRequests;
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets the pool of connections kept alive between requests.
+         *
+         * @param connectionPool the connection pool
+         * @return this builder
+         */
+        public Builder withConnectionPool(ConnectionPool connectionPool) {
+            this.connectionPool = Objects.requireNonNull(connectionPool);
+            return this;
+        }
+
+        /**
+         * Keeps up to {@code maxIdleConnections} idle connections alive for {@code keepAlive}.
+         *
+         * @param maxIdleConnections the maximum number of idle connections
+         * @param keepAlive          how long an idle connection is kept
+         * @return this builder
+         */
+        public Builder withConnectionPool(int maxIdleConnections, Duration keepAlive) {
+            return withConnectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        public Builder withConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = Objects.requireNonNull(connectTimeout);
+            return this;
+        }
+
+        public Builder withReadTimeout(Duration readTimeout) {
+            this.readTimeout = Objects.requireNonNull(readTimeout);
+            return this;
+        }
+
+        public DbClient build() {
+            OkHttpClient.Builder http = httpClient != null ? httpClient.newBuilder() : new OkHttpClient.Builder();
+            Dispatcher effectiveDispatcher = dispatcher;
+            if (effectiveDispatcher == null && (executor != null || maxRequests != null)) {
+                effectiveDispatcher = executor != null ? new Dispatcher(executor) : new Dispatcher();
+            }
+            if (effectiveDispatcher != null) {
+                if (maxRequests != null) {
+                    effectiveDispatcher.setMaxRequests(maxRequests);
+                    effectiveDispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+                }
+                http.dispatcher(effectiveDispatcher);
+            }
+            if (connectionPool != null) {
+                http.connectionPool(connectionPool);
+            }
+            if (connectTimeout != null) {
+                http.connectTimeout(connectTimeout);
+            }
+            if (readTimeout != null) {
+                http.readTimeout(readTimeout);
+            }
+
+            var api = new StreamingApiClient();
+            api.setHttpClient(http.build());
+            api.setBasePath(basePath.toString());
+            return new DbClient(new DefaultApi(api));
+        }
+    }
 }
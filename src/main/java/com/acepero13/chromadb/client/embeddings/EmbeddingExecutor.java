@@ -0,0 +1,251 @@
+package com.acepero13.chromadb.client.embeddings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans embedding batches out across a fixed number of worker threads.
+ * <p>
+ * Every worker creates its own {@link BatchWorker} (for instance, one that owns a predictor) once per call,
+ * and then pulls batches from a shared queue until none are left. Results are returned in the order of the input
+ * batches, regardless of which worker processed them.
+ * <p>
+ * Besides the number of workers, the executor carries the number of intra-op and inter-op threads each worker
+ * should use inside the inference engine, so that {@code workers * intraOpThreads} does not oversubscribe the cores.
+ */
+public final class EmbeddingExecutor implements AutoCloseable {
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final EmbeddingExecutor CALLER_THREAD = new EmbeddingExecutor(1, 0, 0);
+
+    private final int workers;
+    private final int intraOpThreads;
+    private final int interOpThreads;
+    private final ExecutorService executor;
+
+    private EmbeddingExecutor(int workers, int intraOpThreads, int interOpThreads) {
+        this.workers = workers;
+        this.intraOpThreads = intraOpThreads;
+        this.interOpThreads = interOpThreads;
+        this.executor = workers > 1 ? Executors.newFixedThreadPool(workers, new WorkerThreadFactory()) : null;
+    }
+
+    /**
+     * Returns an executor that processes every batch on the calling thread, leaving the engine threads untouched.
+     *
+     * @return an executor running on the caller thread
+     */
+    public static EmbeddingExecutor callerThread() {
+        return CALLER_THREAD;
+    }
+
+    /**
+     * Creates an executor with the given number of workers, splitting the available cores evenly between them.
+     *
+     * @param workers the number of worker threads
+     * @return a new executor
+     */
+    public static EmbeddingExecutor create(int workers) {
+        return builder().withWorkers(workers).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Processes the given batches across the workers.
+     *
+     * @param batches the batches to process
+     * @param factory creates one worker per thread
+     * @return the result of every batch, in the same order as {@code batches}
+     * @throws IllegalStateException if any batch fails
+     */
+    public <B, R> List<R> map(List<B> batches, WorkerFactory<B, R> factory) {
+        Object[] results = new Object[batches.size()];
+        AtomicInteger next = new AtomicInteger();
+        int parallelism = executor == null ? 1 : Math.min(workers, batches.size());
+
+        if (parallelism <= 1) {
+            drain(batches, factory, next, results);
+        } else {
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(executor.submit(() -> {
+                    drain(batches, factory, next, results);
+                    return null;
+                }));
+            }
+            awaitAll(futures);
+        }
+        return castAll(results);
+    }
+
+    private static <B, R> void drain(List<B> batches, WorkerFactory<B, R> factory, AtomicInteger next, Object[] results) {
+        try (BatchWorker<B, R> worker = factory.create()) {
+            for (int i = next.getAndIncrement(); i < batches.size(); i = next.getAndIncrement()) {
+                results[i] = worker.process(batches.get(i));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Embedding worker was interrupted", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Embedding batch failed", e);
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for embedding workers", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException("Embedding batch failed", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> List<R> castAll(Object[] results) {
+        return (List<R>) Arrays.asList(results);
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    /**
+     * Returns the number of threads each worker should use to run a single operator, or {@code 0} to keep the
+     * engine default.
+     */
+    public int intraOpThreads() {
+        return intraOpThreads;
+    }
+
+    /**
+     * Returns the number of threads each worker should use to run independent operators in parallel, or {@code 0}
+     * to keep the engine default.
+     */
+    public int interOpThreads() {
+        return interOpThreads;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddingExecutor{" +
+                "workers=" + workers +
+                ", intraOpThreads=" + intraOpThreads +
+                ", interOpThreads=" + interOpThreads +
+                '}';
+    }
+
+    /**
+     * Processes batches on a single worker thread. It is created and closed by the thread that uses it,
+     * so it can safely hold per-thread resources.
+     */
+    public interface BatchWorker<B, R> extends AutoCloseable {
+        R process(B batch) throws Exception;
+
+        @Override
+        default void close() {
+        }
+    }
+
+    @FunctionalInterface
+    public interface WorkerFactory<B, R> {
+        BatchWorker<B, R> create() throws Exception;
+    }
+
+    public static class Builder {
+        private int workers = 1;
+        private Integer intraOpThreads;
+        private int interOpThreads = 1;
+
+        /**
+         * Sets the number of worker threads.
+         *
+         * @param workers the number of worker threads
+         * @return this builder
+         */
+        public Builder withWorkers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("Number of workers must be at least 1");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads each worker uses inside a single operator.
+         * Defaults to the number of cores divided by the number of workers.
+         *
+         * @param intraOpThreads the number of intra-op threads
+         * @return this builder
+         */
+        public Builder withIntraOpThreads(int intraOpThreads) {
+            if (intraOpThreads < 1) {
+                throw new IllegalArgumentException("Number of intra-op threads must be at least 1");
+            }
+            this.intraOpThreads = intraOpThreads;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads each worker uses to run independent operators. Defaults to 1.
+         *
+         * @param interOpThreads the number of inter-op threads
+         * @return this builder
+         */
+        public Builder withInterOpThreads(int interOpThreads) {
+            if (interOpThreads < 1) {
+                throw new IllegalArgumentException("Number of inter-op threads must be at least 1");
+            }
+            this.interOpThreads = interOpThreads;
+            return this;
+        }
+
+        public EmbeddingExecutor build() {
+            int intraOp = intraOpThreads != null ? intraOpThreads : Math.max(1, CORES / workers);
+            return new EmbeddingExecutor(workers, intraOp, interOpThreads);
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL = new AtomicInteger();
+        private final int pool = POOL.incrementAndGet();
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "embedding-" + pool + "-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Content address of an embedding: the SHA-256 digest of the model identifier and the embedded text.
+ */
+public final class CacheKey {
+    public static final int LENGTH = 32;
+    private final byte[] digest;
+    private final int hash;
+
+    private CacheKey(byte[] digest) {
+        this.digest = digest;
+        this.hash = Arrays.hashCode(digest);
+    }
+
+    /**
+     * Creates the key of the embedding of {@code text} produced by {@code model}.
+     *
+     * @param model the identifier of the model that produces the embedding
+     * @param text  the embedded text
+     * @return the content address of the embedding
+     */
+    public static CacheKey of(String model, String text) {
+        MessageDigest sha256 = newDigest();
+        sha256.update(model.getBytes(StandardCharsets.UTF_8));
+        sha256.update((byte) 0);
+        sha256.update(text.getBytes(StandardCharsets.UTF_8));
+        return new CacheKey(sha256.digest());
+    }
+
+    /**
+     * Wraps an existing digest, for instance one read back from a persistent cache.
+     *
+     * @param digest the 32 bytes of a SHA-256 digest
+     * @return the key holding a copy of {@code digest}
+     */
+    public static CacheKey fromDigest(byte[] digest) {
+        if (digest.length != LENGTH) {
+            throw new IllegalArgumentException("Digest must be " + LENGTH + " bytes long");
+        }
+        return new CacheKey(digest.clone());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm is not available", e);
+        }
+    }
+
+    /**
+     * Returns a copy of the digest.
+     *
+     * @return the 32 bytes of the digest
+     */
+    public byte[] digest() {
+        return digest.clone();
+    }
+
+    /**
+     * Returns the digest byte at the given position, without copying the digest.
+     */
+    public byte digestAt(int index) {
+        return digest[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(digest, ((CacheKey) o).digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder hex = new StringBuilder(LENGTH * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
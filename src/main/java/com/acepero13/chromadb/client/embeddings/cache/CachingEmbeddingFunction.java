@@ -0,0 +1,216 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.EmbeddingFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an {@link EmbeddingFunction} with a content-addressed cache.
+ * <p>
+ * Every text is looked up by the hash of the model identifier and the text, first in memory and then, if
+ * configured, in a second (usually persistent) tier. Only the distinct texts missing from both tiers are sent
+ * to the wrapped function, in a single call. Empty embeddings are never cached.
+ */
+public class CachingEmbeddingFunction implements EmbeddingFunction, AutoCloseable {
+    private final EmbeddingFunction delegate;
+    private final String modelId;
+    private final EmbeddingCache memory;
+    private final EmbeddingCache disk;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private CachingEmbeddingFunction(Builder builder) {
+        this.delegate = builder.delegate;
+        this.modelId = builder.modelId;
+        this.memory = builder.memory != null ? builder.memory : MemoryEmbeddingCache.builder().build();
+        this.disk = builder.disk;
+    }
+
+    /**
+     * Returns a new {@link Builder} caching the embeddings of the given function.
+     *
+     * @param delegate the function that creates the embeddings missing from the cache
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder(EmbeddingFunction delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public List<Embedding> createEmbeddings(List<String> documents) {
+        return createEmbeddings(documents, modelId, delegate::createEmbeddings);
+    }
+
+    @Override
+    public List<Embedding> createEmbeddings(List<String> documents, String model) {
+        return createEmbeddings(documents, delegate.modelId(model), misses -> delegate.createEmbeddings(misses, model));
+    }
+
+    private List<Embedding> createEmbeddings(List<String> documents, String model, Embedder embedder) {
+        Embedding[] embeddings = new Embedding[documents.size()];
+        Map<CacheKey, List<Integer>> missing = new LinkedHashMap<>();
+        Map<CacheKey, String> missingTexts = new LinkedHashMap<>();
+
+        for (int i = 0; i < documents.size(); i++) {
+            String text = documents.get(i);
+            CacheKey key = CacheKey.of(model, text);
+            float[] vector = lookup(key);
+            if (vector != null) {
+                hits.incrementAndGet();
+                embeddings[i] = Embedding.wrap(vector);
+            } else {
+                missing.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                missingTexts.putIfAbsent(key, text);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Arrays.asList(embeddings);
+        }
+
+        misses.addAndGet(missing.size());
+        List<CacheKey> keys = new ArrayList<>(missingTexts.keySet());
+        List<Embedding> created = embedder.embed(new ArrayList<>(missingTexts.values()));
+        if (created.size() != keys.size()) {
+            throw new IllegalStateException("Embedding function returned " + created.size() + " embeddings for " + keys.size() + " documents");
+        }
+        for (int k = 0; k < keys.size(); k++) {
+            Embedding embedding = created.get(k);
+            store(keys.get(k), embedding);
+            for (int position : missing.get(keys.get(k))) {
+                embeddings[position] = embedding;
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    private float[] lookup(CacheKey key) {
+        float[] vector = memory.get(key);
+        if (vector == null && disk != null) {
+            vector = disk.get(key);
+            if (vector != null) {
+                memory.put(key, vector);
+            }
+        }
+        return vector;
+    }
+
+    private void store(CacheKey key, Embedding embedding) {
+        if (embedding == null || embedding.isEmpty()) {
+            return;
+        }
+        float[] vector = embedding.toArray();
+        memory.put(key, vector);
+        if (disk != null) {
+            disk.put(key, vector);
+        }
+    }
+
+    @Override
+    public String modelId() {
+        return modelId;
+    }
+
+    @Override
+    public String modelId(String model) {
+        return delegate.modelId(model);
+    }
+
+    /**
+     * Returns the number of texts served from the cache.
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of distinct texts sent to the wrapped function.
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /**
+     * Closes both cache tiers. The wrapped function is left open.
+     */
+    @Override
+    public void close() {
+        memory.close();
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Embedder {
+        List<Embedding> embed(List<String> documents);
+    }
+
+    public static class Builder {
+        private final EmbeddingFunction delegate;
+        private String modelId;
+        private EmbeddingCache memory;
+        private EmbeddingCache disk;
+
+        private Builder(EmbeddingFunction delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+        }
+
+        /**
+         * Sets the identifier of the model used by the wrapped function when no model is given explicitly.
+         * It is part of every cache key, so embeddings of different models never collide.
+         * Defaults to the {@link EmbeddingFunction#modelId() model id} of the wrapped function.
+         *
+         * @param modelId the model identifier
+         * @return this builder
+         */
+        public Builder withModelId(String modelId) {
+            this.modelId = Objects.requireNonNull(modelId);
+            return this;
+        }
+
+        /**
+         * Sets the in-memory tier. Defaults to a {@link MemoryEmbeddingCache} with its default bounds.
+         *
+         * @param memory the in-memory cache
+         * @return this builder
+         */
+        public Builder withMemoryCache(EmbeddingCache memory) {
+            this.memory = Objects.requireNonNull(memory);
+            return this;
+        }
+
+        /**
+         * Sets the second tier, looked up on memory misses. Vectors found there are promoted to memory.
+         *
+         * @param disk the second-tier cache
+         * @return this builder
+         */
+        public Builder withDiskCache(EmbeddingCache disk) {
+            this.disk = Objects.requireNonNull(disk);
+            return this;
+        }
+
+        /**
+         * Builds the caching function.
+         *
+         * @return a new {@link CachingEmbeddingFunction}
+         * @throws IllegalStateException if no model id was set and the wrapped function does not provide one
+         */
+        public CachingEmbeddingFunction build() {
+            if (modelId == null) {
+                modelId = delegate.modelId();
+            }
+            if (modelId == null) {
+                throw new IllegalStateException("A model id is required, since " + delegate.getClass().getName() + " does not provide one");
+            }
+            return new CachingEmbeddingFunction(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+/**
+ * A store of embedding vectors addressed by {@link CacheKey}. Implementations must be thread-safe.
+ */
+public interface EmbeddingCache extends AutoCloseable {
+
+    /**
+     * Returns the cached vector for the given key.
+     *
+     * @param key the content address of the embedding
+     * @return the vector, or {@code null} if it is not cached
+     */
+    float[] get(CacheKey key);
+
+    /**
+     * Stores a vector. The cache may evict other entries to make room for it.
+     *
+     * @param key    the content address of the embedding
+     * @param vector the embedding vector
+     */
+    void put(CacheKey key, float[] vector);
+
+    /**
+     * Returns the number of cached vectors.
+     */
+    long size();
+
+    @Override
+    default void close() {
+    }
+}
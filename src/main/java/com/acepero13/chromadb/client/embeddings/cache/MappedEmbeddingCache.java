@@ -0,0 +1,629 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent embedding cache backed by a memory-mapped, append-only file of fixed-width float32 vectors.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE}-byte header (magic, version, dimensions, record size) followed
+ * by records laid out as:
+ * <pre>
+ * [digest: 32 bytes][flags: 1 byte][reserved: 3 bytes][crc32: 4 bytes][vector: dimensions * 4 bytes, little endian]
+ * </pre>
+ * A record becomes visible only when its flags byte is written, after the digest, the vector and the checksum.
+ * On open, the file is scanned up to the first empty or corrupt record, so a crash in the middle of an append
+ * loses at most that record. Overwritten and removed entries are marked as deleted and reclaimed by
+ * {@link #compact()}.
+ * <p>
+ * Vectors stay in the mapped file; the heap only holds an open-addressing index of about 24 bytes per entry.
+ * A single file holds at most 2 GiB of records. Mappings replaced when the file grows, is compacted or is closed
+ * are unmapped right away instead of waiting for the garbage collector, when the JVM allows it.
+ */
+public final class MappedEmbeddingCache implements EmbeddingCache {
+    static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x43454D42; // "CEMB"
+    private static final int VERSION = 1;
+    private static final int FLAGS_OFFSET = CacheKey.LENGTH;
+    private static final int CRC_OFFSET = FLAGS_OFFSET + 4;
+    private static final int VECTOR_OFFSET = CRC_OFFSET + 4;
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final MethodHandle UNMAPPER = unmapper();
+
+    private final Path file;
+    private final int initialCapacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int dimensions;
+    private int recordSize;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private DigestIndex index;
+    private int records;
+    private int deleted;
+
+    private MappedEmbeddingCache(Builder builder) throws IOException {
+        this.file = builder.file;
+        this.dimensions = builder.dimensions;
+        this.initialCapacity = builder.initialCapacity;
+        open();
+    }
+
+    /**
+     * Returns a new {@link Builder} for a cache stored in the given file.
+     *
+     * @param file the cache file, created if it does not exist
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder(Path file) {
+        return new Builder(file);
+    }
+
+    /**
+     * Opens and maps the file. On failure, nothing is left open and the cache rejects further calls.
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                if (dimensions < 1) {
+                    throw new IllegalStateException("Dimensions are required to create the cache file " + file);
+                }
+                recordSize = VECTOR_OFFSET + dimensions * Float.BYTES;
+                map(capacityFor(initialCapacity));
+                writeHeader();
+            } else {
+                readHeader();
+                map(channel.size());
+            }
+            index = new DigestIndex(Math.max(16, initialCapacity));
+            scan();
+        } catch (IOException | RuntimeException e) {
+            try {
+                release();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IllegalStateException(file + " is not an embedding cache file");
+        }
+        int stored = header.getInt(8);
+        if (dimensions > 0 && dimensions != stored) {
+            throw new IllegalStateException("Cache file " + file + " holds vectors of " + stored + " dimensions, not " + dimensions);
+        }
+        dimensions = stored;
+        recordSize = header.getInt(12);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, dimensions);
+        buffer.putInt(12, recordSize);
+    }
+
+    /**
+     * Rebuilds the index from the file, stopping at the first empty, partial or corrupt record.
+     */
+    private void scan() {
+        records = 0;
+        deleted = 0;
+        long limit = buffer.capacity();
+        while (HEADER_SIZE + (long) (records + 1) * recordSize <= limit) {
+            int offset = offset(records);
+            byte flags = buffer.get(offset + FLAGS_OFFSET);
+            if (flags == EMPTY || buffer.getInt(offset + CRC_OFFSET) != checksum(offset)) {
+                break;
+            }
+            if (flags == LIVE) {
+                int previous = index.put(digestPrefix(offset), records, this::sameDigest);
+                if (previous >= 0) {
+                    markDeleted(previous);
+                }
+            } else {
+                deleted++;
+            }
+            records++;
+        }
+        clearFrom(records);
+    }
+
+    private void clearFrom(int record) {
+        if (HEADER_SIZE + (long) (record + 1) * recordSize <= buffer.capacity()) {
+            buffer.put(offset(record) + FLAGS_OFFSET, EMPTY);
+        }
+    }
+
+    @Override
+    public float[] get(CacheKey key) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int record = index.get(prefix(key), r -> digestMatches(r, key));
+            if (record < 0) {
+                return null;
+            }
+            float[] vector = new float[dimensions];
+            int offset = offset(record) + VECTOR_OFFSET;
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = buffer.getFloat(offset + i * Float.BYTES);
+            }
+            return vector;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CacheKey key, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected a vector of " + dimensions + " dimensions, got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            ensureCapacity(records + 1);
+            int record = records;
+            int offset = offset(record);
+            for (int i = 0; i < CacheKey.LENGTH; i++) {
+                buffer.put(offset + i, key.digestAt(i));
+            }
+            for (int i = 0; i < dimensions; i++) {
+                buffer.putFloat(offset + VECTOR_OFFSET + i * Float.BYTES, vector[i]);
+            }
+            buffer.putInt(offset + CRC_OFFSET, checksum(offset));
+            buffer.put(offset + FLAGS_OFFSET, LIVE);
+            records++;
+            clearFrom(records);
+
+            int previous = index.put(prefix(key), record, this::sameDigest);
+            if (previous >= 0) {
+                markDeleted(previous);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the vector of the given key. The space is reclaimed by {@link #compact()}.
+     *
+     * @param key the content address of the embedding
+     * @return {@code true} if the key was cached
+     */
+    public boolean remove(CacheKey key) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int record = index.remove(prefix(key), r -> digestMatches(r, key));
+            if (record < 0) {
+                return false;
+            }
+            markDeleted(record);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void markDeleted(int record) {
+        buffer.put(offset(record) + FLAGS_OFFSET, DELETED);
+        deleted++;
+    }
+
+    /**
+     * Rewrites the file keeping only live records. The new file is written next to the current one and atomically
+     * moved over it, so a crash during compaction leaves the original file untouched. The current file is unmapped
+     * and closed before the move, since some platforms cannot replace a mapped file; if the move fails, the
+     * original file is opened again.
+     *
+     * @throws UncheckedIOException if the compacted file cannot be written or moved
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = buffer.duplicate();
+                header.position(0).limit(HEADER_SIZE);
+                target.write(header);
+                for (int record = 0; record < records; record++) {
+                    int offset = offset(record);
+                    if (buffer.get(offset + FLAGS_OFFSET) == LIVE) {
+                        ByteBuffer live = buffer.duplicate();
+                        live.position(offset).limit(offset + recordSize);
+                        target.write(live);
+                    }
+                }
+                target.force(true);
+            }
+            buffer.force();
+            release();
+            try {
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                try {
+                    open();
+                } catch (IOException | RuntimeException reopen) {
+                    e.addSuppressed(reopen);
+                }
+                throw e;
+            }
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces the appended records to the storage device.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of records waiting to be reclaimed by {@link #compact()}.
+     */
+    public int deletedRecords() {
+        lock.readLock().lock();
+        try {
+            return deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("Cache file " + file + " is closed");
+        }
+    }
+
+    /**
+     * Unmaps the buffer and closes the channel. The buffer must not be read afterwards.
+     */
+    private void release() throws IOException {
+        unmap(buffer);
+        buffer = null;
+        FileChannel open = channel;
+        channel = null;
+        if (open != null) {
+            open.close();
+        }
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        long required = HEADER_SIZE + (long) needed * recordSize;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long grown = Math.max(required, HEADER_SIZE + 2L * (buffer.capacity() - HEADER_SIZE));
+        grown = Math.min(grown, Integer.MAX_VALUE);
+        if (grown < required) {
+            throw new IllegalStateException("Cache file " + file + " is full");
+        }
+        MappedByteBuffer previous = buffer;
+        previous.force();
+        map(grown);
+        unmap(previous);
+    }
+
+    private long capacityFor(int records) {
+        return Math.min(Integer.MAX_VALUE, HEADER_SIZE + (long) Math.max(1, records) * recordSize);
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns a handle releasing a mapping immediately, or {@code null} if the JVM does not expose one. Java 11 has
+     * no public API for this, so {@code sun.misc.Unsafe.invokeCleaner} is used, as other memory-mapping libraries do.
+     */
+    private static MethodHandle unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            MethodHandle invokeCleaner = MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class));
+            return invokeCleaner.bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Releases the given mapping. Without an unmapper, it is released when the buffer is garbage collected.
+     */
+    private static void unmap(MappedByteBuffer mapping) {
+        if (mapping == null || UNMAPPER == null) {
+            return;
+        }
+        try {
+            UNMAPPER.invokeExact((ByteBuffer) mapping);
+        } catch (Throwable e) {
+            // Left to the garbage collector
+        }
+    }
+
+    private int offset(int record) {
+        return HEADER_SIZE + record * recordSize;
+    }
+
+    private int checksum(int offset) {
+        CRC32 crc = new CRC32();
+        ByteBuffer digest = buffer.duplicate();
+        digest.position(offset).limit(offset + CacheKey.LENGTH);
+        crc.update(digest);
+        ByteBuffer vector = buffer.duplicate();
+        vector.position(offset + VECTOR_OFFSET).limit(offset + recordSize);
+        crc.update(vector);
+        return (int) crc.getValue();
+    }
+
+    private long digestPrefix(int offset) {
+        return buffer.getLong(offset);
+    }
+
+    private static long prefix(CacheKey key) {
+        long prefix = 0;
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            prefix = (prefix << 8) | (key.digestAt(i) & 0xff);
+        }
+        return prefix;
+    }
+
+    private boolean digestMatches(int record, CacheKey key) {
+        int offset = offset(record);
+        for (int i = 0; i < CacheKey.LENGTH; i++) {
+            if (buffer.get(offset + i) != key.digestAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameDigest(int record, int other) {
+        int offset = offset(record);
+        int otherOffset = offset(other);
+        for (int i = 0; i < CacheKey.LENGTH; i++) {
+            if (buffer.get(offset + i) != buffer.get(otherOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface RecordMatcher {
+        boolean matches(int record);
+    }
+
+    @FunctionalInterface
+    private interface RecordComparator {
+        boolean sameDigest(int record, int other);
+    }
+
+    /**
+     * Open-addressing hash table from the first 8 bytes of a digest to a record number. Prefix collisions are
+     * resolved by comparing the full digest stored in the file.
+     */
+    private static final class DigestIndex {
+        private static final int FREE = -1;
+        private static final int REMOVED = -2;
+        private long[] prefixes;
+        private int[] records;
+        private int size;
+        private int used;
+
+        private DigestIndex(int expected) {
+            allocate(Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1);
+        }
+
+        private void allocate(int capacity) {
+            prefixes = new long[capacity];
+            records = new int[capacity];
+            Arrays.fill(records, FREE);
+            used = size;
+        }
+
+        private int get(long prefix, RecordMatcher matcher) {
+            int mask = records.length - 1;
+            for (int slot = mix(prefix) & mask; records[slot] != FREE; slot = (slot + 1) & mask) {
+                if (records[slot] >= 0 && prefixes[slot] == prefix && matcher.matches(records[slot])) {
+                    return records[slot];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Maps the digest of {@code record} to it, returning the record it replaced or {@code -1}.
+         */
+        private int put(long prefix, int record, RecordComparator comparator) {
+            int mask = records.length - 1;
+            int slot = mix(prefix) & mask;
+            int reusable = -1;
+            for (; records[slot] != FREE; slot = (slot + 1) & mask) {
+                if (records[slot] == REMOVED) {
+                    if (reusable < 0) {
+                        reusable = slot;
+                    }
+                } else if (prefixes[slot] == prefix && comparator.sameDigest(records[slot], record)) {
+                    int previous = records[slot];
+                    records[slot] = record;
+                    return previous;
+                }
+            }
+            if (reusable >= 0) {
+                slot = reusable;
+            } else {
+                used++;
+            }
+            prefixes[slot] = prefix;
+            records[slot] = record;
+            size++;
+            if (used * 2 > records.length) {
+                rehash();
+            }
+            return -1;
+        }
+
+        private int remove(long prefix, RecordMatcher matcher) {
+            int mask = records.length - 1;
+            for (int slot = mix(prefix) & mask; records[slot] != FREE; slot = (slot + 1) & mask) {
+                if (records[slot] >= 0 && prefixes[slot] == prefix && matcher.matches(records[slot])) {
+                    int record = records[slot];
+                    records[slot] = REMOVED;
+                    size--;
+                    return record;
+                }
+            }
+            return -1;
+        }
+
+        private void rehash() {
+            long[] oldPrefixes = prefixes;
+            int[] oldRecords = records;
+            int capacity = size * 4 > oldRecords.length ? oldRecords.length * 2 : oldRecords.length;
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < oldRecords.length; i++) {
+                if (oldRecords[i] >= 0) {
+                    int slot = mix(oldPrefixes[i]) & mask;
+                    while (records[slot] != FREE) {
+                        slot = (slot + 1) & mask;
+                    }
+                    prefixes[slot] = oldPrefixes[i];
+                    records[slot] = oldRecords[i];
+                }
+            }
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private static int mix(long prefix) {
+            return (int) (prefix ^ (prefix >>> 32));
+        }
+    }
+
+    public static class Builder {
+        private final Path file;
+        private int dimensions;
+        private int initialCapacity = 1024;
+
+        private Builder(Path file) {
+            this.file = Objects.requireNonNull(file);
+        }
+
+        /**
+         * Sets the number of dimensions of the cached vectors. Required when the file does not exist yet;
+         * otherwise it is checked against the dimensions stored in the file.
+         *
+         * @param dimensions the number of dimensions of every vector
+         * @return this builder
+         */
+        public Builder withDimensions(int dimensions) {
+            if (dimensions < 1) {
+                throw new IllegalArgumentException("Dimensions must be at least 1");
+            }
+            this.dimensions = dimensions;
+            return this;
+        }
+
+        /**
+         * Sets the number of records the file is initially sized for. The file doubles when it is full.
+         *
+         * @param initialCapacity the initial number of records
+         * @return this builder
+         */
+        public Builder withInitialCapacity(int initialCapacity) {
+            if (initialCapacity < 1) {
+                throw new IllegalArgumentException("Initial capacity must be at least 1");
+            }
+            this.initialCapacity = initialCapacity;
+            return this;
+        }
+
+        /**
+         * Opens the cache file, creating it if needed, and indexes its records.
+         *
+         * @return the opened cache
+         * @throws IOException if the file cannot be opened or mapped
+         */
+        public MappedEmbeddingCache build() throws IOException {
+            return new MappedEmbeddingCache(this);
+        }
+    }
+}
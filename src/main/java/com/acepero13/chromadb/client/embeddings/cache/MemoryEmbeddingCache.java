@@ -0,0 +1,140 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory least-recently-used cache of embedding vectors, bounded both by number of entries and by the
+ * memory taken by the vectors.
+ */
+public final class MemoryEmbeddingCache implements EmbeddingCache {
+    private static final long ENTRY_OVERHEAD = 96;
+    private final long maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<CacheKey, float[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Lock lock = new ReentrantLock();
+    private long bytes;
+
+    private MemoryEmbeddingCache(Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.maxBytes = builder.maxBytes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public float[] get(CacheKey key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(CacheKey key, float[] vector) {
+        long weight = weight(vector);
+        if (weight > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            float[] previous = entries.put(key, vector);
+            if (previous != null) {
+                bytes -= weight(previous);
+            }
+            bytes += weight;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<CacheKey, float[]>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= weight(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    private static long weight(float[] vector) {
+        return ENTRY_OVERHEAD + (long) vector.length * Float.BYTES;
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated memory taken by the cached vectors, in bytes.
+     */
+    public long bytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static class Builder {
+        private long maxEntries = 10_000;
+        private long maxBytes = 64L * 1024 * 1024;
+
+        /**
+         * Sets the maximum number of cached vectors. Defaults to 10,000.
+         *
+         * @param maxEntries the maximum number of vectors
+         * @return this builder
+         */
+        public Builder withMaxEntries(long maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("Maximum number of entries must be at least 1");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the maximum memory taken by the cached vectors, in bytes. Defaults to 64 MiB.
+         *
+         * @param maxBytes the maximum memory in bytes
+         * @return this builder
+         */
+        public Builder withMaxBytes(long maxBytes) {
+            if (maxBytes < 1) {
+                throw new IllegalArgumentException("Maximum size must be at least 1 byte");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public MemoryEmbeddingCache build() {
+            return new MemoryEmbeddingCache(this);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.acepero13.chromadb.client.embeddings.minilm;
+
+/**
+ * The inference engine used to run a sentence transformer model.
+ */
+public enum Backend {
+    PYTORCH("PyTorch", "djl://ai.djl.huggingface.pytorch/"),
+    ONNX_RUNTIME("OnnxRuntime", "djl://ai.djl.huggingface.onnxruntime/");
+
+    private final String engineName;
+    private final String zooUrl;
+
+    Backend(String engineName, String zooUrl) {
+        this.engineName = engineName;
+        this.zooUrl = zooUrl;
+    }
+
+    /**
+     * Returns the name of the DJL engine.
+     *
+     * @return the DJL engine name
+     */
+    public String getEngineName() {
+        return engineName;
+    }
+
+    /**
+     * Returns the DJL model zoo url prefix for hugging face models exported for this engine.
+     *
+     * @return the model zoo url prefix
+     */
+    public String getZooUrl() {
+        return zooUrl;
+    }
+}
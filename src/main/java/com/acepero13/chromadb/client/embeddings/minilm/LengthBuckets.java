@@ -0,0 +1,51 @@
+package com.acepero13.chromadb.client.embeddings.minilm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Splits texts into micro-batches of similar length, so that short texts are not padded to the length
+ * of the longest text in the batch.
+ */
+final class LengthBuckets {
+    private LengthBuckets() {
+    }
+
+    /**
+     * Groups the positions of the given texts into batches of at most {@code batchSize} elements.
+     * Positions are ordered by the estimated length of their text, so each batch holds texts of similar length.
+     *
+     * @param texts     the texts to split
+     * @param batchSize the maximum number of texts per batch
+     * @param length    the estimated length of a text, used as a proxy for its number of tokens
+     * @return the batches, each one holding positions into {@code texts}
+     */
+    static List<int[]> split(List<String> texts, int batchSize, ToIntFunction<String> length) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        int[] lengths = texts.stream().mapToInt(length).toArray();
+        int[] order = IntStream.range(0, texts.size())
+                .boxed()
+                .sorted(Comparator.comparingInt(i -> lengths[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        List<int[]> batches = new ArrayList<>((order.length + batchSize - 1) / batchSize);
+        for (int start = 0; start < order.length; start += batchSize) {
+            batches.add(Arrays.copyOfRange(order, start, Math.min(order.length, start + batchSize)));
+        }
+        return batches;
+    }
+
+    /**
+     * Same as {@link #split(List, int, ToIntFunction)}, using the number of characters as the length estimate.
+     */
+    static List<int[]> split(List<String> texts, int batchSize) {
+        return split(texts, batchSize, String::length);
+    }
+}
@@ -0,0 +1,94 @@
+package com.acepero13.chromadb.client.embeddings.minilm;
+
+import ai.djl.inference.Predictor;
+import ai.djl.translate.TranslateException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, thread-safe pool of {@link Predictor}s created from a single loaded model.
+ * <p>
+ * Predictors are created lazily, up to {@code size}, and handed out to one caller at a time.
+ * Callers beyond that bound wait until a predictor is released.
+ *
+ * @param <I> the predictor input type
+ * @param <O> the predictor output type
+ */
+final class PredictorPool<I, O> implements AutoCloseable {
+    private final Supplier<Predictor<I, O>> factory;
+    private final Semaphore permits;
+    private final Queue<Predictor<I, O>> idle = new ConcurrentLinkedQueue<>();
+    private final Queue<Predictor<I, O>> created = new ConcurrentLinkedQueue<>();
+
+    PredictorPool(int size, Supplier<Predictor<I, O>> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Runs the given task with a predictor borrowed from the pool, returning it afterwards.
+     *
+     * @param task the work to do with the predictor
+     * @return the result of the task
+     * @throws TranslateException   if the predictor fails
+     * @throws InterruptedException if the thread is interrupted while waiting for a free predictor
+     */
+    <R> R apply(PredictorTask<I, O, R> task) throws TranslateException, InterruptedException {
+        Predictor<I, O> predictor = borrow();
+        try {
+            return task.apply(predictor);
+        } finally {
+            release(predictor);
+        }
+    }
+
+    Predictor<I, O> borrow() throws InterruptedException {
+        permits.acquire();
+        Predictor<I, O> predictor = idle.poll();
+        if (predictor != null) {
+            return predictor;
+        }
+        try {
+            predictor = factory.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        created.add(predictor);
+        return predictor;
+    }
+
+    void release(Predictor<I, O> predictor) {
+        idle.offer(predictor);
+        permits.release();
+    }
+
+    /**
+     * Returns the number of predictors created so far.
+     *
+     * @return the number of predictors created by this pool
+     */
+    int created() {
+        return created.size();
+    }
+
+    @Override
+    public void close() {
+        Predictor<I, O> predictor;
+        while ((predictor = created.poll()) != null) {
+            predictor.close();
+        }
+        idle.clear();
+    }
+
+    @FunctionalInterface
+    interface PredictorTask<I, O, R> {
+        R apply(Predictor<I, O> predictor) throws TranslateException;
+    }
+}
@@ -8,34 +8,116 @@ import ai.djl.repository.zoo.ModelNotFoundException;
 import ai.djl.repository.zoo.ZooModel;
 import ai.djl.training.util.ProgressBar;
 import ai.djl.translate.TranslateException;
+import com.acepero13.chromadb.client.embeddings.EmbeddingExecutor;
 import com.acepero13.chromadb.client.model.Embedding;
 import com.acepero13.chromadb.client.model.EmbeddingFunction;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
-public class TextEmbedding implements EmbeddingFunction {
+public class TextEmbedding implements EmbeddingFunction, AutoCloseable {
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_BATCH_SIZE = 32;
+    private static final String PYTORCH_INTRA_OP_THREADS = "ai.djl.pytorch.num_threads";
+    private static final String PYTORCH_INTER_OP_THREADS = "ai.djl.pytorch.num_interop_threads";
+    private static final String ONNX_INTRA_OP_THREADS = "intraOpNumThreads";
+    private static final String ONNX_INTER_OP_THREADS = "interOpNumThreads";
+    private static final String QUANTIZED_MODEL_NAME = "model_quantized";
     private final String modelPath;
-    final String DJL_PATH = "djl://ai.djl.huggingface.pytorch/";
+    private final Path localModel;
+    private final String modelName;
+    private final Backend backend;
+    private final int poolSize;
+    private final int batchSize;
+    private final EmbeddingExecutor executor;
+
+    private final Lock lock = new ReentrantLock();
+    private volatile PredictorPool<String, float[]> predictors;
+    private ZooModel<String, float[]> model;
 
     public TextEmbedding() {
         this(Model.BGE_SMALL_EN_v1_5);
     }
 
     public TextEmbedding(String modelPath) {
-        this.modelPath = modelPath;
+        this(modelPath, DEFAULT_POOL_SIZE);
     }
 
     public TextEmbedding(Model model) {
         this(model.getModelPath());
     }
 
+    /**
+     * Creates a text embedding function that loads the model once and serves requests from a pool of predictors.
+     *
+     * @param modelPath the hugging face path of the model
+     * @param poolSize  the maximum number of predictors used concurrently
+     */
+    public TextEmbedding(String modelPath, int poolSize) {
+        this(builder().withModelPath(modelPath).withPoolSize(poolSize));
+    }
+
+    public TextEmbedding(Model model, int poolSize) {
+        this(model.getModelPath(), poolSize);
+    }
+
+    private TextEmbedding(Builder builder) {
+        this.modelPath = builder.modelPath;
+        this.localModel = builder.localModel;
+        this.modelName = builder.quantized ? QUANTIZED_MODEL_NAME : null;
+        this.backend = builder.backend;
+        this.poolSize = Math.max(builder.poolSize, builder.executor.workers());
+        this.batchSize = builder.batchSize;
+        this.executor = builder.executor;
+    }
+
+    /**
+     * Returns a new {@link Builder} instance to build a {@link TextEmbedding} object.
+     *
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates the embeddings of the given documents. Documents are sorted by length and split into
+     * micro-batches, each one embedded with a single call to {@link Predictor#batchPredict(List)}.
+     * Batches are spread across the workers of the configured {@link EmbeddingExecutor}, each worker using its own
+     * predictor. The returned embeddings keep the order of the documents.
+     *
+     * @param documents the documents to embed
+     * @return one embedding per document
+     * @throws IllegalStateException if the model cannot be loaded
+     */
     @Override
     public List<Embedding> createEmbeddings(List<String> documents) {
-        return documents.stream().map(this::createFor).collect(Collectors.toList());
+        PredictorPool<String, float[]> pool;
+        try {
+            pool = predictors();
+        } catch (ModelNotFoundException | MalformedModelException | IOException e) {
+            throw new IllegalStateException("Could not load the model " + modelId(), e);
+        }
+
+        List<int[]> batches = LengthBuckets.split(documents, batchSize);
+        List<List<Embedding>> results = executor.map(batches, () -> new PredictorWorker(pool, documents));
+
+        Embedding[] embeddings = new Embedding[documents.size()];
+        for (int b = 0; b < batches.size(); b++) {
+            int[] batch = batches.get(b);
+            List<Embedding> batchEmbeddings = results.get(b);
+            for (int i = 0; i < batch.length; i++) {
+                embeddings[batch[i]] = batchEmbeddings.get(i);
+            }
+        }
+        return Arrays.asList(embeddings);
     }
 
     @Override
@@ -43,29 +125,232 @@ public class TextEmbedding implements EmbeddingFunction {
         return createEmbeddings(documents);
     }
 
-    private Embedding createFor(String text) {
-        Criteria<String, float[]> criteria = buildModelCriteria();
+    /**
+     * Returns the model location, the backend and whether the quantized weights are used, for instance
+     * {@code sentence-transformers/all-MiniLM-L6-v2@PyTorch}.
+     */
+    @Override
+    public String modelId() {
+        String source = localModel != null ? localModel.toAbsolutePath().normalize().toString() : modelPath;
+        String id = source + "@" + backend.getEngineName();
+        return modelName != null ? id + "/" + modelName : id;
+    }
 
-        try (ZooModel<String, float[]> model = criteria.loadModel();
-             Predictor<String, float[]> predictor = model.newPredictor()) {
-            float[] res = predictor.predict(text);
-            return new Embedding(res);
-        } catch (ModelNotFoundException | MalformedModelException | IOException | TranslateException e) {
-            System.out.println("e = " + e); // TODO: Log this
-            return new Embedding(new ArrayList<>());
-            //throw new RuntimeException(e);
+    /**
+     * Returns {@link #modelId()}, since the given model is ignored by {@link #createEmbeddings(List, String)}.
+     */
+    @Override
+    public String modelId(String model) {
+        return modelId();
+    }
+
+    /**
+     * Returns the predictor pool, loading the model on first use. The model is loaded only once per instance.
+     * A {@link ReentrantLock} is used instead of {@code synchronized} so that virtual threads waiting for the
+     * model to load do not pin their carrier thread.
+     */
+    private PredictorPool<String, float[]> predictors() throws ModelNotFoundException, MalformedModelException, IOException {
+        PredictorPool<String, float[]> pool = predictors;
+        if (pool != null) {
+            return pool;
+        }
+        lock.lock();
+        try {
+            if (predictors == null) {
+                model = buildModelCriteria().loadModel();
+                predictors = new PredictorPool<>(poolSize, model::newPredictor);
+            }
+            return predictors;
+        } finally {
+            lock.unlock();
         }
     }
 
     @NotNull
     private Criteria<String, float[]> buildModelCriteria() {
-        return
-                Criteria.builder()
-                        .setTypes(String.class, float[].class)
-                        .optModelUrls(DJL_PATH + modelPath)
-                        .optEngine("PyTorch")
-                        .optTranslatorFactory(new TextEmbeddingTranslatorFactory())
-                        .optProgress(new ProgressBar())
-                        .build();
+        Criteria.Builder<String, float[]> criteria = Criteria.builder()
+                .setTypes(String.class, float[].class)
+                .optEngine(backend.getEngineName())
+                .optTranslatorFactory(new TextEmbeddingTranslatorFactory())
+                .optProgress(new ProgressBar());
+        if (localModel != null) {
+            criteria.optModelPath(localModel);
+        } else {
+            criteria.optModelUrls(backend.getZooUrl() + modelPath);
+        }
+        if (modelName != null) {
+            criteria.optModelName(modelName);
+        }
+        configureEngineThreads(criteria);
+        return criteria.build();
+    }
+
+    /**
+     * ONNX Runtime takes its thread settings per session. PyTorch reads them once, when the engine is initialized,
+     * so they only take effect if this is the first PyTorch model loaded in the JVM.
+     */
+    private void configureEngineThreads(Criteria.Builder<String, float[]> criteria) {
+        if (backend == Backend.ONNX_RUNTIME) {
+            if (executor.intraOpThreads() > 0) {
+                criteria.optOption(ONNX_INTRA_OP_THREADS, String.valueOf(executor.intraOpThreads()));
+            }
+            if (executor.interOpThreads() > 0) {
+                criteria.optOption(ONNX_INTER_OP_THREADS, String.valueOf(executor.interOpThreads()));
+            }
+            return;
+        }
+        if (executor.intraOpThreads() > 0) {
+            System.setProperty(PYTORCH_INTRA_OP_THREADS, String.valueOf(executor.intraOpThreads()));
+        }
+        if (executor.interOpThreads() > 0) {
+            System.setProperty(PYTORCH_INTER_OP_THREADS, String.valueOf(executor.interOpThreads()));
+        }
+    }
+
+    /**
+     * Releases the predictors and the loaded model.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (predictors != null) {
+                predictors.close();
+                predictors = null;
+            }
+            if (model != null) {
+                model.close();
+                model = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static class Builder {
+        private String modelPath = Model.BGE_SMALL_EN_v1_5.getModelPath();
+        private Path localModel;
+        private boolean quantized;
+        private Backend backend = Backend.PYTORCH;
+        private int poolSize = DEFAULT_POOL_SIZE;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private EmbeddingExecutor executor = EmbeddingExecutor.callerThread();
+
+        public Builder withModel(Model model) {
+            this.modelPath = model.getModelPath();
+            return this;
+        }
+
+        public Builder withModelPath(String modelPath) {
+            this.modelPath = modelPath;
+            return this;
+        }
+
+        /**
+         * Sets the engine used to run the model. Defaults to {@link Backend#PYTORCH}.
+         *
+         * @param backend the inference engine
+         * @return this builder
+         */
+        public Builder withBackend(Backend backend) {
+            this.backend = Objects.requireNonNull(backend);
+            return this;
+        }
+
+        /**
+         * Loads the model from a local directory instead of downloading it from the model zoo.
+         * The directory must contain the exported model and its {@code tokenizer.json}.
+         *
+         * @param directory the directory holding the model files
+         * @return this builder
+         */
+        public Builder withLocalModel(Path directory) {
+            this.localModel = Objects.requireNonNull(directory);
+            return this;
+        }
+
+        /**
+         * Uses the INT8-quantized export of the model, {@code model_quantized.onnx}, instead of {@code model.onnx}.
+         * Only supported by {@link Backend#ONNX_RUNTIME} with a local model.
+         *
+         * @return this builder
+         */
+        public Builder withQuantizedModel() {
+            this.quantized = true;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of predictors used concurrently.
+         *
+         * @param poolSize the maximum number of predictors
+         * @return this builder
+         */
+        public Builder withPoolSize(int poolSize) {
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("Pool size must be at least 1");
+            }
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of documents embedded in a single inference call.
+         *
+         * @param batchSize the maximum number of documents per micro-batch
+         * @return this builder
+         */
+        public Builder withBatchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size must be at least 1");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to spread micro-batches across worker threads. The pool holds at least
+         * one predictor per worker. By default, every batch runs on the calling thread.
+         *
+         * @param executor the executor running the micro-batches
+         * @return this builder
+         */
+        public Builder withExecutor(EmbeddingExecutor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        public TextEmbedding build() {
+            if (quantized && (backend != Backend.ONNX_RUNTIME || localModel == null)) {
+                throw new IllegalStateException("Quantized models are only supported by the ONNX runtime backend with a local model");
+            }
+            return new TextEmbedding(this);
+        }
+    }
+
+    /**
+     * Holds one predictor for as long as its worker thread is processing batches.
+     */
+    private static class PredictorWorker implements EmbeddingExecutor.BatchWorker<int[], List<Embedding>> {
+        private final PredictorPool<String, float[]> pool;
+        private final Predictor<String, float[]> predictor;
+        private final List<String> documents;
+
+        private PredictorWorker(PredictorPool<String, float[]> pool, List<String> documents) throws InterruptedException {
+            this.pool = pool;
+            this.predictor = pool.borrow();
+            this.documents = documents;
+        }
+
+        @Override
+        public List<Embedding> process(int[] batch) throws TranslateException {
+            List<String> texts = Arrays.stream(batch).mapToObj(documents::get).collect(Collectors.toList());
+            return predictor.batchPredict(texts).stream().map(Embedding::wrap).collect(Collectors.toList());
+        }
+
+        @Override
+        public void close() {
+            pool.release(predictor);
+        }
     }
 }
@@ -1,25 +1,39 @@
 package com.acepero13.chromadb.client.embeddings.openai;
 
-import com.google.gson.Gson;
+import com.acepero13.chromadb.client.serialization.Json;
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Collections;
+import java.util.List;
+
 final class CreateEmbeddingRequest {
+    static final String DEFAULT_MODEL = "text-embedding-ada-002";
     @SerializedName("input")
-    private String input;
+    private List<String> input;
     @SerializedName("model")
     private String model ;
     @SerializedName("user")
     private String user ;
 
     public static Builder builder(String input) {
-        return new Builder(input);
+        return new Builder(Collections.singletonList(input));
+    }
+
+    /**
+     * Returns a builder for a request embedding all the given inputs in a single call.
+     *
+     * @param inputs the texts to embed
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder(List<String> inputs) {
+        return new Builder(inputs);
     }
 
     public String json() {
-        return new Gson().toJson(this, CreateEmbeddingRequest.class);
+        return Json.gson().toJson(this, CreateEmbeddingRequest.class);
     }
 
-    public String getInput() {
+    public List<String> getInput() {
         return input;
     }
 
@@ -33,11 +47,11 @@ final class CreateEmbeddingRequest {
 
 
     public static final class Builder {
-        private final String input;
-        private String model = "text-embedding-ada-002";
+        private final List<String> input;
+        private String model = DEFAULT_MODEL;
         private String user= "java-client=0.0.1";
 
-        private Builder(String input) {
+        private Builder(List<String> input) {
             this.input = input;
         }
 
@@ -1,9 +1,10 @@
 package com.acepero13.chromadb.client.embeddings.openai;
 
-import com.google.gson.Gson;
+import com.acepero13.chromadb.client.serialization.Json;
 import com.google.gson.annotations.SerializedName;
 import com.acepero13.chromadb.client.model.Embedding;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,7 +22,7 @@ final class CreateEmbeddingResponse {
     private Usage usage;
 
     public static CreateEmbeddingResponse of(String json) {
-        return new Gson().fromJson(json, CreateEmbeddingResponse.class);
+        return Json.fromJson(json, CreateEmbeddingResponse.class);
     }
 
 
@@ -43,8 +44,16 @@ final class CreateEmbeddingResponse {
         return usage;
     }
 
+    /**
+     * Returns the embeddings in the order of the inputs of the request, using the {@code index} of every item.
+     *
+     * @return one embedding per returned item, sorted by input position
+     */
     public List<Embedding> getEmbeddings() {
-        return data.stream().map(DataItem::getEmbedding).collect(Collectors.toList());
+        return data.stream()
+                .sorted(Comparator.comparingInt(DataItem::getIndex))
+                .map(DataItem::getEmbedding)
+                .collect(Collectors.toList());
     }
 
 
@@ -65,7 +74,11 @@ final class CreateEmbeddingResponse {
         }
 
         public Embedding getEmbedding(){
-            return new Embedding(embedding.stream().map(Double::floatValue).collect(Collectors.toList()));
+            float[] vector = new float[embedding.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = embedding.get(i).floatValue();
+            }
+            return Embedding.wrap(vector);
         }
 
 
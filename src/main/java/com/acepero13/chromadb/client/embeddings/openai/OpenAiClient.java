@@ -1,22 +1,57 @@
 package com.acepero13.chromadb.client.embeddings.openai;
 
 import okhttp3.*;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class OpenAiClient {
     static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "openai-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final String apiKey;
     private final String baseUrl;
     private final OkHttpClient client;
+    private final RateLimiter limiter;
+    private final RetryPolicy retryPolicy;
 
     public OpenAiClient(String apiKey, String baseUrl, OkHttpClient client) {
+        this(apiKey, baseUrl, client, RateLimiter.unlimited(), RetryPolicy.defaultPolicy());
+    }
+
+    OpenAiClient(String apiKey, String baseUrl, OkHttpClient client, RateLimiter limiter, RetryPolicy retryPolicy) {
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
         this.client = client;
+        this.limiter = limiter;
+        this.retryPolicy = retryPolicy;
     }
 
     CreateEmbeddingResponse createEmbedding(CreateEmbeddingRequest req) {
+        try {
+            return createEmbeddingAsync(req, 0).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Sends the request through OkHttp's asynchronous dispatcher once the rate limiter admits it, retrying
+     * rate-limited and server-side failures.
+     *
+     * @param req    the embedding request
+     * @param tokens the estimated number of tokens of the request, charged to the tokens-per-minute quota
+     * @return the response, completed exceptionally with an {@link IOException} once retries are exhausted
+     */
+    CompletableFuture<CreateEmbeddingResponse> createEmbeddingAsync(CreateEmbeddingRequest req, int tokens) {
         Request request = new Request.Builder()
                 .url(this.baseUrl + "embeddings")
                 .post(RequestBody.create(req.json(), JSON))
@@ -25,13 +60,50 @@ public class OpenAiClient {
                 .addHeader("Authorization", "Bearer " + apiKey)
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
-            return handleResponse(response);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        CompletableFuture<CreateEmbeddingResponse> result = new CompletableFuture<>();
+        dispatch(request, tokens, 0, result);
+        return result;
+    }
+
+    private void dispatch(Request request, int tokens, int attempt, CompletableFuture<CreateEmbeddingResponse> result) {
+        long wait = limiter.reserve(tokens);
+        if (wait > 0) {
+            SCHEDULER.schedule(() -> send(request, tokens, attempt, result), wait, TimeUnit.NANOSECONDS);
+        } else {
+            send(request, tokens, attempt, result);
         }
     }
 
+    private void send(Request request, int tokens, int attempt, CompletableFuture<CreateEmbeddingResponse> result) {
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                if (retryPolicy.canRetry(attempt)) {
+                    retry(request, tokens, attempt, result, retryPolicy.delayMillis(attempt, null));
+                } else {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try (response) {
+                    if (RetryPolicy.isRetryable(response.code()) && retryPolicy.canRetry(attempt)) {
+                        retry(request, tokens, attempt, result, retryPolicy.delayMillis(attempt, response));
+                        return;
+                    }
+                    result.complete(handleResponse(response));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private void retry(Request request, int tokens, int attempt, CompletableFuture<CreateEmbeddingResponse> result, long delayMillis) {
+        SCHEDULER.schedule(() -> dispatch(request, tokens, attempt + 1, result), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
     private CreateEmbeddingResponse handleResponse(Response response) throws IOException {
         if (!response.isSuccessful() || response.body() == null) {
             throw new IOException("Unexpected code " + response);
@@ -4,19 +4,32 @@ import com.acepero13.chromadb.client.model.Embedding;
 import com.acepero13.chromadb.client.model.EmbeddingFunction;
 import okhttp3.OkHttpClient;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToIntFunction;
 
 public class OpenAiEmbeddingsFunction implements EmbeddingFunction {
     public static final String BASE_URL = "https://api.openai.com/v1/";
+    public static final int DEFAULT_MAX_INPUTS_PER_REQUEST = 2048;
+    public static final int DEFAULT_MAX_TOKENS_PER_REQUEST = 250_000;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
     private final OpenAiClient client;
+    private final int maxInputsPerRequest;
+    private final int maxTokensPerRequest;
+    private final int maxConcurrentRequests;
+    private final ToIntFunction<String> tokenEstimator;
 
     public static OpenAiEmbeddingsFunction create(String apiKey, String baseUrl, OkHttpClient client) {
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new RuntimeException("Api key cannot be null or empty");
-        }
-        return new OpenAiEmbeddingsFunction(new OpenAiClient(apiKey, Objects.requireNonNull(baseUrl), Objects.requireNonNull(client)));
+        return builder(apiKey)
+                .withBaseUrl(Objects.requireNonNull(baseUrl))
+                .withHttpClient(Objects.requireNonNull(client))
+                .build();
     }
 
     public static OpenAiEmbeddingsFunction create(String apiKey, OkHttpClient client) {
@@ -31,26 +44,246 @@ public class OpenAiEmbeddingsFunction implements EmbeddingFunction {
         return create(System.getenv("OPENAI_API_KEY"), BASE_URL, new OkHttpClient());
     }
 
+    /**
+     * Returns a new {@link Builder} for a function authenticated with the given api key.
+     *
+     * @param apiKey the OpenAI api key
+     * @return a new {@link Builder} instance
+     * @throws RuntimeException if the api key is null or empty
+     */
+    public static Builder builder(String apiKey) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new RuntimeException("Api key cannot be null or empty");
+        }
+        return new Builder(apiKey);
+    }
 
     public OpenAiEmbeddingsFunction(OpenAiClient client) {
         this.client = client;
+        this.maxInputsPerRequest = DEFAULT_MAX_INPUTS_PER_REQUEST;
+        this.maxTokensPerRequest = DEFAULT_MAX_TOKENS_PER_REQUEST;
+        this.maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        this.tokenEstimator = RequestBatches::estimateTokens;
+    }
+
+    private OpenAiEmbeddingsFunction(Builder builder) {
+        OkHttpClient http = builder.httpClient != null ? builder.httpClient : new OkHttpClient();
+        RateLimiter limiter = new RateLimiter(builder.requestsPerMinute, builder.tokensPerMinute);
+        RetryPolicy retryPolicy = builder.maxRetries > 0
+                ? new RetryPolicy(builder.maxRetries, builder.baseRetryDelay, builder.maxRetryDelay)
+                : RetryPolicy.none();
+        this.client = new OpenAiClient(builder.apiKey, builder.baseUrl, http, limiter, retryPolicy);
+        this.maxInputsPerRequest = builder.maxInputsPerRequest;
+        this.maxTokensPerRequest = builder.maxTokensPerRequest;
+        this.maxConcurrentRequests = builder.maxConcurrentRequests;
+        this.tokenEstimator = builder.tokenEstimator;
     }
 
     @Override
     public List<Embedding> createEmbeddings(List<String> documents) {
-        return documents.stream()
-                .map(doc -> client.createEmbedding(CreateEmbeddingRequest.builder(doc).build()))
-                .filter(Objects::nonNull)
-                .flatMap(data -> data.getEmbeddings().stream())
-                .collect(Collectors.toList());
+        return createEmbeddings(documents, batch -> CreateEmbeddingRequest.builder(batch).build());
     }
 
     @Override
     public List<Embedding> createEmbeddings(List<String> documents, String model) {
-        return documents.stream()
-                .map(doc -> client.createEmbedding(CreateEmbeddingRequest.builder(doc).withModel(model).build()))
-                .filter(Objects::nonNull)
-                .flatMap(data -> data.getEmbeddings().stream())
-                .collect(Collectors.toList());
+        return createEmbeddings(documents, batch -> CreateEmbeddingRequest.builder(batch).withModel(model).build());
+    }
+
+    @Override
+    public String modelId() {
+        return modelId(CreateEmbeddingRequest.DEFAULT_MODEL);
+    }
+
+    @Override
+    public String modelId(String model) {
+        return "openai/" + model;
+    }
+
+    /**
+     * Packs the documents into as few requests as the limits allow, keeps up to {@code maxConcurrentRequests} of
+     * them in flight and puts the returned vectors back in document order.
+     */
+    private List<Embedding> createEmbeddings(List<String> documents, RequestFactory requests) {
+        Embedding[] embeddings = new Embedding[documents.size()];
+        Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+        for (int[] range : RequestBatches.split(documents, maxInputsPerRequest, maxTokensPerRequest, tokenEstimator)) {
+            if (inFlight.size() == maxConcurrentRequests) {
+                await(inFlight.poll());
+            }
+            List<String> batch = documents.subList(range[0], range[1]);
+            int tokens = batch.stream().mapToInt(tokenEstimator).sum();
+            inFlight.add(client.createEmbeddingAsync(requests.create(batch), tokens)
+                    .thenAccept(response -> {
+                        for (CreateEmbeddingResponse.DataItem item : response.getData()) {
+                            embeddings[range[0] + item.getIndex()] = item.getEmbedding();
+                        }
+                    }));
+        }
+        while (!inFlight.isEmpty()) {
+            await(inFlight.poll());
+        }
+        for (int i = 0; i < embeddings.length; i++) {
+            if (embeddings[i] == null) {
+                throw new IllegalStateException("OpenAI returned no embedding for document " + i);
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    private static void await(CompletableFuture<Void> request) {
+        try {
+            request.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        CreateEmbeddingRequest create(List<String> batch);
+    }
+
+    public static class Builder {
+        private final String apiKey;
+        private String baseUrl = BASE_URL;
+        private OkHttpClient httpClient;
+        private int maxInputsPerRequest = DEFAULT_MAX_INPUTS_PER_REQUEST;
+        private int maxTokensPerRequest = DEFAULT_MAX_TOKENS_PER_REQUEST;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private int requestsPerMinute;
+        private int tokensPerMinute;
+        private int maxRetries = 6;
+        private Duration baseRetryDelay = Duration.ofMillis(500);
+        private Duration maxRetryDelay = Duration.ofSeconds(60);
+        private ToIntFunction<String> tokenEstimator = RequestBatches::estimateTokens;
+
+        private Builder(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        public Builder withBaseUrl(String baseUrl) {
+            this.baseUrl = Objects.requireNonNull(baseUrl);
+            return this;
+        }
+
+        public Builder withHttpClient(OkHttpClient httpClient) {
+            this.httpClient = Objects.requireNonNull(httpClient);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of documents sent in a single request. Defaults to 2048, the endpoint limit.
+         *
+         * @param maxInputsPerRequest the maximum number of documents per request
+         * @return this builder
+         */
+        public Builder withMaxInputsPerRequest(int maxInputsPerRequest) {
+            if (maxInputsPerRequest < 1) {
+                throw new IllegalArgumentException("Maximum inputs per request must be at least 1");
+            }
+            this.maxInputsPerRequest = maxInputsPerRequest;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of estimated tokens sent in a single request. Defaults to 250,000.
+         *
+         * @param maxTokensPerRequest the maximum number of tokens per request
+         * @return this builder
+         */
+        public Builder withMaxTokensPerRequest(int maxTokensPerRequest) {
+            if (maxTokensPerRequest < 1) {
+                throw new IllegalArgumentException("Maximum tokens per request must be at least 1");
+            }
+            this.maxTokensPerRequest = maxTokensPerRequest;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight at the same time for a single call. Defaults to 4.
+         *
+         * @param maxConcurrentRequests the maximum number of concurrent requests
+         * @return this builder
+         */
+        public Builder withMaxConcurrentRequests(int maxConcurrentRequests) {
+            if (maxConcurrentRequests < 1) {
+                throw new IllegalArgumentException("Maximum concurrent requests must be at least 1");
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Limits the requests sent per minute, shared by every call of the built function. Unlimited by default.
+         *
+         * @param requestsPerMinute the requests-per-minute quota
+         * @return this builder
+         */
+        public Builder withRequestsPerMinute(int requestsPerMinute) {
+            if (requestsPerMinute < 1) {
+                throw new IllegalArgumentException("Requests per minute must be at least 1");
+            }
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        /**
+         * Limits the estimated tokens sent per minute, shared by every call of the built function.
+         * Unlimited by default.
+         *
+         * @param tokensPerMinute the tokens-per-minute quota
+         * @return this builder
+         */
+        public Builder withTokensPerMinute(int tokensPerMinute) {
+            if (tokensPerMinute < 1) {
+                throw new IllegalArgumentException("Tokens per minute must be at least 1");
+            }
+            this.tokensPerMinute = tokensPerMinute;
+            return this;
+        }
+
+        /**
+         * Sets how many times a rate-limited (429), server-side (5xx) or network failure is retried. Defaults to 6.
+         *
+         * @param maxRetries the maximum number of retries, {@code 0} to disable them
+         * @return this builder
+         */
+        public Builder withMaxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("Maximum retries cannot be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the backoff used when the server does not send a {@code Retry-After} header: a random delay between
+         * zero and {@code baseDelay * 2^attempt}, capped at {@code maxDelay}. Defaults to 500ms and 60s.
+         *
+         * @param baseDelay the delay ceiling of the first retry
+         * @param maxDelay  the maximum delay between two attempts
+         * @return this builder
+         */
+        public Builder withRetryBackoff(Duration baseDelay, Duration maxDelay) {
+            this.baseRetryDelay = Objects.requireNonNull(baseDelay);
+            this.maxRetryDelay = Objects.requireNonNull(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets how the number of tokens of a document is estimated. Defaults to one token every four characters;
+         * plug a real tokenizer in for exact packing.
+         *
+         * @param tokenEstimator estimates the number of tokens of a document
+         * @return this builder
+         */
+        public Builder withTokenEstimator(ToIntFunction<String> tokenEstimator) {
+            this.tokenEstimator = Objects.requireNonNull(tokenEstimator);
+            return this;
+        }
+
+        public OpenAiEmbeddingsFunction build() {
+            return new OpenAiEmbeddingsFunction(this);
+        }
     }
 }
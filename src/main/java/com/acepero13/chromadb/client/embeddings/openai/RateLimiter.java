@@ -0,0 +1,83 @@
+package com.acepero13.chromadb.client.embeddings.openai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limiter for the requests-per-minute and tokens-per-minute quotas of the embeddings endpoint.
+ * <p>
+ * Callers reserve capacity up front and are told how long to wait before sending. Reservations may push a bucket
+ * into debt, so requests are admitted in the order they were reserved and a request larger than the bucket is
+ * still eventually sent.
+ */
+final class RateLimiter {
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private final Bucket requests;
+    private final Bucket tokens;
+    private final LongSupplier clock;
+    private final Lock lock = new ReentrantLock();
+
+    RateLimiter(int requestsPerMinute, int tokensPerMinute) {
+        this(requestsPerMinute, tokensPerMinute, System::nanoTime);
+    }
+
+    RateLimiter(int requestsPerMinute, int tokensPerMinute, LongSupplier clock) {
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.requests = requestsPerMinute > 0 ? new Bucket(requestsPerMinute, now) : null;
+        this.tokens = tokensPerMinute > 0 ? new Bucket(tokensPerMinute, now) : null;
+    }
+
+    /**
+     * Returns a limiter that never delays requests.
+     */
+    static RateLimiter unlimited() {
+        return new RateLimiter(0, 0);
+    }
+
+    /**
+     * Reserves one request and the given number of tokens.
+     *
+     * @param tokenCount the estimated number of tokens of the request
+     * @return how long to wait before sending the request, in nanoseconds
+     */
+    long reserve(int tokenCount) {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            long wait = 0;
+            if (requests != null) {
+                wait = requests.take(1, now);
+            }
+            if (tokens != null) {
+                wait = Math.max(wait, tokens.take(tokenCount, now));
+            }
+            return wait;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Bucket {
+        private final double capacity;
+        private final double perNano;
+        private double available;
+        private long updated;
+
+        private Bucket(int perMinute, long now) {
+            this.capacity = perMinute;
+            this.perNano = (double) perMinute / MINUTE;
+            this.available = perMinute;
+            this.updated = now;
+        }
+
+        private long take(int amount, long now) {
+            available = Math.min(capacity, available + (now - updated) * perNano);
+            updated = now;
+            available -= amount;
+            return available >= 0 ? 0 : (long) Math.ceil(-available / perNano);
+        }
+    }
+}
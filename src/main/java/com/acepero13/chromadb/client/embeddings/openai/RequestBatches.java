@@ -0,0 +1,51 @@
+package com.acepero13.chromadb.client.embeddings.openai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Packs consecutive documents into embedding requests that respect the item and token limits of the endpoint.
+ */
+final class RequestBatches {
+    private RequestBatches() {
+    }
+
+    /**
+     * Splits the documents into consecutive ranges. Every range holds at most {@code maxItems} documents and at most
+     * {@code maxTokens} estimated tokens, except for a single document that exceeds the token limit on its own,
+     * which is sent alone.
+     *
+     * @param documents the documents to pack
+     * @param maxItems  the maximum number of documents per request
+     * @param maxTokens the maximum number of estimated tokens per request
+     * @param tokens    estimates the number of tokens of a document
+     * @return the {@code [from, to)} ranges of every request, in document order
+     */
+    static List<int[]> split(List<String> documents, int maxItems, int maxTokens, ToIntFunction<String> tokens) {
+        List<int[]> batches = new ArrayList<>();
+        int from = 0;
+        long batchTokens = 0;
+        for (int i = 0; i < documents.size(); i++) {
+            int documentTokens = tokens.applyAsInt(documents.get(i));
+            boolean full = i - from == maxItems || batchTokens + documentTokens > maxTokens;
+            if (i > from && full) {
+                batches.add(new int[]{from, i});
+                from = i;
+                batchTokens = 0;
+            }
+            batchTokens += documentTokens;
+        }
+        if (from < documents.size()) {
+            batches.add(new int[]{from, documents.size()});
+        }
+        return batches;
+    }
+
+    /**
+     * Rough token estimate for English text: one token every four characters.
+     */
+    static int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+}
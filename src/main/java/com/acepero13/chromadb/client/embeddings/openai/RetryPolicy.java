@@ -0,0 +1,87 @@
+package com.acepero13.chromadb.client.embeddings.openai;
+
+import okhttp3.Response;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed embedding request is retried and how long to wait before retrying it.
+ * <p>
+ * Rate-limited (429) and server-side (5xx) responses, as well as network failures, are retried. The server's
+ * {@code Retry-After} (or {@code retry-after-ms}) header wins when present; otherwise the delay is an exponential
+ * backoff with full jitter.
+ */
+final class RetryPolicy {
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    RetryPolicy(int maxRetries, Duration baseDelay, Duration maxDelay) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+    }
+
+    static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(6, Duration.ofMillis(500), Duration.ofSeconds(60));
+    }
+
+    static RetryPolicy none() {
+        return new RetryPolicy(0, Duration.ZERO, Duration.ZERO);
+    }
+
+    boolean canRetry(int attempt) {
+        return attempt < maxRetries;
+    }
+
+    static boolean isRetryable(int code) {
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Returns the delay before the next attempt.
+     *
+     * @param attempt  the number of attempts already made, starting at 0
+     * @param response the failed response, or {@code null} for a network failure
+     * @return the delay in milliseconds
+     */
+    long delayMillis(int attempt, Response response) {
+        if (response != null) {
+            long retryAfter = retryAfterMillis(response);
+            if (retryAfter >= 0) {
+                return Math.min(retryAfter, maxDelayMillis);
+            }
+        }
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    static long retryAfterMillis(Response response) {
+        String millis = response.header("retry-after-ms");
+        if (millis != null) {
+            try {
+                return Math.max(0, (long) Double.parseDouble(millis.trim()));
+            } catch (NumberFormatException ignored) {
+                // Fall back to Retry-After
+            }
+        }
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, (long) (Double.parseDouble(retryAfter.trim()) * 1000));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException notDate) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.acepero13.chromadb.client.exceptions;
+
+import com.acepero13.chromadb.client.handler.ApiException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when some chunks of a write request split by {@code RequestLimits} failed. Chunks are not applied
+ * atomically, so the records of the other chunks are stored: their ids are available from {@link #getWrittenIds()}.
+ * The failure of every chunk is attached, the first one as the cause and the others as suppressed exceptions.
+ */
+public class PartialWriteException extends ApiException {
+    private static final long serialVersionUID = 1L;
+    private final int chunks;
+    private final List<Integer> failedChunks;
+    private final List<String> writtenIds;
+
+    public PartialWriteException(int chunks, List<Integer> failedChunks, List<Throwable> failures, List<String> writtenIds) {
+        super(message(chunks, failedChunks, failures, writtenIds), failures.get(0), code(failures.get(0)), null, body(failures.get(0)));
+        this.chunks = chunks;
+        this.failedChunks = Collections.unmodifiableList(failedChunks);
+        this.writtenIds = Collections.unmodifiableList(writtenIds);
+        failures.stream().skip(1).forEach(this::addSuppressed);
+    }
+
+    /**
+     * Returns the number of chunks the request was split into.
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Returns the positions of the failed chunks, starting at 0.
+     */
+    public List<Integer> getFailedChunks() {
+        return failedChunks;
+    }
+
+    /**
+     * Returns the ids of the records sent by the chunks that succeeded.
+     */
+    public List<String> getWrittenIds() {
+        return writtenIds;
+    }
+
+    private static String message(int chunks, List<Integer> failedChunks, List<Throwable> failures, List<String> writtenIds) {
+        StringBuilder message = new StringBuilder()
+                .append(failedChunks.size()).append(" of ").append(chunks).append(" chunks failed, ")
+                .append(writtenIds.size()).append(" records were written");
+        for (int i = 0; i < failedChunks.size(); i++) {
+            message.append("; chunk ").append(failedChunks.get(i)).append(": ").append(describe(failures.get(i)));
+        }
+        return message.toString();
+    }
+
+    private static String describe(Throwable failure) {
+        String body = body(failure);
+        if (body != null && !body.isEmpty()) {
+            return body;
+        }
+        return failure.getMessage() != null ? failure.getMessage() : failure.toString();
+    }
+
+    private static int code(Throwable failure) {
+        return failure instanceof ApiException ? ((ApiException) failure).getCode() : 0;
+    }
+
+    private static String body(Throwable failure) {
+        return failure instanceof ApiException ? ((ApiException) failure).getResponseBody() : null;
+    }
+}
@@ -0,0 +1,366 @@
+package com.acepero13.chromadb.client.ingest;
+
+import com.acepero13.chromadb.client.model.AsyncCollection;
+import com.acepero13.chromadb.client.model.Collection;
+import com.acepero13.chromadb.client.model.Documents;
+import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.EmbeddingFunction;
+import com.acepero13.chromadb.client.model.Metadata;
+import com.acepero13.chromadb.client.model.query.criteria.AddCriteria;
+import com.acepero13.chromadb.client.result.QueryResponse;
+import com.acepero13.chromadb.client.utils.IdGenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ingests an unbounded sequence of records into a {@link Collection} without holding it in memory.
+ * <p>
+ * Records are read lazily and grouped into batches. Each batch is embedded on the embedding executor and then sent
+ * through the collection's non-blocking api, so batch N+1 is embedded while batch N is in flight. At most
+ * {@code maxInFlight} batches are held at any time: the input is not read further until a batch completes.
+ * A failing batch is recorded in the {@link IngestSummary} and does not stop the ingestion.
+ * <p>
+ * Completed batches are folded into running totals, so memory does not grow with the input: the summary keeps the
+ * ids of failed batches only. Callers needing the result of every batch can register a listener.
+ */
+public class BulkIngestor {
+    private final Collection collection;
+    private final AsyncCollection asyncCollection;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final boolean upsert;
+    private final IdGenerator idGenerator;
+    private final Executor embeddingExecutor;
+    private final Consumer<IngestSummary.BatchResult> listener;
+
+    private BulkIngestor(Builder builder) {
+        this.collection = builder.collection;
+        this.asyncCollection = builder.collection.async(Runnable::run);
+        this.batchSize = builder.batchSize;
+        this.maxInFlight = builder.maxInFlight;
+        this.upsert = builder.upsert;
+        this.idGenerator = builder.idGenerator;
+        this.embeddingExecutor = builder.embeddingExecutor;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * Returns a new {@link Builder} ingesting into the given collection.
+     *
+     * @param collection the target collection
+     * @return a new {@link Builder} instance
+     */
+    public static Builder builder(Collection collection) {
+        return new Builder(collection);
+    }
+
+    /**
+     * Ingests the records of the stream, closing it when done.
+     *
+     * @param records the records to ingest
+     * @return the totals of the ingestion and the failed batches
+     */
+    public IngestSummary ingest(Stream<IngestRecord> records) {
+        try (records) {
+            return ingest(records.iterator());
+        }
+    }
+
+    /**
+     * Ingests the records of the iterator, blocking until every batch has completed.
+     *
+     * @param records the records to ingest
+     * @return the totals of the ingestion and the failed batches
+     * @throws IllegalStateException if the calling thread is interrupted while waiting for a free slot
+     */
+    public IngestSummary ingest(Iterator<IngestRecord> records) {
+        ExecutorService ownExecutor = embeddingExecutor == null ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-ingestor-embedding");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        Executor executor = ownExecutor != null ? ownExecutor : embeddingExecutor;
+        Semaphore slots = new Semaphore(maxInFlight);
+        Totals totals = new Totals(listener);
+
+        try {
+            int index = 0;
+            long offset = 0;
+            while (records.hasNext()) {
+                acquire(slots, 1);
+                List<IngestRecord> batch = nextBatch(records);
+                int batchIndex = index++;
+                long batchOffset = offset;
+                offset += batch.size();
+
+                CompletableFuture.supplyAsync(() -> prepare(batch), executor)
+                        .thenCompose(this::send)
+                        .handle((ids, error) -> error == null
+                                ? new IngestSummary.BatchResult(batchIndex, batchOffset, ids, null)
+                                : failed(batchIndex, batchOffset, batch, error))
+                        .thenAccept(result -> {
+                            try {
+                                totals.add(result);
+                            } finally {
+                                slots.release();
+                            }
+                        });
+            }
+            acquire(slots, maxInFlight);
+            return totals.summary();
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+    }
+
+    private static void acquire(Semaphore slots, int permits) {
+        try {
+            slots.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a batch to complete", e);
+        }
+    }
+
+    private List<IngestRecord> nextBatch(Iterator<IngestRecord> records) {
+        List<IngestRecord> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && records.hasNext()) {
+            batch.add(Objects.requireNonNull(records.next(), "Records cannot be null"));
+        }
+        return batch;
+    }
+
+    /**
+     * Embeds the documents that come without an embedding and generates the missing ids.
+     */
+    private PreparedBatch prepare(List<IngestRecord> batch) {
+        List<String> documents = batch.stream().map(IngestRecord::getDocument).collect(Collectors.toList());
+        List<Embedding> embeddings = batch.stream().map(IngestRecord::getEmbedding).collect(Collectors.toList());
+
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (embeddings.get(i) == null) {
+                missing.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            EmbeddingFunction function = Objects.requireNonNull(collection.getEmbeddingFunction(),
+                    "Records without embeddings need a collection with an embedding function");
+            List<Embedding> created = function.createEmbeddings(missing.stream().map(documents::get).collect(Collectors.toList()));
+            if (created.size() != missing.size()) {
+                throw new IllegalStateException("Embedding function returned " + created.size() + " embeddings for " + missing.size() + " documents");
+            }
+            for (int i = 0; i < missing.size(); i++) {
+                embeddings.set(missing.get(i), created.get(i));
+            }
+        }
+
+        List<String> ids = batch.stream().map(IngestRecord::getId).collect(Collectors.toList());
+        List<Integer> withoutId = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                withoutId.add(i);
+            }
+        }
+        if (!withoutId.isEmpty()) {
+            List<String> generated = idGenerator.generate(withoutId.stream().map(embeddings::get).collect(Collectors.toList()));
+            for (int i = 0; i < withoutId.size(); i++) {
+                ids.set(withoutId.get(i), generated.get(i));
+            }
+        }
+
+        AddCriteria.Builder criteria = AddCriteria.builder()
+                .withDocuments(Documents.of(documents))
+                .withEmbeddings(embeddings);
+        if (batch.stream().anyMatch(record -> record.getMetadata() != null)) {
+            criteria.withMetadata(batch.stream()
+                    .map(record -> record.getMetadata() != null ? record.getMetadata() : new Metadata())
+                    .collect(Collectors.toList()));
+        }
+        return new PreparedBatch(ids, criteria.build());
+    }
+
+    private CompletableFuture<List<String>> send(PreparedBatch batch) {
+        CompletableFuture<QueryResponse<Boolean>> response = upsert
+                ? asyncCollection.upsert(batch.ids, batch.criteria)
+                : asyncCollection.add(batch.ids, batch.criteria);
+        return response.thenApply(result -> {
+            if (result.isError()) {
+                throw new CompletionException(new IllegalStateException(result.error().map(Object::toString).orElse("Unknown error")));
+            }
+            return batch.ids;
+        });
+    }
+
+    private static IngestSummary.BatchResult failed(int index, long offset, List<IngestRecord> batch, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        List<String> ids = batch.stream().map(IngestRecord::getId).collect(Collectors.toList());
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+        return new IngestSummary.BatchResult(index, offset, ids, message);
+    }
+
+    /**
+     * Running totals of an ingestion. Results are added one at a time, as batches complete.
+     */
+    private static final class Totals {
+        private final Consumer<IngestSummary.BatchResult> listener;
+        private final List<IngestSummary.BatchResult> failures = new ArrayList<>();
+        private final Lock lock = new ReentrantLock();
+        private int batches;
+        private long succeededRecords;
+        private long failedRecords;
+
+        private Totals(Consumer<IngestSummary.BatchResult> listener) {
+            this.listener = listener;
+        }
+
+        private void add(IngestSummary.BatchResult result) {
+            lock.lock();
+            try {
+                batches++;
+                if (result.isSuccess()) {
+                    succeededRecords += result.size();
+                } else {
+                    failedRecords += result.size();
+                    failures.add(result);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (listener != null) {
+                listener.accept(result);
+            }
+        }
+
+        private IngestSummary summary() {
+            lock.lock();
+            try {
+                failures.sort(Comparator.comparingInt(IngestSummary.BatchResult::index));
+                return new IngestSummary(batches, succeededRecords, failedRecords, failures);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class PreparedBatch {
+        private final List<String> ids;
+        private final AddCriteria criteria;
+
+        private PreparedBatch(List<String> ids, AddCriteria criteria) {
+            this.ids = ids;
+            this.criteria = criteria;
+        }
+    }
+
+    public static class Builder {
+        private final Collection collection;
+        private int batchSize = 256;
+        private int maxInFlight = 2;
+        private boolean upsert;
+        private IdGenerator idGenerator = IdGenerator.defaultIdGenerator();
+        private Executor embeddingExecutor;
+        private Consumer<IngestSummary.BatchResult> listener;
+
+        private Builder(Collection collection) {
+            this.collection = Objects.requireNonNull(collection);
+        }
+
+        /**
+         * Sets the number of records sent per request. Defaults to 256.
+         *
+         * @param batchSize the number of records per batch
+         * @return this builder
+         */
+        public Builder withBatchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size must be at least 1");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of batches being embedded or sent at the same time. Defaults to 2, so one batch
+         * is embedded while the previous one is in flight.
+         *
+         * @param maxInFlight the maximum number of batches held in memory
+         * @return this builder
+         */
+        public Builder withMaxInFlight(int maxInFlight) {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("Maximum batches in flight must be at least 1");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Upserts the records instead of adding them.
+         *
+         * @return this builder
+         */
+        public Builder withUpsert() {
+            this.upsert = true;
+            return this;
+        }
+
+        /**
+         * Sets the generator of the ids of records that come without one. Defaults to
+         * {@link IdGenerator#defaultIdGenerator()}.
+         *
+         * @param idGenerator the id generator
+         * @return this builder
+         */
+        public Builder withIdGenerator(IdGenerator idGenerator) {
+            this.idGenerator = Objects.requireNonNull(idGenerator);
+            return this;
+        }
+
+        /**
+         * Sets the executor that embeds the batches. By default, each ingestion uses its own single thread,
+         * leaving parallelism to the embedding function.
+         *
+         * @param embeddingExecutor the executor embedding the batches
+         * @return this builder
+         */
+        public Builder withEmbeddingExecutor(Executor embeddingExecutor) {
+            this.embeddingExecutor = Objects.requireNonNull(embeddingExecutor);
+            return this;
+        }
+
+        /**
+         * Sets a listener notified with the result of every batch, including the ids of successful ones, as soon
+         * as the batch completes, not necessarily in input order. Batches completing together notify it
+         * concurrently, so it must be thread-safe.
+         *
+         * @param listener the listener of batch results
+         * @return this builder
+         */
+        public Builder withListener(Consumer<IngestSummary.BatchResult> listener) {
+            this.listener = Objects.requireNonNull(listener);
+            return this;
+        }
+
+        public BulkIngestor build() {
+            return new BulkIngestor(this);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.acepero13.chromadb.client.ingest;
+
+import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.Metadata;
+
+/**
+ * A single record to ingest: an optional id, a document, an optional embedding and optional metadata.
+ * Records without an id get one from the ingestor's id generator; records without an embedding are embedded
+ * with the collection's embedding function.
+ */
+public final class IngestRecord {
+    private final String id;
+    private final String document;
+    private final Embedding embedding;
+    private final Metadata metadata;
+
+    private IngestRecord(Builder builder) {
+        this.id = builder.id;
+        this.document = builder.document;
+        this.embedding = builder.embedding;
+        this.metadata = builder.metadata;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static IngestRecord of(String id, String document) {
+        return builder().withId(id).withDocument(document).build();
+    }
+
+    public static IngestRecord of(String id, String document, Metadata metadata) {
+        return builder().withId(id).withDocument(document).withMetadata(metadata).build();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public Embedding getEmbedding() {
+        return embedding;
+    }
+
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    public boolean hasEmbedding() {
+        return embedding != null;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestRecord{" +
+                "id='" + id + '\'' +
+                ", document='" + document + '\'' +
+                ", metadata=" + metadata +
+                '}';
+    }
+
+    public static class Builder {
+        private String id;
+        private String document;
+        private Embedding embedding;
+        private Metadata metadata;
+
+        public Builder withId(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder withDocument(String document) {
+            this.document = document;
+            return this;
+        }
+
+        public Builder withEmbedding(Embedding embedding) {
+            this.embedding = embedding;
+            return this;
+        }
+
+        public Builder withEmbedding(float... vector) {
+            return withEmbedding(new Embedding(vector));
+        }
+
+        public Builder withMetadata(Metadata metadata) {
+            this.metadata = metadata;
+            return this;
+        }
+
+        public IngestRecord build() {
+            if (document == null) {
+                throw new IllegalArgumentException("A record needs a document");
+            }
+            return new IngestRecord(this);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.acepero13.chromadb.client.ingest;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk ingestion: totals over every batch, plus the batches that failed.
+ */
+public final class IngestSummary {
+    private final int batches;
+    private final long succeededRecords;
+    private final long failedRecords;
+    private final List<BatchResult> failures;
+
+    IngestSummary(int batches, long succeededRecords, long failedRecords, List<BatchResult> failures) {
+        this.batches = batches;
+        this.succeededRecords = succeededRecords;
+        this.failedRecords = failedRecords;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Returns the number of batches read from the input.
+     */
+    public int batchCount() {
+        return batches;
+    }
+
+    /**
+     * Returns the batches that could not be ingested, in the order they were read.
+     */
+    public List<BatchResult> failures() {
+        return failures;
+    }
+
+    public long succeededRecords() {
+        return succeededRecords;
+    }
+
+    public long failedRecords() {
+        return failedRecords;
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "IngestSummary{" +
+                "batches=" + batches +
+                ", succeededRecords=" + succeededRecords +
+                ", failedRecords=" + failedRecords +
+                '}';
+    }
+
+    /**
+     * Result of a single batch.
+     */
+    public static final class BatchResult {
+        private final int index;
+        private final long offset;
+        private final List<String> ids;
+        private final String error;
+
+        BatchResult(int index, long offset, List<String> ids, String error) {
+            this.index = index;
+            this.offset = offset;
+            this.ids = ids;
+            this.error = error;
+        }
+
+        /**
+         * Returns the position of the batch in the input, starting at 0.
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Returns the position of the first record of the batch in the input.
+         */
+        public long offset() {
+            return offset;
+        }
+
+        public int size() {
+            return ids.size();
+        }
+
+        /**
+         * Returns the ids of the records of the batch. Generated ids are only known if they were generated
+         * before the batch failed; otherwise the list holds {@code null}s.
+         */
+        public List<String> ids() {
+            return ids;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public boolean isError() {
+            return !isSuccess();
+        }
+
+        /**
+         * Returns the reason of the failure, or {@code null} if the batch succeeded.
+         */
+        public String error() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "BatchResult{" +
+                    "index=" + index +
+                    ", offset=" + offset +
+                    ", size=" + size() +
+                    (error != null ? ", error='" + error + '\'' : "") +
+                    '}';
+        }
+    }
+}
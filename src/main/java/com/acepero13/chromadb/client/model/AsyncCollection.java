@@ -0,0 +1,315 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.exceptions.PartialWriteException;
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.DefaultApi;
+import com.acepero13.chromadb.client.model.query.criteria.*;
+import com.acepero13.chromadb.client.result.GetResult;
+import com.acepero13.chromadb.client.result.QueryResponse;
+import com.acepero13.chromadb.client.result.QueryResult;
+import com.acepero13.chromadb.client.utils.FutureUtils;
+import com.acepero13.chromadb.client.utils.IdGenerator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.acepero13.chromadb.client.utils.FutureUtils.failed;
+import static com.acepero13.chromadb.client.utils.FutureUtils.toFuture;
+
+/**
+ * Non-blocking view of a {@link Collection}. Every operation returns a {@link CompletableFuture} and no thread
+ * waits for Chroma to answer: requests go through the asynchronous methods of the generated api, and their
+ * results are delivered on OkHttp's dispatcher threads.
+ * <p>
+ * Requests that need embeddings are built on the embedding executor first, since embedding functions may be
+ * CPU-heavy or blocking. Failures complete the future exceptionally, usually with an {@link ApiException}.
+ * <p>
+ * Write requests are split with the {@link Collection#getRequestLimits() request limits} of the collection, like
+ * their blocking versions: at most {@link RequestLimits#concurrency()} chunks are in flight, and failed chunks are
+ * reported with a {@link PartialWriteException} once all of them completed.
+ */
+public class AsyncCollection {
+    private final Collection collection;
+    private final DefaultApi api;
+    private final Executor embeddingExecutor;
+
+    AsyncCollection(Collection collection, DefaultApi api, Executor embeddingExecutor) {
+        this.collection = collection;
+        this.api = api;
+        this.embeddingExecutor = embeddingExecutor;
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#add(List, AddCriteria)}.
+     */
+    public CompletableFuture<QueryResponse<Boolean>> add(List<String> ids, AddCriteria params) {
+        return prepare(() -> params.toRequest(ids, embeddingFunction()))
+                .thenCompose(this::add)
+                .thenApply(QueryResponse::ofBoolean);
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#add(AddCriteria)}. Ids are generated with the {@link IdGenerator}
+     * of the criteria, or with the default one.
+     */
+    public CompletableFuture<QueryResponse<List<String>>> add(AddCriteria params) {
+        return prepare(() -> Collection.getUpdatedParams(params).toRequest(new ArrayList<>(), embeddingFunction()))
+                .thenCompose(req -> add(req)
+                        .thenApply(result -> {
+                            QueryResponse<Boolean> response = QueryResponse.ofBoolean(result);
+                            if (response.isError()) {
+                                return QueryResponse.<List<String>>failed("Failing adding new elements to collection." + response.error().toString());
+                            }
+                            return QueryResponse.ofList(req.getIds());
+                        }));
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#getAll()}.
+     */
+    public CompletableFuture<QueryResponse<GetResult>> getAll() {
+        return fetch(new GetEmbedding())
+                .thenApply(QueryResponse::ofGetResult);
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#getAll(Predicate)}.
+     */
+    public CompletableFuture<QueryResponse<GetResult>> getAll(Predicate<GetResult> filter) {
+        return getAll().thenApply(response -> response.payload()
+                .filter(filter)
+                .map(res -> QueryResponse.of(res, GetResult.class))
+                .orElse(QueryResponse.failed("Nothing was found")));
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#get(List, GetCriteria)}.
+     */
+    public CompletableFuture<QueryResponse<GetResult>> get(List<String> ids, GetCriteria parameters) {
+        GetEmbedding req = parameters.toRequest(ids, embeddingFunction());
+        return fetch(req)
+                .thenApply(QueryResponse::ofGetResult);
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#update(List, UpdateCriteria)}.
+     */
+    public CompletableFuture<QueryResponse<Boolean>> update(List<String> ids, UpdateCriteria params) {
+        return prepare(() -> params.toRequest(ids, embeddingFunction()))
+                .thenCompose(req -> send(RequestSplitter.split(req, limits()), UpdateEmbedding::getIds,
+                        (chunk, callback) -> api.updateAsync(chunk, id(), callback), RequestSplitter::mergeResults))
+                .thenApply(QueryResponse::ofNullable);
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#upsert(List, AddCriteria)}.
+     */
+    public CompletableFuture<QueryResponse<Boolean>> upsert(List<String> ids, AddCriteria params) {
+        return prepare(() -> params.toRequest(ids, embeddingFunction()))
+                .thenCompose(req -> send(RequestSplitter.split(req, limits()), AddEmbedding::getIds,
+                        (chunk, callback) -> api.upsertAsync(chunk, id(), callback), RequestSplitter::mergeResults))
+                .thenApply(QueryResponse::ofNullable);
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#query(List, QueryCriteria)}.
+     */
+    public CompletableFuture<QueryResponse<QueryResult>> query(List<String> texts, QueryCriteria params) {
+        return prepare(() -> collection.queryRequest(texts, params))
+                .thenCompose(this::fetch)
+                .thenApply(QueryResponse::ofResult);
+    }
+
+    public CompletableFuture<QueryResponse<QueryResult>> query(String text, QueryCriteria params) {
+        return query(Collections.singletonList(text), params);
+    }
+
+    public CompletableFuture<QueryResponse<QueryResult>> query(String... texts) {
+        return query(List.of(texts), QueryCriteria.builder().build());
+    }
+
+    public CompletableFuture<QueryResponse<QueryResult>> query(Documents documents, QueryCriteria params) {
+        return query(documents.asList(), params);
+    }
+
+    public CompletableFuture<QueryResponse<QueryResult>> query(Documents documents) {
+        return query(documents.asList(), QueryCriteria.builder().build());
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#delete(List, DeleteCriteria)}.
+     */
+    public CompletableFuture<QueryResponse<List<String>>> delete(List<String> ids, DeleteCriteria parameters) {
+        DeleteEmbedding req;
+        try {
+            req = parameters.toRequest(ids, embeddingFunction());
+        } catch (ApiException e) {
+            return failed(e);
+        }
+        return send(RequestSplitter.split(req, limits()), DeleteEmbedding::getIds,
+                (chunk, callback) -> api.deleteAsync(chunk, id(), callback), RequestSplitter::mergeIds)
+                .thenApply(QueryResponse::ofList);
+    }
+
+    public CompletableFuture<QueryResponse<List<String>>> delete(List<String> ids) {
+        return delete(ids, new DeleteCriteria.Builder().build());
+    }
+
+    public CompletableFuture<QueryResponse<List<String>>> delete(DeleteCriteria parameters) {
+        return delete(new ArrayList<>(), parameters);
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#delete()}. Only ids are fetched, one page of
+     * {@link RequestLimits#maxRecords()} at a time starting from the last page, and up to
+     * {@link RequestLimits#concurrency()} deletes are in flight while the next pages are read.
+     */
+    public CompletableFuture<QueryResponse<List<String>>> delete() {
+        int pageSize = limits().maxRecords();
+        return countForDeletion().thenCompose(total -> {
+            if (total <= pageSize) {
+                return fetchIds(0, pageSize).thenCompose(ids -> ids.isEmpty()
+                        ? failed(new ApiException("Collection is empty. Nothing to delete"))
+                        : delete(ids, new DeleteCriteria.Builder().build()));
+            }
+            ChunkedWrite write = new ChunkedWrite();
+            return deletePages(write, (total - 1) / pageSize * pageSize, 0, new ArrayDeque<>()).thenCompose(done -> {
+                try {
+                    return CompletableFuture.completedFuture(QueryResponse.ofList(RequestSplitter.mergeIds(write.results())));
+                } catch (PartialWriteException e) {
+                    return failed(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Deletes the page at the given offset and the ones before it, then waits for every delete in flight.
+     */
+    private CompletableFuture<Void> deletePages(ChunkedWrite write, int offset, int chunk, Deque<CompletableFuture<Void>> inFlight) {
+        if (offset < 0) {
+            return CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]));
+        }
+        int pageSize = limits().maxRecords();
+        return fetchIds(offset, pageSize).thenCompose(ids -> {
+            if (ids.isEmpty()) {
+                return deletePages(write, offset - pageSize, chunk, inFlight);
+            }
+            CompletableFuture<Void> slot = inFlight.size() >= limits().concurrency()
+                    ? inFlight.removeFirst()
+                    : CompletableFuture.completedFuture(null);
+            return slot.thenCompose(free -> {
+                DeleteEmbedding request;
+                try {
+                    request = new DeleteCriteria.Builder().build().toRequest(ids, embeddingFunction());
+                } catch (ApiException e) {
+                    return failed(e);
+                }
+                inFlight.add(write.start(chunk, ids, callback -> api.deleteAsync(request, id(), callback)));
+                return deletePages(write, offset - pageSize, chunk + 1, inFlight);
+            });
+        });
+    }
+
+    private CompletableFuture<Integer> countForDeletion() {
+        return count().thenCompose(count -> count.isError()
+                ? failed(new ApiException("Error could not get all elements." + count.error().orElseThrow()))
+                : CompletableFuture.completedFuture(count.payload().orElse(0)));
+    }
+
+    /**
+     * Gets the ids of a page of records, without their documents, metadata or embeddings.
+     */
+    private CompletableFuture<List<String>> fetchIds(int offset, int limit) {
+        return fetch(new GetEmbedding().include(new ArrayList<>()).limit(limit).offset(offset)).thenCompose(page -> page == null
+                ? failed(new ApiException("Error could not get all elements."))
+                : CompletableFuture.completedFuture(page.getIds() != null ? page.getIds() : new ArrayList<>()));
+    }
+
+    /**
+     * Asynchronous version of {@link Collection#count()}.
+     */
+    public CompletableFuture<QueryResponse<Integer>> count() {
+        return FutureUtils.<Integer>toFuture(callback -> api.countAsync(id(), callback))
+                .thenApply(QueryResponse::ofInteger);
+    }
+
+    /**
+     * Returns the blocking collection this view was created from.
+     */
+    public Collection blocking() {
+        return collection;
+    }
+
+    private CompletableFuture<Object> add(AddEmbedding request) {
+        return send(RequestSplitter.split(request, limits()), AddEmbedding::getIds,
+                (chunk, callback) -> api.addAsync(chunk, id(), callback), RequestSplitter::mergeResults);
+    }
+
+    /**
+     * Sends a request split into chunks. A request that fits the limits is sent as is, and fails with the
+     * {@link ApiException} of its call.
+     */
+    private <R> CompletableFuture<Object> send(List<R> chunks, Function<R, List<String>> idsOf, ChunkedWrite.ChunkCall<R> call,
+                                               Function<List<Object>, Object> merge) {
+        if (chunks.size() == 1) {
+            return toFuture(callback -> call.start(chunks.get(0), callback));
+        }
+        return ChunkedWrite.send(chunks, limits().concurrency(), idsOf, call).thenApply(merge);
+    }
+
+    private RequestLimits limits() {
+        return collection.getRequestLimits();
+    }
+
+    private String id() {
+        return collection.getId();
+    }
+
+    private EmbeddingFunction embeddingFunction() {
+        return collection.getEmbeddingFunction();
+    }
+
+    /**
+     * Gets records, decoding the response body straight into a {@link GetResult}.
+     */
+    private CompletableFuture<GetResult> fetch(GetEmbedding request) {
+        return toFuture(callback -> execute(api.getCall(request, id(), null, null), GetResult.class, callback));
+    }
+
+    /**
+     * Queries the nearest neighbors, decoding the response body straight into a {@link QueryResult}.
+     */
+    private CompletableFuture<QueryResult> fetch(QueryEmbedding request) {
+        return toFuture(callback -> execute(api.getNearestNeighborsCall(request, id(), null, null), QueryResult.class, callback));
+    }
+
+    private <T> okhttp3.Call execute(okhttp3.Call call, Class<T> type, ApiCallback<T> callback) {
+        api.getApiClient().executeAsync(call, type, callback);
+        return call;
+    }
+
+    private <R> CompletableFuture<R> prepare(RequestSupplier<R> request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return request.get();
+            } catch (ApiException e) {
+                throw new CompletionException(e);
+            }
+        }, embeddingExecutor);
+    }
+
+    @FunctionalInterface
+    private interface RequestSupplier<R> {
+        R get() throws ApiException;
+    }
+}
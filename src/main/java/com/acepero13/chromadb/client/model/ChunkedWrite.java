@@ -0,0 +1,144 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.exceptions.PartialWriteException;
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.utils.FutureUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Collects the outcome of every chunk of a write request split by {@link RequestSplitter}.
+ * <p>
+ * A failed chunk does not stop the others: every chunk is sent, and the write fails only once all of them have
+ * completed, with a {@link PartialWriteException} naming the failed chunks and the ids written by the others.
+ */
+final class ChunkedWrite {
+    private final List<Object> results = new ArrayList<>();
+    private final List<String> writtenIds = new ArrayList<>();
+    private final List<Integer> failedChunks = new ArrayList<>();
+    private final List<Throwable> failures = new ArrayList<>();
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Sends every chunk, keeping at most {@code concurrency} of them in flight.
+     *
+     * @return the results of the chunks, in order, or a future failed with a {@link PartialWriteException}
+     */
+    static <R> CompletableFuture<List<Object>> send(List<R> chunks, int concurrency, Function<R, List<String>> idsOf, ChunkCall<R> call) {
+        Sender<R> sender = new Sender<>(chunks, idsOf, call);
+        if (chunks.isEmpty()) {
+            sender.done.complete(new ArrayList<>());
+        }
+        for (int i = 0; i < Math.min(concurrency, chunks.size()); i++) {
+            sender.sendNext();
+        }
+        return sender.done;
+    }
+
+    /**
+     * Starts one chunk and records its outcome. The returned future never fails.
+     */
+    CompletableFuture<Void> start(int chunk, List<String> ids, FutureUtils.AsyncCall<Object> call) {
+        return FutureUtils.toFuture(call).handle((result, error) -> {
+            record(chunk, ids, result, error);
+            return null;
+        });
+    }
+
+    private void record(int chunk, List<String> ids, Object result, Throwable error) {
+        lock.lock();
+        try {
+            while (results.size() <= chunk) {
+                results.add(null);
+            }
+            if (error == null) {
+                results.set(chunk, result);
+                if (ids != null) {
+                    writtenIds.addAll(ids);
+                }
+                return;
+            }
+            int position = 0;
+            while (position < failedChunks.size() && failedChunks.get(position) < chunk) {
+                position++;
+            }
+            failedChunks.add(position, chunk);
+            failures.add(position, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the results of every chunk, in order, once all of them have completed.
+     *
+     * @throws PartialWriteException if any chunk failed
+     */
+    List<Object> results() throws PartialWriteException {
+        lock.lock();
+        try {
+            if (!failures.isEmpty()) {
+                throw new PartialWriteException(results.size(), new ArrayList<>(failedChunks), new ArrayList<>(failures), new ArrayList<>(writtenIds));
+            }
+            return new ArrayList<>(results);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(CompletableFuture<List<Object>> done) {
+        try {
+            done.complete(results());
+        } catch (PartialWriteException e) {
+            done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Sends the next chunk each time one completes, until every chunk has been sent.
+     */
+    private static final class Sender<R> {
+        private final ChunkedWrite write = new ChunkedWrite();
+        private final CompletableFuture<List<Object>> done = new CompletableFuture<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final List<R> chunks;
+        private final Function<R, List<String>> idsOf;
+        private final ChunkCall<R> call;
+
+        private Sender(List<R> chunks, Function<R, List<String>> idsOf, ChunkCall<R> call) {
+            this.chunks = chunks;
+            this.idsOf = idsOf;
+            this.call = call;
+            this.remaining = new AtomicInteger(chunks.size());
+        }
+
+        private void sendNext() {
+            int index = next.getAndIncrement();
+            if (index >= chunks.size()) {
+                return;
+            }
+            R chunk = chunks.get(index);
+            write.start(index, idsOf.apply(chunk), callback -> call.start(chunk, callback)).thenRun(() -> {
+                if (remaining.decrementAndGet() == 0) {
+                    write.complete(done);
+                } else {
+                    sendNext();
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkCall<R> {
+        okhttp3.Call start(R chunk, ApiCallback<Object> callback) throws ApiException;
+    }
+}
@@ -1,17 +1,37 @@
 package com.acepero13.chromadb.client.model;
 
+import com.acepero13.chromadb.client.exceptions.PartialWriteException;
 import com.acepero13.chromadb.client.handler.ApiException;
 import com.acepero13.chromadb.client.handler.DefaultApi;
 import com.acepero13.chromadb.client.model.query.criteria.*;
 import com.acepero13.chromadb.client.result.GetResult;
 import com.acepero13.chromadb.client.result.QueryResponse;
 import com.acepero13.chromadb.client.result.QueryResult;
+import com.acepero13.chromadb.client.utils.CloseableIterator;
+import com.acepero13.chromadb.client.utils.FutureUtils;
 import com.acepero13.chromadb.client.utils.IdGenerator;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Collection {
     private final DefaultApi api;
@@ -19,14 +39,45 @@ public class Collection {
     private final Metadata metadata;
     private final EmbeddingFunction embeddingsFunction;
     private final CollectionName name;
+    private final RequestLimits limits;
 
 
     public Collection(DefaultApi api, String collectionId, Metadata metadata, CollectionName name, EmbeddingFunction embeddingFunction) {
+        this(api, collectionId, metadata, name, embeddingFunction, RequestLimits.defaults());
+    }
+
+    private Collection(DefaultApi api, String collectionId, Metadata metadata, CollectionName name, EmbeddingFunction embeddingFunction, RequestLimits limits) {
         this.api = api;
         this.collectionId = collectionId;
         this.metadata = metadata;
         this.name = name;
         this.embeddingsFunction = embeddingFunction;
+        this.limits = limits;
+    }
+
+    /**
+     * Returns a copy of this collection that splits write requests using the given limits.
+     * <p>
+     * {@code add}, {@code upsert}, {@code update} and {@code delete} requests with more records or bytes than
+     * allowed are split into consecutive chunks, sent {@link RequestLimits#concurrency()} at a time, and their
+     * results merged into a single {@link QueryResponse}. Chunks are not applied atomically: a failed chunk does not
+     * stop the others, which may be stored. Once every chunk has completed, a {@link PartialWriteException} names
+     * the failed chunks and the ids written by the others.
+     *
+     * @param limits the limits of a single request
+     * @return a collection using the given limits
+     */
+    public Collection withRequestLimits(RequestLimits limits) {
+        return new Collection(api, collectionId, metadata, name, embeddingsFunction, Objects.requireNonNull(limits));
+    }
+
+    /**
+     * Returns the limits used to split write requests.
+     *
+     * @return the request limits of this collection
+     */
+    public RequestLimits getRequestLimits() {
+        return limits;
     }
 
     /**
@@ -47,13 +98,15 @@ public class Collection {
      * @throws ApiException if an error occurs during the API call.
      */
     public QueryResponse<Boolean> add(List<String> ids, AddCriteria params) throws ApiException {
-        return QueryResponse.ofBoolean(this.api.add(params.toRequest(ids, embeddingsFunction), this.collectionId));
+        return QueryResponse.ofBoolean(add(params.toRequest(ids, embeddingsFunction)));
     }
 
     /**
      * Adds the specified documents to the collection and returns the query response.
      * When using this method, the ids will be generated automatically using sha-256 algorithm
-     * or using the {@link IdGenerator} function specified in {@link AddCriteria.Builder#withIdGenerator(IdGenerator)}
+     * or using the {@link IdGenerator} function specified in {@link AddCriteria.Builder#withIdGenerator(IdGenerator)}.
+     * With {@link AddCriteria.Builder#withDeduplication()}, duplicate records are dropped before embedding and only
+     * the ids that were sent are returned.
      *
      * @param params The {@link AddCriteria} parameters for the add operation.
      * @return The query response containing a boolean indicating whether the add operation was successful.
@@ -63,14 +116,14 @@ public class Collection {
         AddCriteria newParams = getUpdatedParams(params);
 
         AddEmbedding request = newParams.toRequest(new ArrayList<>(), embeddingsFunction);
-        QueryResponse<Boolean> result = QueryResponse.ofBoolean(this.api.add(request, this.collectionId));
+        QueryResponse<Boolean> result = QueryResponse.ofBoolean(add(request));
         if (result.isError()) {
             return QueryResponse.failed("Failing adding new elements to collection." + result.error().toString());
         }
         return QueryResponse.ofList(request.getIds());
     }
 
-    private static AddCriteria getUpdatedParams(AddCriteria params) {
+    static AddCriteria getUpdatedParams(AddCriteria params) {
         AddCriteria newParams;
         if (params.doesNotHaveIdGenerator()) {
             newParams = AddCriteria.builder(params)
@@ -89,25 +142,88 @@ public class Collection {
      * @throws ApiException if there is an error making the API call or parsing the response
      */
     public QueryResponse<GetResult> getAll() throws ApiException {
-        return QueryResponse.ofGetResult(this.api.get(new GetEmbedding(), collectionId));
+        return QueryResponse.ofGetResult(fetch(new GetEmbedding()));
+    }
+
+
+    /**
+     * Gets all items that match the given filter. Only the conditions of the filter that cannot be expressed on
+     * the server are evaluated locally, record by record, over pages of {@link RecordFilter#pageSize()} records.
+     *
+     * @param filter The filter to apply.
+     * @return A QueryResponse containing the matching records, without embeddings, holding no records if nothing matched.
+     * @throws ApiException If there was an error performing the API call.
+     */
+    public QueryResponse<GetResult> getAll(RecordFilter filter) throws ApiException {
+        List<GetResult.Row> rows;
+        try (Stream<GetResult.Row> matching = stream(filter)) {
+            rows = matching.collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException) e.getCause();
+            }
+            throw e;
+        }
+        return QueryResponse.ofGetResult(GetResult.ofRows(rows));
     }
 
+    /**
+     * Returns a lazy stream over the records matching the given filter. The server-side conditions are sent with
+     * every page request; the remaining predicate is applied to each record as the pages arrive.
+     *
+     * @param filter the filter to apply
+     * @return the matching records
+     * @see #stream(GetCriteria)
+     */
+    public Stream<GetResult.Row> stream(RecordFilter filter) {
+        Stream<GetResult> pages = stream(filter.toCriteria());
+        Stream<GetResult.Row> rows = pages.flatMap(page -> page.rows().stream());
+        return filter.hasResidual() ? rows.filter(filter::test) : rows;
+    }
 
     /**
-     * Gets all items that match the given filter.
+     * Gets all items that match the given filter. The whole collection is downloaded before the predicate is
+     * applied once to the complete result; prefer {@link #getAll(RecordFilter)}, which filters on the server.
      *
      * @param filter The filter to apply.
      * @return A QueryResponse containing all items that match the given filter, or a failed query if no items were found.
      * @throws ApiException If there was an error performing the API call.
      */
     public QueryResponse<GetResult> getAll(Predicate<GetResult> filter) throws ApiException {
-        return QueryResponse.ofGetResult(this.api.get(new GetEmbedding(), collectionId))
+        return QueryResponse.ofGetResult(fetch(new GetEmbedding()))
                 .payload()
                 .filter(filter)
                 .map(res -> QueryResponse.of(res, GetResult.class))
                 .orElse(QueryResponse.failed("Nothing was found"));
     }
 
+    /**
+     * Returns a lazy iterator over the pages of records matching the given criteria. The limit of the criteria is
+     * used as the page size and its offset as the starting position. The next page is fetched in the background
+     * while the current one is consumed, so scanning a whole collection holds at most two pages in memory.
+     * Failures surface as a {@link CompletionException} wrapping the {@link ApiException}. Closing the iterator
+     * cancels the page being prefetched.
+     *
+     * @param criteria the filters, includes and page size
+     * @return an iterator over the pages, the last one holding fewer records than the page size
+     */
+    public CloseableIterator<GetResult> iterator(GetCriteria criteria) {
+        return new PageIterator(criteria, embeddingsFunction, this::fetchAsync);
+    }
+
+    /**
+     * Returns a lazy, sequential stream over the pages of records matching the given criteria, as returned by
+     * {@link #iterator(GetCriteria)}. Closing the stream cancels the page being prefetched.
+     *
+     * @param criteria the filters, includes and page size
+     * @return a stream of pages
+     */
+    public Stream<GetResult> stream(GetCriteria criteria) {
+        PageIterator pages = new PageIterator(criteria, embeddingsFunction, this::fetchAsync);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(pages::close);
+    }
+
     /**
      * Retrieves an array of objects from the database, each identified by an id in the input list. The method also
      * takes a {@link GetCriteria} object that specifies additional parameters for the request.
@@ -119,7 +235,7 @@ public class Collection {
      */
     public QueryResponse<GetResult> get(List<String> ids, GetCriteria parameters) throws ApiException {
 
-        return QueryResponse.ofGetResult(this.api.get(parameters.toRequest(ids, embeddingsFunction), collectionId));
+        return QueryResponse.ofGetResult(fetch(parameters.toRequest(ids, embeddingsFunction)));
     }
 
     /**
@@ -131,7 +247,12 @@ public class Collection {
      * @throws ApiException if the API call fails
      */
     public QueryResponse<Boolean> update(List<String> ids, UpdateCriteria params) throws ApiException {
-        return QueryResponse.ofNullable(this.api.update(params.toRequest(ids, embeddingsFunction), collectionId));
+        List<UpdateEmbedding> chunks = RequestSplitter.split(params.toRequest(ids, embeddingsFunction), limits);
+        if (chunks.size() == 1) {
+            return QueryResponse.ofNullable(this.api.update(chunks.get(0), collectionId));
+        }
+        return QueryResponse.ofNullable(RequestSplitter.mergeResults(
+                sendChunks(chunks, UpdateEmbedding::getIds, (chunk, callback) -> api.updateAsync(chunk, collectionId, callback))));
     }
 
     /**
@@ -143,8 +264,42 @@ public class Collection {
      * @throws ApiException if the API call fails.
      */
     public QueryResponse<Boolean> upsert(List<String> ids, AddCriteria params) throws ApiException {
-        return QueryResponse.ofNullable(this.api.upsert(params.toRequest(ids, embeddingsFunction), collectionId));
+        List<AddEmbedding> chunks = RequestSplitter.split(params.toRequest(ids, embeddingsFunction), limits);
+        if (chunks.size() == 1) {
+            return QueryResponse.ofNullable(this.api.upsert(chunks.get(0), collectionId));
+        }
+        return QueryResponse.ofNullable(RequestSplitter.mergeResults(
+                sendChunks(chunks, AddEmbedding::getIds, (chunk, callback) -> api.upsertAsync(chunk, collectionId, callback))));
+    }
+
+    private Object add(AddEmbedding request) throws ApiException {
+        List<AddEmbedding> chunks = RequestSplitter.split(request, limits);
+        if (chunks.size() == 1) {
+            return this.api.add(chunks.get(0), this.collectionId);
+        }
+        return RequestSplitter.mergeResults(
+                sendChunks(chunks, AddEmbedding::getIds, (chunk, callback) -> api.addAsync(chunk, collectionId, callback)));
+    }
+
+    /**
+     * Sends the chunks of a request, keeping at most {@link RequestLimits#concurrency()} of them in flight,
+     * and returns their results in order. Every chunk is sent even if others fail.
+     *
+     * @throws PartialWriteException once every chunk has completed, if any of them failed
+     */
+    private <R> List<Object> sendChunks(List<R> chunks, Function<R, List<String>> idsOf, ChunkedWrite.ChunkCall<R> call) throws ApiException {
+        return await(ChunkedWrite.send(chunks, limits.concurrency(), idsOf, call));
+    }
 
+    private static <T> T await(CompletableFuture<T> future) throws ApiException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException) e.getCause();
+            }
+            throw e;
+        }
     }
 
     /**
@@ -156,20 +311,105 @@ public class Collection {
      * @throws ApiException if there was an error during the API request.
      */
     public QueryResponse<QueryResult> query(List<String> texts, QueryCriteria params) throws ApiException {
+        return QueryResponse.ofResult(fetch(queryRequest(texts, params)));
+    }
+
+    /**
+     * Gets records, decoding the response body straight into a {@link GetResult}.
+     */
+    GetResult fetch(GetEmbedding request) throws ApiException {
+        return api.getApiClient().<GetResult>execute(api.getCall(request, collectionId, null, null), GetResult.class).getData();
+    }
+
+    private CompletableFuture<GetResult> fetchAsync(GetEmbedding request) {
+        return FutureUtils.toFuture(callback -> {
+            okhttp3.Call call = api.getCall(request, collectionId, null, null);
+            api.getApiClient().executeAsync(call, GetResult.class, callback);
+            return call;
+        });
+    }
+
+    /**
+     * Queries the nearest neighbors, decoding the response body straight into a {@link QueryResult}.
+     */
+    QueryResult fetch(QueryEmbedding request) throws ApiException {
+        return api.getApiClient().<QueryResult>execute(api.getNearestNeighborsCall(request, collectionId, null, null), QueryResult.class).getData();
+    }
+
+    QueryEmbedding queryRequest(List<String> texts, QueryCriteria params) throws ApiException {
+        List<Object> embeddings = params.hasEmbeddings()
+                ? params.embeddings()
+                : embeddingsFunction.createEmbeddingsAsObject(texts);
+        return vectorQueryRequest(embeddings, params);
+    }
+
+    private static QueryEmbedding vectorQueryRequest(List<Object> embeddings, QueryCriteria params) throws ApiException {
         QueryEmbedding req = new QueryEmbedding()
                 .where(params.whereMetadata())
                 .whereDocument(params.whereDocument())
                 .include(params.include())
                 .nResults(params.nResults());
 
-        List<Object> embeddings = params.hasEmbeddings()
-                ? params.embeddings()
-                : embeddingsFunction.createEmbeddingsAsObject(texts);
-
         req.queryEmbeddings(embeddings);
         QueryCriteria.Validator.validate(req);
+        return req;
+    }
 
-        return QueryResponse.ofResult(this.api.getNearestNeighbors(req, collectionId));
+    /**
+     * Finds the nearest neighbors of records already stored in the collection. Their embeddings are read with a
+     * get that only includes embeddings and used as query vectors, so the embedding function is not called. There
+     * is one query per id, in the given order.
+     *
+     * @param ids    the ids of the records to search from
+     * @param params the query criteria. Embeddings given in the criteria are ignored.
+     * @return the neighbors of every record, or a failed response if some of the records do not exist
+     * @throws ApiException if there was an error during the API request.
+     */
+    public QueryResponse<QueryResult> queryById(List<String> ids, QueryCriteria params) throws ApiException {
+        return queryById(ids, params, false);
+    }
+
+    /**
+     * Finds the nearest neighbors of records already stored in the collection, as
+     * {@link #queryById(List, QueryCriteria)} does. With {@code excludeSources}, the records given by {@code ids}
+     * are left out of every query's results: more results are requested and the sources are removed, so each
+     * query still returns up to the requested number of results.
+     *
+     * @param ids            the ids of the records to search from
+     * @param params         the query criteria. Embeddings given in the criteria are ignored.
+     * @param excludeSources whether the records given by {@code ids} are left out of the results
+     * @return the neighbors of every record, or a failed response if some of the records do not exist
+     * @throws ApiException if there was an error during the API request.
+     */
+    public QueryResponse<QueryResult> queryById(List<String> ids, QueryCriteria params, boolean excludeSources) throws ApiException {
+        if (ids.isEmpty()) {
+            throw new ApiException("Ids cannot be empty");
+        }
+        GetResult stored = fetch(new GetEmbedding().ids(ids).include(List.of(GetEmbedding.IncludeEnum.EMBEDDINGS)));
+        if (stored == null || stored.getIds() == null || stored.getEmbeddingVectors() == null) {
+            return QueryResponse.failed("Could not get the embeddings of " + ids);
+        }
+        Map<String, Embedding> byId = new HashMap<>();
+        List<Embedding> vectors = stored.getEmbeddingVectors();
+        for (int i = 0; i < stored.getIds().size() && i < vectors.size(); i++) {
+            byId.put(stored.getIds().get(i), vectors.get(i));
+        }
+        List<Object> embeddings = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Embedding embedding = byId.get(id);
+            if (embedding == null) {
+                return QueryResponse.failed("Record not found: " + id);
+            }
+            embeddings.add(embedding.rawObject());
+        }
+        QueryEmbedding request = vectorQueryRequest(embeddings, params);
+        if (!excludeSources) {
+            return QueryResponse.ofResult(fetch(request));
+        }
+        Set<String> sources = new HashSet<>(ids);
+        request.nResults(params.nResults() + sources.size());
+        QueryResult result = fetch(request);
+        return QueryResponse.ofResult(result != null ? result.excluding(sources, params.nResults()) : null);
     }
 
     /**
@@ -182,7 +422,12 @@ public class Collection {
      */
     public QueryResponse<List<String>> delete(List<String> ids, DeleteCriteria parameters) throws ApiException {
 
-        return QueryResponse.ofList(this.api.delete(parameters.toRequest(ids, embeddingsFunction), collectionId));
+        List<DeleteEmbedding> chunks = RequestSplitter.split(parameters.toRequest(ids, embeddingsFunction), limits);
+        if (chunks.size() == 1) {
+            return QueryResponse.ofList(this.api.delete(chunks.get(0), collectionId));
+        }
+        return QueryResponse.ofList(RequestSplitter.mergeIds(
+                sendChunks(chunks, DeleteEmbedding::getIds, (chunk, callback) -> api.deleteAsync(chunk, collectionId, callback))));
     }
 
     /**
@@ -209,19 +454,59 @@ public class Collection {
 
     /**
      * Deletes all elements from the collection and returns a list of their IDs.
+     * <p>
+     * Only ids are fetched, one page of {@link RequestLimits#maxRecords()} at a time, starting from the last page
+     * so that deleting a page does not shift the ones still to be read. Up to {@link RequestLimits#concurrency()}
+     * deletes are in flight while the next pages are read. Use {@link DeleteCriteria} to delete by metadata or
+     * document content instead, which needs a single request.
      *
      * @throws ApiException if there was an error getting the elements or deleting them.
      */
     public QueryResponse<List<String>> delete() throws ApiException {
-        QueryResponse<GetResult> response = getAll();
-        if (response.isError()) {
-            throw new ApiException("Error could not get all elements." + response.error().orElseThrow());
+        int total = countForDeletion();
+        int pageSize = limits.maxRecords();
+        if (total <= pageSize) {
+            List<String> ids = fetchIds(0, pageSize);
+            if (ids.isEmpty()) {
+                throw new ApiException("Collection is empty. Nothing to delete");
+            }
+            return delete(ids, new DeleteCriteria.Builder().build());
         }
-        List<String> ids = response.payload().map(GetResult::getIds).orElse(new ArrayList<>());
-        if (ids.isEmpty()) {
-            throw new ApiException("Collection is empty. Nothing to delete");
+        ChunkedWrite write = new ChunkedWrite();
+        Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+        int chunk = 0;
+        for (int offset = (total - 1) / pageSize * pageSize; offset >= 0; offset -= pageSize) {
+            List<String> ids = fetchIds(offset, pageSize);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            DeleteEmbedding request = new DeleteCriteria.Builder().build().toRequest(ids, embeddingsFunction);
+            if (inFlight.size() >= limits.concurrency()) {
+                inFlight.removeFirst().join();
+            }
+            inFlight.add(write.start(chunk++, ids, callback -> api.deleteAsync(request, collectionId, callback)));
         }
-        return delete(ids, new DeleteCriteria.Builder().build());
+        inFlight.forEach(CompletableFuture::join);
+        return QueryResponse.ofList(RequestSplitter.mergeIds(write.results()));
+    }
+
+    private int countForDeletion() throws ApiException {
+        QueryResponse<Integer> count = count();
+        if (count.isError()) {
+            throw new ApiException("Error could not get all elements." + count.error().orElseThrow());
+        }
+        return count.payload().orElse(0);
+    }
+
+    /**
+     * Gets the ids of a page of records, without their documents, metadata or embeddings.
+     */
+    private List<String> fetchIds(int offset, int limit) throws ApiException {
+        GetResult page = fetch(new GetEmbedding().include(new ArrayList<>()).limit(limit).offset(offset));
+        if (page == null) {
+            throw new ApiException("Error could not get all elements.");
+        }
+        return page.getIds() != null ? page.getIds() : new ArrayList<>();
     }
 
     /**
@@ -273,6 +558,34 @@ public class Collection {
         return QueryResponse.ofInteger(this.api.count(this.collectionId));
     }
 
+    /**
+     * Returns a non-blocking view of this collection. Embeddings are computed on the common fork-join pool.
+     *
+     * @return an {@link AsyncCollection} sharing this collection's api and embedding function
+     */
+    public AsyncCollection async() {
+        return new AsyncCollection(this, api, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a non-blocking view of this collection that computes embeddings on the given executor.
+     *
+     * @param embeddingExecutor the executor running the embedding function
+     * @return an {@link AsyncCollection} sharing this collection's api and embedding function
+     */
+    public AsyncCollection async(Executor embeddingExecutor) {
+        return new AsyncCollection(this, api, embeddingExecutor);
+    }
+
+    /**
+     * Returns the function used to embed the documents of this collection.
+     *
+     * @return the embedding function, or {@code null} if embeddings are always provided explicitly
+     */
+    public EmbeddingFunction getEmbeddingFunction() {
+        return embeddingsFunction;
+    }
+
     /**
      * Returns the name of the collection.
      *
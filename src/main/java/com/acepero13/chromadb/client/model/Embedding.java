@@ -1,25 +1,65 @@
 package com.acepero13.chromadb.client.model;
 
-import java.util.ArrayList;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.stream.Collectors;
 
+/**
+ * A dense vector. Components are stored in a primitive {@code float[]}, so a vector takes 4 bytes per dimension
+ * instead of a boxed {@link Float} per dimension.
+ */
 public class Embedding {
-    private final List<Float> embedding;
+    private static final float[] EMPTY = new float[0];
+    private final float[] vector;
 
 
+    /**
+     * Creates an embedding by copying the given components.
+     *
+     * @param embedding the components of the vector
+     */
     public Embedding(List<Float> embedding) {
-        this.embedding = embedding;
+        this.vector = toArray(embedding);
     }
 
+    /**
+     * Creates an embedding by copying the given components.
+     *
+     * @param floatArray the components of the vector
+     */
     public Embedding(float... floatArray) {
-        List<Float> floatList = new ArrayList<>();
+        this(floatArray, Ownership.COPY);
+    }
 
-        for (float value : floatArray) {
-            floatList.add(value);
+    private Embedding(float[] vector, Ownership ownership) {
+        if (vector == null || vector.length == 0) {
+            this.vector = EMPTY;
+        } else {
+            this.vector = ownership == Ownership.COPY ? vector.clone() : vector;
         }
-        this.embedding = floatList;
+    }
+
+    /**
+     * Creates an embedding backed by the given array, without copying it. The array must not be modified afterwards,
+     * so this is meant for arrays nobody else holds a reference to.
+     *
+     * @param vector the components of the vector
+     * @return an embedding sharing the given array
+     */
+    public static Embedding wrap(float[] vector) {
+        return new Embedding(vector, Ownership.SHARE);
     }
 
     /**
@@ -42,18 +82,115 @@ public class Embedding {
         return embeddings.stream().map(Embedding::rawObject).collect(Collectors.toList());
     }
 
+    /**
+     * Creates an embedding by copying the given components.
+     *
+     * @param vector the components of the vector
+     * @return a new embedding
+     */
     public static Embedding of(float ...vector) {
         return new Embedding(vector);
     }
 
+    /**
+     * Returns a Gson factory that writes the lists returned by {@link #raw()} and {@link #rawObject()} straight from
+     * the backing array, without boxing the components. It must be registered on the {@link Gson} instance
+     * serializing requests, since Gson would otherwise treat them as any other collection.
+     *
+     * @return the type adapter factory for embedding vectors
+     */
+    public static TypeAdapterFactory typeAdapterFactory() {
+        return FloatListAdapter.FACTORY;
+    }
+
+    private static float[] toArray(List<? extends Number> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        float[] array = new float[values.size()];
+        int i = 0;
+        // Lists deserialized by Gson may hold doubles despite their declared type
+        for (Number value : values) {
+            array[i++] = value.floatValue();
+        }
+        return array;
+    }
+
 
     /**
-     * Returns the raw embeddings of the words in the vocabulary.
+     * Returns the raw embeddings of the words in the vocabulary. The list is a read-only view of the vector:
+     * components are boxed one at a time as they are read.
      *
      * @return A list of float values representing the raw embeddings for each word in the vocabulary.
      */
     public List<Float> raw() {
-        return embedding;
+        return new FloatListView(vector);
+    }
+
+    /**
+     * Returns the array backing this embedding, without copying it. The array must not be modified.
+     *
+     * @return the components of the vector
+     */
+    public float[] vector() {
+        return vector;
+    }
+
+    /**
+     * Returns a copy of the components of the vector.
+     *
+     * @return a new array holding the components of the vector
+     */
+    public float[] toArray() {
+        return vector.clone();
+    }
+
+    /**
+     * Returns the component at the given position.
+     *
+     * @param index the position of the component
+     * @return the component at {@code index}
+     */
+    public float get(int index) {
+        return vector[index];
+    }
+
+    /**
+     * Returns the number of dimensions of the vector.
+     *
+     * @return the number of components
+     */
+    public int dimensions() {
+        return vector.length;
+    }
+
+    /**
+     * Returns whether the vector has no components, as returned by embedding functions that failed.
+     *
+     * @return {@code true} if the vector is empty
+     */
+    public boolean isEmpty() {
+        return vector.length == 0;
+    }
+
+    /**
+     * Returns the number of components of a vector in any of the forms requests carry it: an {@link Embedding}, a
+     * {@code float[]} or a list returned by {@link #raw()}. The components are not read.
+     *
+     * @param value the vector
+     * @return the number of components, or -1 if the value is none of these forms
+     */
+    static int dimensionsOf(Object value) {
+        if (value instanceof FloatListView) {
+            return ((FloatListView) value).vector.length;
+        }
+        if (value instanceof float[]) {
+            return ((float[]) value).length;
+        }
+        if (value instanceof Embedding) {
+            return ((Embedding) value).dimensions();
+        }
+        return -1;
     }
 
     /**
@@ -62,7 +199,7 @@ public class Embedding {
      * @return the raw object that this {@code Embedding} is wrapping.
      */
     public Object rawObject() {
-        return embedding;
+        return raw();
     }
 
     @Override
@@ -72,18 +209,87 @@ public class Embedding {
 
         Embedding embedding1 = (Embedding) o;
 
-        return embedding.equals(embedding1.embedding);
+        return Arrays.equals(vector, embedding1.vector);
     }
 
     @Override
     public int hashCode() {
-        return embedding.hashCode();
+        // Same value as raw().hashCode()
+        return Arrays.hashCode(vector);
     }
 
     @Override
     public String toString() {
         return "Embedding{" +
-                "embedding=" + embedding +
+                "embedding=" + Arrays.toString(vector) +
                 '}';
     }
+
+    private static final class FloatListView extends AbstractList<Float> implements RandomAccess {
+        private final float[] vector;
+
+        private FloatListView(float[] vector) {
+            this.vector = vector;
+        }
+
+        @Override
+        public Float get(int index) {
+            return vector[index];
+        }
+
+        @Override
+        public int size() {
+            return vector.length;
+        }
+    }
+
+    private static final class FloatListAdapter extends TypeAdapter<FloatListView> {
+        private static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                return type.getRawType() == FloatListView.class ? (TypeAdapter<T>) new FloatListAdapter() : null;
+            }
+        };
+
+        @Override
+        public void write(JsonWriter out, FloatListView value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (float component : value.vector) {
+                out.value(component);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public FloatListView read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            float[] vector = new float[16];
+            int size = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (size == vector.length) {
+                    vector = Arrays.copyOf(vector, size * 2);
+                }
+                vector[size++] = (float) in.nextDouble();
+            }
+            in.endArray();
+            return new FloatListView(Arrays.copyOf(vector, size));
+        }
+    }
+
+    /**
+     * Whether an embedding copies the array it is created from or shares it with the caller.
+     */
+    private enum Ownership {
+        COPY,
+        SHARE
+    }
 }
@@ -18,6 +18,28 @@ public interface EmbeddingFunction {
 
     List<Embedding> createEmbeddings(List<String> documents, String model);
 
+    /**
+     * Returns an identifier of the model used by {@link #createEmbeddings(List)}. Two functions returning the same
+     * identifier must produce the same vectors, so it can be used as part of a cache key.
+     *
+     * @return the model identifier, or {@code null} if the function cannot tell
+     */
+    default String modelId() {
+        return null;
+    }
+
+    /**
+     * Returns an identifier of the given model, as used by {@link #createEmbeddings(List, String)}. It follows the
+     * same rules as {@link #modelId()}, so model names of different providers never share an identifier. Defaults
+     * to the model name prefixed with the class name of the function.
+     *
+     * @param model the name of the model
+     * @return the model identifier
+     */
+    default String modelId(String model) {
+        return getClass().getName() + "/" + model;
+    }
+
     default List<Embedding> createEmbeddings(Documents documents) {
         return createEmbeddings(documents.asList());
     }
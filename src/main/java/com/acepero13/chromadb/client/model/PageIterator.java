@@ -0,0 +1,88 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.model.query.criteria.GetCriteria;
+import com.acepero13.chromadb.client.result.GetResult;
+import com.acepero13.chromadb.client.utils.CloseableIterator;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Walks the records matching a {@link GetCriteria} one page at a time, using its limit as the page size and its
+ * offset as the first position. While a page is being consumed, the next one is already being fetched, so at most
+ * two pages are held at any time. Iteration stops after the first page holding fewer records than the page size.
+ */
+final class PageIterator implements CloseableIterator<GetResult> {
+    private final GetCriteria criteria;
+    private final Function<GetEmbedding, CompletableFuture<GetResult>> fetcher;
+    private final EmbeddingFunction embeddingFunction;
+    private final int pageSize;
+    private int offset;
+    private CompletableFuture<GetResult> pending;
+    private GetResult current;
+
+    PageIterator(GetCriteria criteria, EmbeddingFunction embeddingFunction, Function<GetEmbedding, CompletableFuture<GetResult>> fetcher) {
+        if (criteria.limit() == null || criteria.limit() < 1) {
+            throw new IllegalArgumentException("The limit of the criteria is the page size and must be at least 1");
+        }
+        this.criteria = criteria;
+        this.fetcher = fetcher;
+        this.embeddingFunction = embeddingFunction;
+        this.pageSize = criteria.limit();
+        this.offset = criteria.offset() != null ? criteria.offset() : 0;
+        this.pending = fetchNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws java.util.concurrent.CompletionException wrapping the {@link com.acepero13.chromadb.client.handler.ApiException}
+     *                                                  if a page could not be fetched
+     */
+    @Override
+    public boolean hasNext() {
+        if (current != null) {
+            return true;
+        }
+        if (pending == null) {
+            return false;
+        }
+        GetResult page = pending.join();
+        int size = page == null || page.getIds() == null ? 0 : page.getIds().size();
+        pending = size == pageSize ? fetchNext() : null;
+        current = size > 0 ? page : null;
+        return current != null;
+    }
+
+    @Override
+    public GetResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GetResult page = current;
+        current = null;
+        return page;
+    }
+
+    /**
+     * Cancels the page being prefetched, if any.
+     */
+    @Override
+    public void close() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        current = null;
+    }
+
+    private CompletableFuture<GetResult> fetchNext() {
+        GetEmbedding request = criteria.toRequest(List.of(), embeddingFunction)
+                .limit(pageSize)
+                .offset(offset);
+        offset += pageSize;
+        return fetcher.apply(request);
+    }
+}
@@ -0,0 +1,103 @@
+package com.acepero13.chromadb.client.model;
+
+/**
+ * Bounds on the size of a single write request. {@link Collection} splits larger {@code add}, {@code upsert},
+ * {@code update} and {@code delete} payloads into chunks that respect them and sends up to {@code concurrency}
+ * chunks at a time.
+ */
+public final class RequestLimits {
+    private static final RequestLimits DEFAULTS = builder().build();
+    private final int maxRecords;
+    private final long maxBytes;
+    private final int concurrency;
+
+    private RequestLimits(Builder builder) {
+        this.maxRecords = builder.maxRecords;
+        this.maxBytes = builder.maxBytes;
+        this.concurrency = builder.concurrency;
+    }
+
+    /**
+     * Returns the default limits: 5,000 records and 32 MiB per request, 4 concurrent requests.
+     */
+    public static RequestLimits defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int maxRecords() {
+        return maxRecords;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public int concurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestLimits{" +
+                "maxRecords=" + maxRecords +
+                ", maxBytes=" + maxBytes +
+                ", concurrency=" + concurrency +
+                '}';
+    }
+
+    public static class Builder {
+        private int maxRecords = 5_000;
+        private long maxBytes = 32L * 1024 * 1024;
+        private int concurrency = 4;
+
+        /**
+         * Sets the maximum number of records per request.
+         *
+         * @param maxRecords the maximum number of records
+         * @return this builder
+         */
+        public Builder withMaxRecords(int maxRecords) {
+            if (maxRecords < 1) {
+                throw new IllegalArgumentException("Maximum number of records must be at least 1");
+            }
+            this.maxRecords = maxRecords;
+            return this;
+        }
+
+        /**
+         * Sets the maximum estimated size of the serialized request, in bytes.
+         *
+         * @param maxBytes the maximum request size
+         * @return this builder
+         */
+        public Builder withMaxBytes(long maxBytes) {
+            if (maxBytes < 1) {
+                throw new IllegalArgumentException("Maximum request size must be at least 1 byte");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets how many chunks of the same operation are sent at the same time.
+         *
+         * @param concurrency the maximum number of concurrent chunks
+         * @return this builder
+         */
+        public Builder withConcurrency(int concurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Concurrency must be at least 1");
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public RequestLimits build() {
+            return new RequestLimits(this);
+        }
+    }
+}
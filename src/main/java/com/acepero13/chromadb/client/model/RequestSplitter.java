@@ -0,0 +1,241 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.serialization.Json;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits write requests into consecutive chunks bounded by {@link RequestLimits}.
+ */
+final class RequestSplitter {
+    private static final int NUMBER_BYTES = 16;
+    private static final int RECORD_OVERHEAD = 16;
+
+    private RequestSplitter() {
+    }
+
+    /**
+     * Splits an add or upsert request. Returns the request itself if it fits the limits.
+     */
+    static List<AddEmbedding> split(AddEmbedding request, RequestLimits limits) {
+        List<String> ids = request.getIds();
+        List<int[]> ranges = split(limits, ids, request.getEmbeddings(), request.getMetadatas(), request.getDocuments());
+        if (ranges.size() <= 1) {
+            return List.of(request);
+        }
+        List<AddEmbedding> chunks = new ArrayList<>(ranges.size());
+        for (int[] range : ranges) {
+            chunks.add(new AddEmbedding()
+                    .ids(slice(ids, ids.size(), range))
+                    .embeddings(slice(request.getEmbeddings(), ids.size(), range))
+                    .metadatas(slice(request.getMetadatas(), ids.size(), range))
+                    .documents(slice(request.getDocuments(), ids.size(), range))
+                    .incrementIndex(request.isIncrementIndex()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Splits an update request. Returns the request itself if it fits the limits.
+     */
+    static List<UpdateEmbedding> split(UpdateEmbedding request, RequestLimits limits) {
+        List<String> ids = request.getIds();
+        List<int[]> ranges = split(limits, ids, request.getEmbeddings(), request.getMetadatas(), request.getDocuments());
+        if (ranges.size() <= 1) {
+            return List.of(request);
+        }
+        List<UpdateEmbedding> chunks = new ArrayList<>(ranges.size());
+        for (int[] range : ranges) {
+            chunks.add(new UpdateEmbedding()
+                    .ids(slice(ids, ids.size(), range))
+                    .embeddings(slice(request.getEmbeddings(), ids.size(), range))
+                    .metadatas(slice(request.getMetadatas(), ids.size(), range))
+                    .documents(slice(request.getDocuments(), ids.size(), range))
+                    .incrementIndex(request.isIncrementIndex()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Splits a delete request by ids. Deletes without ids, which only filter by {@code where} clauses,
+     * are never split.
+     */
+    static List<DeleteEmbedding> split(DeleteEmbedding request, RequestLimits limits) {
+        List<String> ids = request.getIds();
+        if (ids == null) {
+            return List.of(request);
+        }
+        List<int[]> ranges = split(limits, ids);
+        if (ranges.size() <= 1) {
+            return List.of(request);
+        }
+        List<DeleteEmbedding> chunks = new ArrayList<>(ranges.size());
+        for (int[] range : ranges) {
+            chunks.add(new DeleteEmbedding()
+                    .ids(slice(ids, ids.size(), range))
+                    .where(request.getWhere())
+                    .whereDocument(request.getWhereDocument()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Merges the results of the chunks of an add, upsert or update request: {@code null} for upserts and updates,
+     * and whether every chunk succeeded for adds. Failed chunks are reported by {@link ChunkedWrite} instead.
+     */
+    static Object mergeResults(List<Object> results) {
+        Object merged = null;
+        for (Object result : results) {
+            if (result instanceof Boolean) {
+                merged = merged == null ? result : (Boolean) merged && (Boolean) result;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merges the ids deleted by the chunks of a delete request, in the order of the chunks.
+     */
+    static List<Object> mergeIds(List<Object> results) {
+        List<Object> ids = new ArrayList<>();
+        for (Object result : results) {
+            if (result instanceof List) {
+                ids.addAll((List<?>) result);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the {@code [from, to)} ranges of the chunks of a request with the given columns. A single record
+     * larger than the byte limit gets a chunk of its own. Requests within the record limit whose
+     * {@linkplain #upperBound upper bound} fits the byte limit are returned as a single range without estimating
+     * each record.
+     */
+    static List<int[]> split(RequestLimits limits, List<String> ids, List<?>... columns) {
+        if (ids.size() <= limits.maxRecords() && fits(limits.maxBytes(), ids, columns)) {
+            return ids.isEmpty() ? List.of() : List.<int[]>of(new int[]{0, ids.size()});
+        }
+        List<int[]> chunks = new ArrayList<>();
+        int from = 0;
+        long bytes = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            long recordBytes = RECORD_OVERHEAD + estimate(ids.get(i));
+            for (List<?> column : columns) {
+                if (column != null && column.size() == ids.size()) {
+                    recordBytes += estimate(column.get(i));
+                }
+            }
+            if (i > from && (i - from == limits.maxRecords() || bytes + recordBytes > limits.maxBytes())) {
+                chunks.add(new int[]{from, i});
+                from = i;
+                bytes = 0;
+            }
+            bytes += recordBytes;
+        }
+        if (from < ids.size()) {
+            chunks.add(new int[]{from, ids.size()});
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns whether the upper bound of the size of every record fits the given number of bytes. Stops as soon as
+     * the bound exceeds it.
+     */
+    private static boolean fits(long maxBytes, List<String> ids, List<?>... columns) {
+        long bytes = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            bytes += RECORD_OVERHEAD + upperBound(ids.get(i));
+            for (List<?> column : columns) {
+                if (column != null && column.size() == ids.size()) {
+                    bytes += upperBound(column.get(i));
+                }
+            }
+            if (bytes > maxBytes) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns an upper bound of {@link #estimate(Object)} computed in constant time for strings, which take at most
+     * 3 bytes per UTF-16 unit, and vectors. Other values are estimated.
+     */
+    static long upperBound(Object value) {
+        if (value instanceof String) {
+            return 3L * ((String) value).length() + 2;
+        }
+        return estimate(value);
+    }
+
+    /**
+     * Returns the rows {@code [from, to)} of a column, or the column itself if it is not one value per record.
+     */
+    static <T> List<T> slice(List<T> column, int records, int[] range) {
+        if (column == null || column.size() != records) {
+            return column;
+        }
+        return new ArrayList<>(column.subList(range[0], range[1]));
+    }
+
+    /**
+     * Estimates the serialized size of a value: an upper bound for numbers, the UTF-8 length for strings. Vectors
+     * are sized from their number of dimensions, without reading their components.
+     */
+    static long estimate(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof Number) {
+            return NUMBER_BYTES;
+        }
+        if (value instanceof Boolean) {
+            return 5;
+        }
+        if (value instanceof String) {
+            return utf8Length((String) value) + 2;
+        }
+        int dimensions = Embedding.dimensionsOf(value);
+        if (dimensions >= 0) {
+            return 2 + (long) dimensions * (NUMBER_BYTES + 1);
+        }
+        if (value instanceof Collection) {
+            long bytes = 2;
+            for (Object element : (Collection<?>) value) {
+                bytes += estimate(element) + 1;
+            }
+            return bytes;
+        }
+        if (value instanceof Map) {
+            long bytes = 2;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                bytes += estimate(String.valueOf(entry.getKey())) + 1 + estimate(entry.getValue()) + 1;
+            }
+            return bytes;
+        }
+        return Json.toJson(value).length();
+    }
+
+    private static long utf8Length(String value) {
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
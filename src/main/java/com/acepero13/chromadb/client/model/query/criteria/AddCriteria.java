@@ -7,6 +7,7 @@ import com.acepero13.chromadb.client.utils.ListUtils;
 import com.acepero13.chromadb.client.handler.ApiException;
 
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 public class AddCriteria implements Requestable<AddEmbedding> {
@@ -15,6 +16,7 @@ public class AddCriteria implements Requestable<AddEmbedding> {
     private final List<Metadata> metadata;
     private final boolean shouldIncrementIndex;
     private final IdGenerator idGenerator;
+    private final boolean deduplicate;
 
     public AddCriteria(Builder builder) {
         this.documents = builder.documents;
@@ -22,6 +24,7 @@ public class AddCriteria implements Requestable<AddEmbedding> {
         this.metadata = builder.metadata;
         this.shouldIncrementIndex = builder.shouldIncrementIndex;
         this.idGenerator = builder.idGenerator;
+        this.deduplicate = builder.deduplicate;
     }
 
     /**
@@ -85,26 +88,58 @@ public class AddCriteria implements Requestable<AddEmbedding> {
         return shouldIncrementIndex;
     }
 
+    /**
+     * Checks if duplicate records are removed before the request is built.
+     *
+     * @return true if duplicates are removed, false otherwise
+     */
+    public boolean shouldDeduplicate() {
+        return deduplicate;
+    }
+
     public AddEmbedding toRequest(final List<String> ids, EmbeddingFunction embeddingsFunction) throws ApiException {
         if (ids.isEmpty() && idGenerator == null) {
             throw new ApiException("Ids cannot be empty");
         }
-        AddEmbedding request = new AddEmbedding();
-        request.documents(documents.asList());
+        List<String> idList = ids;
+        List<String> documentList = documents.asList();
+        List<Metadata> metadataList = metadata;
+        List<Embedding> embeddingList = hasEmbeddings() ? embeddings : null;
+        if (deduplicate) {
+            List<String> rows = documentList;
+            List<Embedding> vectors = embeddingList;
+            int[] kept = ids.isEmpty()
+                    ? firstOccurrences(Math.max(rows.size(), vectors != null ? vectors.size() : 0),
+                    row -> Arrays.asList(elementAt(rows, row), elementAt(metadata, row), elementAt(vectors, row)))
+                    : firstOccurrences(ids.size(), ids::get);
+            if (kept != null) {
+                idList = select(ids, kept);
+                documentList = select(documentList, kept);
+                metadataList = select(metadataList, kept);
+                embeddingList = embeddingList != null ? select(embeddingList, kept) : null;
+            }
+        }
+        if (embeddingList == null) {
+            embeddingList = Objects.requireNonNull(embeddingsFunction, "Embeddings were not specify, therefore, you need to specify an embedding function")
+                    .createEmbeddings(documentList.size() == documents.total() ? documents() : Documents.of(documentList));
+        }
+        if (idList.isEmpty()) {
+            idList = idGenerator.generate(embeddingList);
+            int[] kept = deduplicate ? firstOccurrences(idList.size(), idList::get) : null;
+            if (kept != null) {
+                idList = select(idList, kept);
+                documentList = select(documentList, kept);
+                metadataList = select(metadataList, kept);
+                embeddingList = select(embeddingList, kept);
+            }
+        }
 
-        request.metadatas(Metadata.from(metadata));
+        AddEmbedding request = new AddEmbedding();
+        request.documents(documentList);
+        request.metadatas(Metadata.from(metadataList));
         request.incrementIndex(shouldIncrementIndex);
-        List<Embedding> embeddingList = hasEmbeddings()
-                ? embeddings
-                : Objects.requireNonNull(embeddingsFunction, "Embeddings were not specify, therefore, you need to specify an embedding function")
-                .createEmbeddings(documents());
-
         request.embeddings(Embedding.rawList(embeddingList));
-        if (ids.isEmpty()) {
-            request.setIds(idGenerator.generate(embeddingList));
-        } else {
-            request.ids(ids);
-        }
+        request.setIds(idList);
 
 
         Validator.validate(request, embeddingsFunction);
@@ -113,6 +148,38 @@ public class AddCriteria implements Requestable<AddEmbedding> {
 
     }
 
+    /**
+     * Returns the positions of the first occurrence of every distinct key, or {@code null} if all keys are distinct.
+     */
+    private static int[] firstOccurrences(int size, IntFunction<Object> key) {
+        Set<Object> seen = new HashSet<>();
+        int[] kept = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (seen.add(key.apply(row))) {
+                kept[count++] = row;
+            }
+        }
+        return count == size ? null : Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Keeps the values at the given positions. Positions past the end of a shorter column are skipped.
+     */
+    private static <T> List<T> select(List<T> values, int[] kept) {
+        List<T> selected = new ArrayList<>(kept.length);
+        for (int row : kept) {
+            if (row < values.size()) {
+                selected.add(values.get(row));
+            }
+        }
+        return selected;
+    }
+
+    private static Object elementAt(List<?> values, int row) {
+        return values != null && row < values.size() ? values.get(row) : null;
+    }
+
     /**
      * Checks if this class does not have an ID generator.
      *
@@ -179,9 +246,11 @@ public class AddCriteria implements Requestable<AddEmbedding> {
         private Documents documents = new Documents();
         private List<Embedding> embeddings = new ArrayList<>();
         private IdGenerator idGenerator = null;
+        private boolean deduplicate = false;
 
         public Builder(AddCriteria params) {
             this.shouldIncrementIndex = params.shouldIncrementIndex;
+            this.deduplicate = params.deduplicate;
             this.metadata = params.metadata;
             this.documents = params.documents;
             this.embeddings = params.embeddings;
@@ -239,5 +308,18 @@ public class AddCriteria implements Requestable<AddEmbedding> {
             this.idGenerator = idGenerator;
             return this;
         }
+
+        /**
+         * Removes duplicate records before the request is built. With explicit ids, records repeating an id are
+         * dropped. Otherwise records with the same document, metadata and embedding are collapsed before the
+         * documents are embedded, so each distinct text is embedded and sent once, and records that still get the
+         * same generated id are dropped afterwards. The first occurrence is kept.
+         *
+         * @return this builder
+         */
+        public Builder withDeduplication() {
+            this.deduplicate = true;
+            return this;
+        }
     }
 }
@@ -0,0 +1,138 @@
+package com.acepero13.chromadb.client.model.query.criteria;
+
+import com.acepero13.chromadb.client.model.Includes;
+import com.acepero13.chromadb.client.model.query.condition.Conditions;
+import com.acepero13.chromadb.client.model.query.condition.document.DocumentCondition;
+import com.acepero13.chromadb.client.model.query.condition.metadata.MetadataCondition;
+import com.acepero13.chromadb.client.model.query.matchers.DocumentMatcher;
+import com.acepero13.chromadb.client.model.query.matchers.MetadataMatcher;
+import com.acepero13.chromadb.client.result.GetResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Selects records of a collection. Metadata and document conditions are sent to the server as {@code where} and
+ * {@code where_document} clauses, so only matching records are transferred. The remaining Java predicate, if any,
+ * is applied to each record of the pages returned by the server.
+ * <p>
+ * All conditions must hold: several metadata or document conditions are combined with {@code $and}.
+ */
+public class RecordFilter {
+    private final List<MetadataCondition> metadataConditions;
+    private final List<DocumentCondition> documentConditions;
+    private final Predicate<GetResult.Row> residual;
+    private final int pageSize;
+
+    public RecordFilter(Builder builder) {
+        this.metadataConditions = List.copyOf(builder.metadataConditions);
+        this.documentConditions = List.copyOf(builder.documentConditions);
+        this.residual = builder.residual;
+        this.pageSize = builder.pageSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the criteria fetching the pages of records matching the server-side conditions.
+     *
+     * @return the criteria, with documents and metadata included
+     */
+    public GetCriteria toCriteria() {
+        GetCriteria.Builder criteria = GetCriteria.builder()
+                .withLimit(pageSize)
+                .include(Includes.DOCUMENTS, Includes.METADATAS);
+        if (!metadataConditions.isEmpty()) {
+            criteria.whereMetadata(metadataConditions.size() == 1
+                    ? metadataConditions.get(0)
+                    : Conditions.and(metadataConditions.toArray(new MetadataCondition[0])));
+        }
+        if (!documentConditions.isEmpty()) {
+            criteria.whereDocument(documentConditions.size() == 1
+                    ? documentConditions.get(0)
+                    : Conditions.and(documentConditions.toArray(new DocumentCondition[0])));
+        }
+        return criteria.build();
+    }
+
+    /**
+     * Checks if part of this filter has to run on the client.
+     *
+     * @return true if a Java predicate was given, false if the server does all the filtering
+     */
+    public boolean hasResidual() {
+        return residual != null;
+    }
+
+    /**
+     * Applies the client-side part of this filter to a record returned by the server.
+     *
+     * @param row the record
+     * @return true if the record is kept
+     */
+    public boolean test(GetResult.Row row) {
+        return residual == null || residual.test(row);
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    public static class Builder {
+        private final List<MetadataCondition> metadataConditions = new ArrayList<>();
+        private final List<DocumentCondition> documentConditions = new ArrayList<>();
+        private Predicate<GetResult.Row> residual = null;
+        private int pageSize = 1000;
+
+        public Builder whereMetadata(String field, MetadataMatcher matcher) {
+            return whereMetadata(Conditions.cond(field, matcher));
+        }
+
+        public Builder whereMetadata(MetadataCondition condition) {
+            this.metadataConditions.add(condition);
+            return this;
+        }
+
+        public Builder whereDocument(DocumentMatcher matcher) {
+            return whereDocument(matcher::buildMap);
+        }
+
+        public Builder whereDocument(DocumentCondition condition) {
+            this.documentConditions.add(condition);
+            return this;
+        }
+
+        /**
+         * Adds a condition that cannot be expressed on the server. It is evaluated for each record returned by the
+         * server, after the metadata and document conditions.
+         *
+         * @param predicate the condition on a single record
+         * @return this builder
+         */
+        public Builder matching(Predicate<GetResult.Row> predicate) {
+            this.residual = residual == null ? predicate : residual.and(predicate);
+            return this;
+        }
+
+        /**
+         * Sets the number of records fetched per request. Defaults to 1000.
+         *
+         * @param pageSize the page size
+         * @return this builder
+         */
+        public Builder withPageSize(int pageSize) {
+            if (pageSize < 1) {
+                throw new IllegalArgumentException("Page size must be at least 1");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        public RecordFilter build() {
+            return new RecordFilter(this);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.acepero13.chromadb.client.handler.ApiException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class UpdateCriteria implements Requestable<UpdateEmbedding> {
@@ -39,23 +40,41 @@ public class UpdateCriteria implements Requestable<UpdateEmbedding> {
         return embeddings != null && !embeddings.isEmpty();
     }
 
+    /**
+     * Builds the update request. Only the fields that were given are sent: the server keeps the documents,
+     * metadata and embeddings that are left out. Embeddings are computed with the embedding function only when
+     * documents change and no embeddings were given, so metadata-only updates never embed anything.
+     */
     @Override
     public UpdateEmbedding toRequest(List<String> ids, EmbeddingFunction embeddingFunction) throws ApiException {
         UpdateEmbedding req = new UpdateEmbedding();
         if (ids.isEmpty()) {
             throw new ApiException("Ids cannot be null for update");
         }
-        List<Object> embeddings = hasEmbeddings()
-                ? embeddings()
-                : embeddingFunction.createEmbeddingsAsObject(documents());
-
-        req.documents(documents().asList())
-                .ids(ids)
-                .metadatas(metadata())
-                .embeddings(embeddings);
+        req.ids(ids);
+        if (hasDocuments()) {
+            req.documents(documents().asList());
+        }
+        if (hasMetadata()) {
+            req.metadatas(metadata());
+        }
+        if (hasEmbeddings()) {
+            req.embeddings(embeddings());
+        } else if (hasDocuments()) {
+            req.embeddings(Objects.requireNonNull(embeddingFunction, "Documents were updated without embeddings, therefore, you need to specify an embedding function")
+                    .createEmbeddingsAsObject(documents()));
+        }
         return req;
     }
 
+    private boolean hasDocuments() {
+        return documents != null && documents.total() > 0;
+    }
+
+    private boolean hasMetadata() {
+        return metadata != null && !metadata.isEmpty();
+    }
+
     public static class Builder {
         private List<Metadata> metadata = new ArrayList<>();
         private Documents documents = new Documents();
@@ -1,10 +1,14 @@
 package com.acepero13.chromadb.client.result;
 
-import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import com.acepero13.chromadb.client.model.Documents;
+import com.acepero13.chromadb.client.model.Embedding;
 import com.acepero13.chromadb.client.model.Metadata;
+import com.acepero13.chromadb.client.serialization.FloatArrayListAdapter;
+import com.acepero13.chromadb.client.serialization.Json;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -13,18 +17,72 @@ public class GetResult {
     @SerializedName("documents")
     private List<String> documents;
     @SerializedName("embeddings")
-    private List<Float> embeddings;
+    @JsonAdapter(FloatArrayListAdapter.class)
+    private List<float[]> embeddings;
     @SerializedName("ids")
     private List<String> ids;
     @SerializedName("metadatas")
     private List<Map<String, Object>> metadatas;
 
+    /**
+     * Creates a result holding the given records, without embeddings.
+     *
+     * @param rows the records
+     * @return the result
+     */
+    public static GetResult ofRows(List<Row> rows) {
+        GetResult result = new GetResult();
+        result.ids = new ArrayList<>(rows.size());
+        result.documents = new ArrayList<>(rows.size());
+        result.metadatas = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            result.ids.add(row.id);
+            result.documents.add(row.document);
+            result.metadatas.add(row.metadata != null ? row.metadata.toMap() : null);
+        }
+        return result;
+    }
+
     public Documents getDocuments() {
         return Documents.of(documents);
     }
 
+    /**
+     * Returns the components of every embedding, one vector after the other.
+     *
+     * @return the concatenated components, or {@code null} if embeddings were not included
+     */
     public List<Float> getEmbeddings() {
-        return embeddings;
+        if (embeddings == null) {
+            return null;
+        }
+        int size = 0;
+        for (float[] vector : embeddings) {
+            size += vector.length;
+        }
+        float[] all = new float[size];
+        int position = 0;
+        for (float[] vector : embeddings) {
+            System.arraycopy(vector, 0, all, position, vector.length);
+            position += vector.length;
+        }
+        return Embedding.wrap(all).raw();
+    }
+
+    /**
+     * Returns the embedding of every record, in the order of their ids.
+     *
+     * @return the embeddings, or {@code null} if embeddings were not included
+     */
+    public List<Embedding> getEmbeddingVectors() {
+        if (embeddings == null) {
+            return null;
+        }
+        List<Embedding> vectors = new ArrayList<>(embeddings.size());
+        for (float[] vector : embeddings) {
+            vectors.add(Embedding.wrap(vector));
+        }
+        return vectors;
     }
 
     public List<String> getIds() {
@@ -35,8 +93,63 @@ public class GetResult {
         return metadatas.stream().map(Metadata::new).collect(Collectors.toList());
     }
 
+    /**
+     * Returns the records of this result, one per id. Documents and metadata that were not included are
+     * {@code null}.
+     *
+     * @return the records, in the order of their ids
+     */
+    public List<Row> rows() {
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+        List<Row> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String document = documents != null && i < documents.size() ? documents.get(i) : null;
+            Map<String, Object> metadata = metadatas != null && i < metadatas.size() ? metadatas.get(i) : null;
+            rows.add(new Row(ids.get(i), document, metadata != null ? new Metadata(metadata) : null));
+        }
+        return rows;
+    }
+
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return Json.toJson(this);
+    }
+
+    /**
+     * A single record of a {@link GetResult}.
+     */
+    public static class Row {
+        private final String id;
+        private final String document;
+        private final Metadata metadata;
+
+        public Row(String id, String document, Metadata metadata) {
+            this.id = id;
+            this.document = document;
+            this.metadata = metadata;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String document() {
+            return document;
+        }
+
+        public Metadata metadata() {
+            return metadata;
+        }
+
+        @Override
+        public String toString() {
+            return "Row{" +
+                    "id='" + id + '\'' +
+                    ", document='" + document + '\'' +
+                    ", metadata=" + metadata +
+                    '}';
+        }
     }
 }
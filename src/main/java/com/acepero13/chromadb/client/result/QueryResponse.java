@@ -3,6 +3,7 @@ package com.acepero13.chromadb.client.result;
 import com.google.gson.Gson;
 import com.acepero13.chromadb.client.model.HTTPValidationError;
 import com.acepero13.chromadb.client.model.ValidationError;
+import com.acepero13.chromadb.client.serialization.Json;
 
 import java.util.List;
 import java.util.Map;
@@ -42,13 +43,15 @@ public interface QueryResponse<T> {
     }
 
     private static <T> QueryResponse<T> ofObjectResult(Object result, Class<T> type) {
-        if (result instanceof HTTPValidationError) {
+        if (type.isInstance(result)) {
+            return new Success<>(type.cast(result));
+        } else if (result instanceof HTTPValidationError) {
             return new Failure<>((HTTPValidationError) result);
         } else if (result instanceof Map) {
-            String json = new Gson().toJson(result);
-            return new Success<>(new Gson().fromJson(json, type));
+            Gson gson = Json.gson();
+            return new Success<>(gson.fromJson(gson.toJsonTree(result), type));
         } else if (result instanceof String) {
-            return new Success<>(new Gson().fromJson((String) result, type));
+            return new Success<>(Json.fromJson((String) result, type));
         }
         return new Failure<>(new HTTPValidationError().addDetailItem(new ValidationError().msg("Unknown")));
     }
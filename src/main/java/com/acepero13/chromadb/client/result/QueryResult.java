@@ -1,159 +1,544 @@
 package com.acepero13.chromadb.client.result;
 
-import com.google.gson.Gson;
-import com.google.gson.annotations.SerializedName;
 import com.acepero13.chromadb.client.model.Documents;
 import com.acepero13.chromadb.client.model.Embedding;
 import com.acepero13.chromadb.client.model.Metadata;
+import com.acepero13.chromadb.client.serialization.Json;
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
+import java.util.Set;
+
+/**
+ * The result of a query, stored column by column.
+ * <p>
+ * Every field of the response is kept in flat arrays: ids and documents in {@code String[]}, distances in a
+ * {@code float[]}, and all embeddings in one contiguous {@code float[]} with an offset per vector. Each column has
+ * its own offsets per query, so the results of query {@code q} are read with {@link #id(int, int)},
+ * {@link #distance(int, int)}, {@link #document(int, int)}, {@link #metadata(int, int)} and
+ * {@link #embeddingOffset(int, int)} without allocating a wrapper per row. Metadata is kept as parsed JSON and only
+ * turned into {@link Metadata} when read.
+ * <p>
+ * The {@code List}-based getters are kept for compatibility; they build new lists on every call.
+ */
+@JsonAdapter(QueryResultAdapter.class)
 public class QueryResult {
     public static final DistanceRange DEFAULT_RANGE = DistanceRange.between(-0.5f, 0.5f);
-
-    @SerializedName("documents")
-    private List<List<String>> documents;
-    @SerializedName("embeddings")
-    private final List<List<Float>> embeddings = new ArrayList<>();
-    @SerializedName("ids")
-    private List<List<String>> ids;
-    @SerializedName("metadatas")
-    private List<List<Map<String, Object>>> metadatas;
-    @SerializedName("distances")
-    private List<List<Float>> distances;
+    private static final Type METADATA_TYPE = new TypeToken<Map<String, Object>>() {
+    }.getType();
+
+    private final Column<String[]> ids;
+    private final Column<String[]> documents;
+    private final Column<JsonElement[]> metadatas;
+    private final Column<float[]> distances;
+    private final Column<int[]> embeddings;
+    private final float[] embeddingData;
+    private volatile Metadata[] decodedMetadatas;
+    private volatile Selection lastSelection;
+
+    QueryResult(Column<String[]> ids, Column<String[]> documents, Column<JsonElement[]> metadatas,
+                Column<float[]> distances, Column<int[]> embeddings, float[] embeddingData) {
+        this.ids = ids;
+        this.documents = documents;
+        this.metadatas = metadatas;
+        this.distances = distances;
+        this.embeddings = embeddings;
+        this.embeddingData = embeddingData;
+    }
 
     public static QueryResult of(String json) {
-        return new Gson().fromJson(json, QueryResult.class);
+        return Json.fromJson(json, QueryResult.class);
+    }
+
+    /**
+     * Returns the number of queries in this result.
+     *
+     * @return the number of queries
+     */
+    public int queryCount() {
+        return ids != null ? ids.queries() : 0;
+    }
+
+    /**
+     * Returns the number of results of the given query.
+     *
+     * @param query the position of the query
+     * @return the number of results of the query
+     */
+    public int resultCount(int query) {
+        return ids != null ? ids.count(query) : 0;
+    }
+
+    public String id(int query, int result) {
+        return ids.values[ids.index(query, result)];
+    }
+
+    /**
+     * Returns the distance of a result, or {@code NaN} if distances were not included.
+     */
+    public float distance(int query, int result) {
+        return has(distances, query, result) ? distances.values[distances.index(query, result)] : Float.NaN;
+    }
+
+    /**
+     * Returns the document of a result, or {@code null} if documents were not included.
+     */
+    public String document(int query, int result) {
+        return has(documents, query, result) ? documents.values[documents.index(query, result)] : null;
+    }
+
+    /**
+     * Returns the metadata of a result, or {@code null} if metadata was not included. It is decoded on first access.
+     */
+    public Metadata metadata(int query, int result) {
+        if (!has(metadatas, query, result)) {
+            return null;
+        }
+        return decodedMetadata(metadatas.index(query, result));
+    }
+
+    /**
+     * Returns the position of the embedding of a result in {@link #embeddingData()}, or {@code -1} if embeddings
+     * were not included. The embedding spans {@link #embeddingDimensions(int, int)} values.
+     */
+    public int embeddingOffset(int query, int result) {
+        return has(embeddings, query, result) ? embeddings.values[embeddings.index(query, result)] : -1;
+    }
+
+    public int embeddingDimensions(int query, int result) {
+        if (!has(embeddings, query, result)) {
+            return 0;
+        }
+        int vector = embeddings.index(query, result);
+        return embeddings.values[vector + 1] - embeddings.values[vector];
+    }
+
+    /**
+     * Returns the components of every embedding of this result, one after the other, without copying them.
+     * The array must not be modified.
+     *
+     * @return the embedding components
+     */
+    public float[] embeddingData() {
+        return embeddingData;
+    }
+
+    /**
+     * Returns the embedding of a result as an {@link Embedding}, copying its components.
+     */
+    public Embedding embedding(int query, int result) {
+        int offset = embeddingOffset(query, result);
+        return offset < 0 ? null : Embedding.wrap(Arrays.copyOfRange(embeddingData, offset, offset + embeddingDimensions(query, result)));
     }
 
     public List<Documents> getDocuments() {
-        return documents.stream().map(Documents::of).collect(Collectors.toList());
+        List<Documents> all = new ArrayList<>();
+        for (int q = 0; documents != null && q < documents.queries(); q++) {
+            all.add(Documents.of(Arrays.asList(documents.values).subList(documents.start(q), documents.end(q))));
+        }
+        return all;
     }
 
     public List<Embedding> getEmbeddings() {
-        return embeddings.stream().map(Embedding::new).collect(Collectors.toList());
+        List<Embedding> all = new ArrayList<>();
+        for (int q = 0; embeddings != null && q < embeddings.queries(); q++) {
+            for (int i = 0; i < embeddings.count(q); i++) {
+                all.add(embedding(q, i));
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Returns the distances of every query.
+     *
+     * @return one array of distances per query
+     */
+    public List<float[]> getDistanceArrays() {
+        if (distances == null) {
+            return null;
+        }
+        List<float[]> all = new ArrayList<>(distances.queries());
+        for (int q = 0; q < distances.queries(); q++) {
+            all.add(Arrays.copyOfRange(distances.values, distances.start(q), distances.end(q)));
+        }
+        return all;
     }
 
     public List<List<String>> getIds() {
-        return ids;
+        if (ids == null) {
+            return null;
+        }
+        List<List<String>> all = new ArrayList<>(ids.queries());
+        for (int q = 0; q < ids.queries(); q++) {
+            all.add(Arrays.asList(ids.values).subList(ids.start(q), ids.end(q)));
+        }
+        return all;
     }
 
     public List<List<Metadata>> getMetadatas() {
-        return metadatas.stream().map(Metadata::of).collect(Collectors.toList());
+        List<List<Metadata>> all = new ArrayList<>();
+        for (int q = 0; metadatas != null && q < metadatas.queries(); q++) {
+            List<Metadata> query = new ArrayList<>(metadatas.count(q));
+            for (int i = 0; i < metadatas.count(q); i++) {
+                query.add(metadata(q, i));
+            }
+            all.add(query);
+        }
+        return all;
     }
 
     public List<List<Float>> getDistances() {
-        return distances;
+        if (distances == null) {
+            return null;
+        }
+        List<List<Float>> all = new ArrayList<>(distances.queries());
+        for (float[] query : getDistanceArrays()) {
+            all.add(Embedding.wrap(query).raw());
+        }
+        return all;
+    }
+
+    /**
+     * Returns a copy of this result without the results whose id is in the given set, keeping at most
+     * {@code maxResults} results per query.
+     *
+     * @param excluded   the ids to leave out
+     * @param maxResults the maximum number of results kept per query
+     * @return the filtered result
+     */
+    public QueryResult excluding(Set<String> excluded, int maxResults) {
+        int[][] kept = new int[queryCount()][];
+        for (int q = 0; q < kept.length; q++) {
+            int[] positions = new int[resultCount(q)];
+            int count = 0;
+            for (int i = 0; i < positions.length && count < maxResults; i++) {
+                if (!excluded.contains(id(q, i))) {
+                    positions[count++] = i;
+                }
+            }
+            kept[q] = Arrays.copyOf(positions, count);
+        }
+        Column<int[]> keptEmbeddings = null;
+        float[] keptData = new float[0];
+        if (embeddings != null) {
+            int[] vectors = new int[embeddings.values.length];
+            int[] offsets = new int[embeddings.queries() + 1];
+            float[] data = new float[embeddingData.length];
+            int count = 0;
+            for (int q = 0; q < embeddings.queries(); q++) {
+                for (int i : q < kept.length ? kept[q] : new int[0]) {
+                    if (i < embeddings.count(q)) {
+                        int vector = embeddings.index(q, i);
+                        int from = embeddings.values[vector];
+                        int length = embeddings.values[vector + 1] - from;
+                        System.arraycopy(embeddingData, from, data, vectors[count], length);
+                        vectors[count + 1] = vectors[count] + length;
+                        count++;
+                    }
+                }
+                offsets[q + 1] = count;
+            }
+            keptEmbeddings = new Column<>(Arrays.copyOf(vectors, count + 1), offsets);
+            keptData = Arrays.copyOf(data, vectors[count]);
+        }
+        return new QueryResult(select(ids, kept), select(documents, kept), select(metadatas, kept),
+                selectFloats(distances, kept), keptEmbeddings, keptData);
+    }
+
+    private static <T> Column<T[]> select(Column<T[]> column, int[][] kept) {
+        if (column == null) {
+            return null;
+        }
+        T[] values = Arrays.copyOf(column.values, column.values.length);
+        int[] offsets = new int[column.queries() + 1];
+        int count = 0;
+        for (int q = 0; q < column.queries(); q++) {
+            for (int i : q < kept.length ? kept[q] : new int[0]) {
+                if (i < column.count(q)) {
+                    values[count++] = column.values[column.index(q, i)];
+                }
+            }
+            offsets[q + 1] = count;
+        }
+        return new Column<>(Arrays.copyOf(values, count), offsets);
+    }
+
+    private static Column<float[]> selectFloats(Column<float[]> column, int[][] kept) {
+        if (column == null) {
+            return null;
+        }
+        float[] values = new float[column.values.length];
+        int[] offsets = new int[column.queries() + 1];
+        int count = 0;
+        for (int q = 0; q < column.queries(); q++) {
+            for (int i : q < kept.length ? kept[q] : new int[0]) {
+                if (i < column.count(q)) {
+                    values[count++] = column.values[column.index(q, i)];
+                }
+            }
+            offsets[q + 1] = count;
+        }
+        return new Column<>(Arrays.copyOf(values, count), offsets);
     }
 
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return Json.toJson(this);
     }
 
 
     public List<List<String>> getIds(DistanceRange range) {
-        return filter(ids, range);
+        return filter(this::id, ids, range);
     }
 
     public List<Documents> getDocuments(DistanceRange range) {
-        return filter(documents, range).stream().map(Documents::of).collect(Collectors.toList());
+        List<Documents> all = new ArrayList<>();
+        for (List<String> query : filter(this::document, documents, range)) {
+            all.add(Documents.of(query));
+        }
+        return all;
     }
 
     public List<List<Metadata>> getMetadatas(DistanceRange range) {
-        return filter(getMetadatas(), range);
+        return filter(this::metadata, metadatas, range);
     }
 
     public List<Embedding> getEmbeddings(DistanceRange range) {
-        return filter(embeddings, range).stream().map(Embedding::new).collect(Collectors.toList());
+        List<Embedding> all = new ArrayList<>();
+        filter(this::embedding, embeddings, range).forEach(all::addAll);
+        return all;
     }
 
-    private <T> List<List<T>> filter(List<List<T>> list, DistanceRange range) {
-        var filter = new ListFilter<T>(range, distances);
-        return filter.filterByDistanceRange(list);
+    /**
+     * Keeps, for every query, the values of the column whose distance is in range. Queries left without values
+     * are dropped. Without a range, every value is kept.
+     */
+    private <T> List<List<T>> filter(Cell<T> cell, Column<?> column, DistanceRange range) {
+        if (column == null) {
+            return new ArrayList<>();
+        }
+        if (range == null || distances == null) {
+            List<List<T>> all = new ArrayList<>(column.queries());
+            for (int q = 0; q < column.queries(); q++) {
+                List<T> query = new ArrayList<>(column.count(q));
+                for (int i = 0; i < column.count(q); i++) {
+                    query.add(cell.get(q, i));
+                }
+                all.add(query);
+            }
+            return all;
+        }
+        BitSet selected = selection(range);
+        List<List<T>> all = new ArrayList<>(distances.queries());
+        for (int q = 0; q < distances.queries(); q++) {
+            int start = distances.start(q);
+            int end = start + Math.min(distances.count(q), column.count(q));
+            List<T> query = null;
+            for (int i = selected.nextSetBit(start); i >= 0 && i < end; i = selected.nextSetBit(i + 1)) {
+                if (query == null) {
+                    query = new ArrayList<>();
+                }
+                query.add(cell.get(q, i - start));
+            }
+            if (query != null) {
+                all.add(query);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Returns which distances are in range, as a bitmap over the flattened distance column. The last selection is
+     * kept, so projecting several fields with the same range evaluates it only once.
+     */
+    private BitSet selection(DistanceRange range) {
+        Selection last = lastSelection;
+        if (last != null && last.range == range) {
+            return last.selected;
+        }
+        BitSet selected = range.select(distances.values);
+        lastSelection = new Selection(range, selected);
+        return selected;
+    }
+
+    private static boolean has(Column<?> column, int query, int result) {
+        return column != null && query < column.queries() && result < column.count(query);
+    }
 
+    private Metadata decodedMetadata(int index) {
+        Metadata[] decoded = decodedMetadatas;
+        if (decoded == null) {
+            decoded = new Metadata[metadatas.values.length];
+            decodedMetadatas = decoded;
+        }
+        Metadata metadata = decoded[index];
+        if (metadata == null) {
+            JsonElement element = metadatas.values[index];
+            Map<String, Object> map = element == null || element.isJsonNull()
+                    ? Collections.emptyMap()
+                    : Json.gson().fromJson(element, METADATA_TYPE);
+            metadata = new Metadata(map);
+            decoded[index] = metadata;
+        }
+        return metadata;
+    }
+
+    Column<String[]> ids() {
+        return ids;
     }
 
-    private static class ListFilter<T> {
+    Column<String[]> documents() {
+        return documents;
+    }
+
+    Column<JsonElement[]> metadatas() {
+        return metadatas;
+    }
+
+    Column<float[]> distances() {
+        return distances;
+    }
+
+    Column<int[]> embeddings() {
+        return embeddings;
+    }
+
+    @FunctionalInterface
+    private interface Cell<T> {
+        T get(int query, int result);
+    }
+
+    private static final class Selection {
         private final DistanceRange range;
-        private final List<List<Float>> distances;
+        private final BitSet selected;
 
-        private ListFilter(DistanceRange range, List<List<Float>> distances){
+        private Selection(DistanceRange range, BitSet selected) {
             this.range = range;
-            this.distances = distances;
+            this.selected = selected;
         }
-        private List<List<T>> filterByDistanceRange(List<List<T>> list) {
-            if (!isValidRange()) {
-                return list;
-            }
+    }
 
-            return IntStream.range(0, distances.size())
-                    .mapToObj(i -> filterElements(list, distances.get(i), i, range))
-                    .filter(Predicate.not(List::isEmpty))
-                    .collect(Collectors.toList());
+    /**
+     * Values of one field for every query, flattened. The values of query {@code q} are at
+     * {@code [offsets[q], offsets[q + 1])}.
+     */
+    static final class Column<A> {
+        final A values;
+        final int[] offsets;
+
+        Column(A values, int[] offsets) {
+            this.values = values;
+            this.offsets = offsets;
+        }
 
+        int queries() {
+            return offsets.length - 1;
         }
 
-        private  List<T> filterElements(List<List<T>> list, List<Float> distanceList, int index, DistanceRange range) {
-            return IntStream.range(0, distanceList.size())
-                    .filter(j -> range.inRange(distanceList.get(j)))
-                    .filter(j -> list.size() > index && list.get(index).size() > j)
-                    .mapToObj(j -> list.get(index).get(j))
-                    .collect(Collectors.toList());
+        int start(int query) {
+            return offsets[query];
         }
 
-        private  boolean isValidRange() {
-            return range != null;
+        int end(int query) {
+            return offsets[query + 1];
+        }
+
+        int count(int query) {
+            return offsets[query + 1] - offsets[query];
         }
-    }
 
+        int index(int query, int result) {
+            return offsets[query] + result;
+        }
+    }
 
+    /**
+     * An open interval of distances. Bounds are kept as primitive floats; a missing bound is infinite.
+     */
     public static class DistanceRange {
-        private final Float lowerBound;
-        private final Float upperBound;
-        private final Predicate<Float> predicate;
+        private final float lowerBound;
+        private final float upperBound;
+        private final float value;
+        private final double delta;
 
 
-        private DistanceRange(Float lowerBound, Float upperBound, Predicate<Float> predicate) {
+        private DistanceRange(float lowerBound, float upperBound, float value, double delta) {
             this.lowerBound = lowerBound;
             this.upperBound = upperBound;
-            this.predicate = predicate;
+            this.value = value;
+            this.delta = delta;
         }
 
         public static DistanceRange distanceIsLessThan(float limit) {
-            return new DistanceRange(null, limit, (current) -> current < limit);
+            return between(Float.NEGATIVE_INFINITY, limit);
         }
 
         public static DistanceRange distanceIsBiggerThan(float limit) {
-            return new DistanceRange(limit, null, current -> current > limit);
+            return between(limit, Float.POSITIVE_INFINITY);
         }
 
         public static DistanceRange between(float lowerBound, float upperBound) {
-            return new DistanceRange(lowerBound, upperBound, current -> current > lowerBound && current < upperBound);
+            return new DistanceRange(lowerBound, upperBound, Float.NaN, Double.NaN);
         }
 
         public static DistanceRange distanceIsEqualTo(float value, double delta) {
-            return new DistanceRange(value, value, current -> Math.abs(current - value) < delta);
+            return new DistanceRange(value, value, value, delta);
         }
 
-        public boolean inRange(float value) {
-            return predicate.test(value);
+        public boolean inRange(float distance) {
+            if (Double.isNaN(delta)) {
+                return distance > lowerBound && distance < upperBound;
+            }
+            return Math.abs(distance - value) < delta;
+        }
+
+        /**
+         * Evaluates the range over every distance.
+         *
+         * @param distances the distances to test
+         * @return a bitmap with the positions of the distances in range set
+         */
+        BitSet select(float[] distances) {
+            BitSet selected = new BitSet(distances.length);
+            if (Double.isNaN(delta)) {
+                float lower = lowerBound;
+                float upper = upperBound;
+                for (int i = 0; i < distances.length; i++) {
+                    float distance = distances[i];
+                    if (distance > lower && distance < upper) {
+                        selected.set(i);
+                    }
+                }
+            } else {
+                for (int i = 0; i < distances.length; i++) {
+                    if (Math.abs(distances[i] - value) < delta) {
+                        selected.set(i);
+                    }
+                }
+            }
+            return selected;
         }
 
         @Override
         public String toString() {
             return "DistanceRange{" +
-                    "lowerBound=" + lowerBound +
-                    ", upperBound=" + upperBound +
+                    "lowerBound=" + bound(lowerBound) +
+                    ", upperBound=" + bound(upperBound) +
                     '}';
         }
 
-
+        private static Float bound(float bound) {
+            return Float.isInfinite(bound) ? null : bound;
+        }
     }
 
 }
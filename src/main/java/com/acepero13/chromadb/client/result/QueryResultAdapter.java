@@ -0,0 +1,280 @@
+package com.acepero13.chromadb.client.result;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads the query response of Chroma, where every field holds one list per query, straight into the columns of a
+ * {@link QueryResult}. Values are appended to growable flat arrays, so no per-row objects are created except for
+ * strings and metadata trees.
+ */
+final class QueryResultAdapter implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != QueryResult.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new Adapter(gson.getAdapter(JsonElement.class)).nullSafe();
+    }
+
+    private static final class Adapter extends TypeAdapter<QueryResult> {
+        private final TypeAdapter<JsonElement> elements;
+
+        private Adapter(TypeAdapter<JsonElement> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public QueryResult read(JsonReader in) throws IOException {
+            QueryResult.Column<String[]> ids = null;
+            QueryResult.Column<String[]> documents = null;
+            QueryResult.Column<JsonElement[]> metadatas = null;
+            QueryResult.Column<float[]> distances = null;
+            EmbeddingColumn embeddings = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "ids":
+                        ids = readStrings(in);
+                        break;
+                    case "documents":
+                        documents = readStrings(in);
+                        break;
+                    case "metadatas":
+                        metadatas = readElements(in);
+                        break;
+                    case "distances":
+                        distances = readFloats(in);
+                        break;
+                    case "embeddings":
+                        embeddings = readEmbeddings(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new QueryResult(ids, documents, metadatas, distances,
+                    embeddings != null ? embeddings.vectors : null,
+                    embeddings != null ? embeddings.data : new float[0]);
+        }
+
+        private static QueryResult.Column<String[]> readStrings(JsonReader in) throws IOException {
+            Offsets offsets = new Offsets();
+            String[] values = new String[16];
+            int size = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        values[size++] = null;
+                    } else {
+                        values[size++] = in.nextString();
+                    }
+                }
+                in.endArray();
+                offsets.add(size);
+            }
+            in.endArray();
+            return new QueryResult.Column<>(Arrays.copyOf(values, size), offsets.toArray());
+        }
+
+        private QueryResult.Column<JsonElement[]> readElements(JsonReader in) throws IOException {
+            Offsets offsets = new Offsets();
+            JsonElement[] values = new JsonElement[16];
+            int size = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = elements.read(in);
+                }
+                in.endArray();
+                offsets.add(size);
+            }
+            in.endArray();
+            return new QueryResult.Column<>(Arrays.copyOf(values, size), offsets.toArray());
+        }
+
+        private static QueryResult.Column<float[]> readFloats(JsonReader in) throws IOException {
+            Offsets offsets = new Offsets();
+            Floats values = new Floats();
+            in.beginArray();
+            while (in.hasNext()) {
+                values.readArray(in);
+                offsets.add(values.size);
+            }
+            in.endArray();
+            return new QueryResult.Column<>(values.toArray(), offsets.toArray());
+        }
+
+        /**
+         * Reads one list of vectors per query. A query holding a single flat list of numbers is read as one vector.
+         */
+        private static EmbeddingColumn readEmbeddings(JsonReader in) throws IOException {
+            Offsets queries = new Offsets();
+            Offsets vectors = new Offsets();
+            Floats data = new Floats();
+            in.beginArray();
+            while (in.hasNext()) {
+                in.beginArray();
+                if (in.hasNext() && in.peek() == JsonToken.NUMBER) {
+                    data.readRemaining(in);
+                    vectors.add(data.size);
+                } else {
+                    while (in.hasNext()) {
+                        data.readArray(in);
+                        vectors.add(data.size);
+                    }
+                }
+                in.endArray();
+                queries.add(vectors.size - 1);
+            }
+            in.endArray();
+            return new EmbeddingColumn(new QueryResult.Column<>(vectors.toArray(), queries.toArray()), data.toArray());
+        }
+
+        @Override
+        public void write(JsonWriter out, QueryResult value) throws IOException {
+            out.beginObject();
+            writeStrings(out, "documents", value.documents());
+            out.name("embeddings");
+            out.beginArray();
+            QueryResult.Column<int[]> embeddings = value.embeddings();
+            for (int q = 0; embeddings != null && q < embeddings.queries(); q++) {
+                out.beginArray();
+                for (int v = embeddings.start(q); v < embeddings.end(q); v++) {
+                    writeFloats(out, value.embeddingData(), embeddings.values[v], embeddings.values[v + 1]);
+                }
+                out.endArray();
+            }
+            out.endArray();
+            writeStrings(out, "ids", value.ids());
+            QueryResult.Column<JsonElement[]> metadatas = value.metadatas();
+            if (metadatas != null) {
+                out.name("metadatas");
+                out.beginArray();
+                for (int q = 0; q < metadatas.queries(); q++) {
+                    out.beginArray();
+                    for (int i = metadatas.start(q); i < metadatas.end(q); i++) {
+                        elements.write(out, metadatas.values[i]);
+                    }
+                    out.endArray();
+                }
+                out.endArray();
+            }
+            QueryResult.Column<float[]> distances = value.distances();
+            if (distances != null) {
+                out.name("distances");
+                out.beginArray();
+                for (int q = 0; q < distances.queries(); q++) {
+                    writeFloats(out, distances.values, distances.start(q), distances.end(q));
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        private static void writeStrings(JsonWriter out, String name, QueryResult.Column<String[]> column) throws IOException {
+            if (column == null) {
+                return;
+            }
+            out.name(name);
+            out.beginArray();
+            for (int q = 0; q < column.queries(); q++) {
+                out.beginArray();
+                for (int i = column.start(q); i < column.end(q); i++) {
+                    out.value(column.values[i]);
+                }
+                out.endArray();
+            }
+            out.endArray();
+        }
+
+        private static void writeFloats(JsonWriter out, float[] values, int from, int to) throws IOException {
+            out.beginArray();
+            for (int i = from; i < to; i++) {
+                out.value(values[i]);
+            }
+            out.endArray();
+        }
+    }
+
+    private static final class EmbeddingColumn {
+        private final QueryResult.Column<int[]> vectors;
+        private final float[] data;
+
+        private EmbeddingColumn(QueryResult.Column<int[]> vectors, float[] data) {
+            this.vectors = vectors;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Growable list of offsets, starting with {@code 0}.
+     */
+    private static final class Offsets {
+        private int[] values = new int[8];
+        private int size = 1;
+
+        private void add(int offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class Floats {
+        private float[] values = new float[64];
+        private int size;
+
+        private void readArray(JsonReader in) throws IOException {
+            in.beginArray();
+            readRemaining(in);
+            in.endArray();
+        }
+
+        private void readRemaining(JsonReader in) throws IOException {
+            while (in.hasNext()) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = (float) in.nextDouble();
+            }
+        }
+
+        private float[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
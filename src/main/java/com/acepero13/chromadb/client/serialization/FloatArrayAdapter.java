@@ -0,0 +1,48 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a JSON array of numbers straight into a {@code float[]}, without boxing its elements.
+ */
+public final class FloatArrayAdapter extends TypeAdapter<float[]> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Override
+    public void write(JsonWriter out, float[] value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (float component : value) {
+            out.value(component);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public float[] read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        float[] values = new float[INITIAL_CAPACITY];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = (float) in.nextDouble();
+        }
+        in.endArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,61 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a JSON array of number arrays, such as the distances of a query, into a list of {@code float[]}. A flat
+ * array of numbers is read as a single array.
+ */
+public final class FloatArrayListAdapter extends TypeAdapter<List<float[]>> {
+    private final FloatArrayAdapter arrays = new FloatArrayAdapter();
+
+    @Override
+    public void write(JsonWriter out, List<float[]> value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (float[] array : value) {
+            arrays.write(out, array);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public List<float[]> read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<float[]> values = new ArrayList<>();
+        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            if (in.hasNext() && in.peek() == JsonToken.NUMBER) {
+                float[] single = new float[16];
+                int size = 0;
+                while (in.hasNext()) {
+                    if (size == single.length) {
+                        single = Arrays.copyOf(single, size * 2);
+                    }
+                    single[size++] = (float) in.nextDouble();
+                }
+                values.add(Arrays.copyOf(single, size));
+            } else {
+                while (in.hasNext()) {
+                    values.add(arrays.read(in));
+                }
+            }
+            in.endArray();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.acepero13.chromadb.client.model.AddEmbedding;
+import com.acepero13.chromadb.client.model.DeleteEmbedding;
+import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.GetEmbedding;
+import com.acepero13.chromadb.client.model.HTTPValidationError;
+import com.acepero13.chromadb.client.model.QueryEmbedding;
+import com.acepero13.chromadb.client.model.UpdateEmbedding;
+import com.acepero13.chromadb.client.result.GetResult;
+import com.acepero13.chromadb.client.result.QueryResult;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Holds the {@link Gson} instance shared by the client. {@link Gson} is thread-safe and caches the type adapter of
+ * every type it has seen, so reusing one instance avoids rebuilding reflective adapters on every call.
+ * <p>
+ * The adapters of the request and result types are created when the instance is built. The instance can be
+ * customized with {@link #configure(Consumer)}, for instance to register adapters for user metadata types.
+ */
+public final class Json {
+    private static final List<Class<?>> PRECOMPILED_TYPES = List.of(
+            AddEmbedding.class, UpdateEmbedding.class, DeleteEmbedding.class, GetEmbedding.class, QueryEmbedding.class,
+            GetResult.class, QueryResult.class, HTTPValidationError.class);
+
+    private static volatile Gson gson = precompile(registerAdapters(new GsonBuilder()).create());
+
+    private Json() {
+    }
+
+    /**
+     * Returns the shared {@link Gson} instance.
+     *
+     * @return the shared instance
+     */
+    public static Gson gson() {
+        return gson;
+    }
+
+    /**
+     * Replaces the shared instance with one built from the default configuration plus the given customization.
+     * Instances returned before by {@link #gson()} are left untouched.
+     *
+     * @param customizer customizes the builder of the new instance
+     */
+    public static void configure(Consumer<GsonBuilder> customizer) {
+        Objects.requireNonNull(customizer);
+        GsonBuilder builder = registerAdapters(new GsonBuilder());
+        customizer.accept(builder);
+        gson = precompile(builder.create());
+    }
+
+    /**
+     * Registers the adapters of the client on the given builder: embedding vectors and primitive float arrays are
+     * written and read without boxing.
+     *
+     * @param builder the builder to configure
+     * @return the same builder
+     */
+    public static GsonBuilder registerAdapters(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapterFactory(Embedding.typeAdapterFactory())
+                .registerTypeAdapter(float[].class, new FloatArrayAdapter());
+    }
+
+    public static String toJson(Object value) {
+        return gson.toJson(value);
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        return gson.fromJson(json, type);
+    }
+
+    private static Gson precompile(Gson gson) {
+        PRECOMPILED_TYPES.forEach(gson::getAdapter);
+        return gson;
+    }
+}
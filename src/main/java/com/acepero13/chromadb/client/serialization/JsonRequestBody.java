@@ -0,0 +1,55 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request body that serializes its value straight into the HTTP sink, instead of building the whole JSON
+ * document as a {@link String} first. The length is unknown upfront, so the body is sent with chunked encoding.
+ * The value is serialized again if OkHttp retries the request.
+ */
+public final class JsonRequestBody extends RequestBody {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private final Gson gson;
+    private final Object value;
+    private final MediaType contentType;
+
+    public JsonRequestBody(Gson gson, Object value) {
+        this(gson, value, JSON);
+    }
+
+    public JsonRequestBody(Gson gson, Object value, MediaType contentType) {
+        this.gson = gson;
+        this.value = value;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        Writer writer = new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8);
+        JsonWriter json = gson.newJsonWriter(writer);
+        gson.toJson(value, value.getClass(), json);
+        json.flush();
+    }
+
+    /**
+     * Returns the serialized value, for logging and tests.
+     */
+    @Override
+    public String toString() {
+        return gson.toJson(value);
+    }
+}
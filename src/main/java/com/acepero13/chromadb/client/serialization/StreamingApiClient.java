@@ -0,0 +1,141 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiClient;
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.ApiResponse;
+import com.acepero13.chromadb.client.handler.Pair;
+import com.acepero13.chromadb.client.handler.ProgressRequestBody;
+import com.acepero13.chromadb.client.model.Embedding;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.http.HttpMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ApiClient} that streams JSON request bodies into the connection with a {@link JsonRequestBody},
+ * instead of serializing them to a {@link String} first. Every other part of the request is built by the
+ * generated client. Embedding vectors are written straight from their {@code float[]}, see
+ * {@link Embedding#typeAdapterFactory()}.
+ * <p>
+ * JSON responses are decoded in one pass from the response stream into the requested type, instead of being read
+ * into a {@link String} first.
+ * <p>
+ * Streamed bodies and decoded responses use the {@link Json#gson() shared instance} current at the time of the
+ * request, so customizations made with {@link Json#configure} apply to clients created before.
+ */
+public class StreamingApiClient extends ApiClient {
+
+    public StreamingApiClient() {
+        getJSON().setGson(Json.registerAdapters(getJSON().getGson().newBuilder()).create());
+    }
+
+    @Override
+    public Request buildRequest(String path, String method, List<Pair> queryParams, List<Pair> collectionQueryParams,
+                                Object body, Map<String, String> headerParams, Map<String, Object> formParams,
+                                String[] authNames, ProgressRequestBody.ProgressRequestListener progressRequestListener) throws ApiException {
+        String contentType = headerParams.getOrDefault("Content-Type", "application/json");
+        if (!isStreamable(method, body, contentType)) {
+            return super.buildRequest(path, method, queryParams, collectionQueryParams, body, headerParams, formParams, authNames, progressRequestListener);
+        }
+        Request request = super.buildRequest(path, method, queryParams, collectionQueryParams, null, headerParams, formParams, authNames, null);
+        RequestBody requestBody = new JsonRequestBody(Json.gson(), body, MediaType.parse(contentType));
+        if (progressRequestListener != null) {
+            requestBody = new ProgressRequestBody(requestBody, progressRequestListener);
+        }
+        return request.newBuilder().method(method, requestBody).build();
+    }
+
+    @Override
+    public <T> ApiResponse<T> execute(Call call, Type returnType) throws ApiException {
+        if (!isDecodable(returnType)) {
+            return super.execute(call, returnType);
+        }
+        try {
+            Response response = call.execute();
+            T data = decode(response, returnType);
+            return new ApiResponse<>(response.code(), response.headers().toMultimap(), data);
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    @Override
+    public <T> void executeAsync(Call call, Type returnType, ApiCallback<T> callback) {
+        if (!isDecodable(returnType)) {
+            super.executeAsync(call, returnType, callback);
+            return;
+        }
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callback.onFailure(new ApiException(e), 0, null);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                T result;
+                try {
+                    result = decode(response, returnType);
+                } catch (ApiException e) {
+                    callback.onFailure(e, response.code(), response.headers().toMultimap());
+                    return;
+                }
+                callback.onSuccess(result, response.code(), response.headers().toMultimap());
+            }
+        });
+    }
+
+    /**
+     * Same contract as the generated {@code handleResponse}: unsuccessful responses throw an {@link ApiException}
+     * holding the body, empty responses decode to {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T decode(Response response, Type returnType) throws ApiException {
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful()) {
+                String content = body != null ? body.string() : null;
+                throw new ApiException(response.message(), response.code(), response.headers().toMultimap(), content);
+            }
+            if (returnType == null || response.code() == 204 || body == null) {
+                return null;
+            }
+            String contentType = response.header("Content-Type", "application/json");
+            if (!isJsonMime(contentType)) {
+                if (returnType.equals(String.class)) {
+                    return (T) body.string();
+                }
+                throw new ApiException("Content type \"" + contentType + "\" is not supported for type: " + returnType,
+                        response.code(), response.headers().toMultimap(), body.string());
+            }
+            Gson gson = Json.gson();
+            return gson.fromJson(gson.newJsonReader(body.charStream()), returnType);
+        } catch (IOException | JsonParseException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    private static boolean isDecodable(Type returnType) {
+        return !byte[].class.equals(returnType) && !File.class.equals(returnType);
+    }
+
+    private boolean isStreamable(String method, Object body, String contentType) {
+        return body != null
+                && !(body instanceof byte[])
+                && !(body instanceof File)
+                && HttpMethod.permitsRequestBody(method)
+                && isJsonMime(contentType);
+    }
+}
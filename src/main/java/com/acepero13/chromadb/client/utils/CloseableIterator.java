@@ -0,0 +1,18 @@
+package com.acepero13.chromadb.client.utils;
+
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} holding resources, such as requests in flight, that are released by {@link #close()}.
+ * Callers that stop iterating before the end should close it, ideally with try-with-resources.
+ *
+ * @param <T> the type of the elements
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Releases the resources held by this iterator. Once closed, it has no more elements.
+     */
+    @Override
+    void close();
+}
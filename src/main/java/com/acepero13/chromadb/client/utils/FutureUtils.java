@@ -0,0 +1,79 @@
+package com.acepero13.chromadb.client.utils;
+
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bridges the callback-based asynchronous methods of the generated {@code DefaultApi} to {@link CompletableFuture}s.
+ */
+public class FutureUtils {
+    private FutureUtils() {
+    }
+
+    /**
+     * Starts an asynchronous API call and returns a future completed by its callback. Failures, including the
+     * {@link ApiException}s and runtime exceptions raised while building the call, complete the future
+     * exceptionally instead of being thrown. Cancelling the future cancels the HTTP call.
+     *
+     * @param call starts the call, for instance {@code callback -> api.countAsync(id, callback)}
+     * @return the future result of the call
+     */
+    public static <T> CompletableFuture<T> toFuture(AsyncCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            okhttp3.Call httpCall = call.start(new FutureCallback<>(future));
+            future.whenComplete((result, error) -> {
+                if (future.isCancelled() && httpCall != null) {
+                    httpCall.cancel();
+                }
+            });
+        } catch (ApiException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Returns a future completed exceptionally with the given error.
+     */
+    public static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    @FunctionalInterface
+    public interface AsyncCall<T> {
+        okhttp3.Call start(ApiCallback<T> callback) throws ApiException;
+    }
+
+    private static final class FutureCallback<T> implements ApiCallback<T> {
+        private final CompletableFuture<T> future;
+
+        private FutureCallback(CompletableFuture<T> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+            future.completeExceptionally(e);
+        }
+
+        @Override
+        public void onSuccess(T result, int statusCode, Map<String, List<String>> responseHeaders) {
+            future.complete(result);
+        }
+
+        @Override
+        public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {
+        }
+
+        @Override
+        public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {
+        }
+    }
+}
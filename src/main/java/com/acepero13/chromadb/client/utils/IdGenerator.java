@@ -14,5 +14,26 @@ public interface IdGenerator {
         return new Sha256IdGenerator();
     }
 
+    /**
+     * Returns the default SHA-256 generator, hashing batches of at least {@code parallelThreshold} vectors in
+     * parallel on the common fork-join pool.
+     *
+     * @param parallelThreshold the smallest batch hashed in parallel
+     * @return the id generator
+     */
+    static IdGenerator sha256(int parallelThreshold) {
+        return new Sha256IdGenerator(parallelThreshold);
+    }
+
+    /**
+     * Returns a generator using the non-cryptographic 128-bit MurmurHash3, much faster than SHA-256 but not
+     * collision resistant against crafted vectors.
+     *
+     * @return the id generator
+     */
+    static IdGenerator murmur3() {
+        return new Murmur3IdGenerator(0);
+    }
+
 
 }
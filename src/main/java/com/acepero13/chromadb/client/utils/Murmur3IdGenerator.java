@@ -0,0 +1,104 @@
+package com.acepero13.chromadb.client.utils;
+
+import com.acepero13.chromadb.client.model.Embedding;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates ids from the 128-bit x64 MurmurHash3 of the little-endian bytes of each vector, as 32 hexadecimal
+ * characters. It is not a cryptographic hash: it is meant for deduplicating ingested vectors quickly, not for ids
+ * that must resist deliberate collisions. The hash is computed straight from the float bits, without copying the
+ * vector.
+ */
+final class Murmur3IdGenerator implements IdGenerator {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private final int seed;
+
+    Murmur3IdGenerator(int seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public List<String> generate(List<Embedding> embeddings) {
+        String[] ids = new String[embeddings.size()];
+        int i = 0;
+        for (Embedding embedding : embeddings) {
+            ids[i++] = generateUniqueIdFor(embedding.vector());
+        }
+        return Arrays.asList(ids);
+    }
+
+    String generateUniqueIdFor(float[] vector) {
+        long h1 = seed & 0xffffffffL;
+        long h2 = seed & 0xffffffffL;
+        int blocks = vector.length / 4;
+        for (int block = 0; block < blocks; block++) {
+            int i = block * 4;
+            long k1 = bits(vector[i]) | (bits(vector[i + 1]) << 32);
+            long k2 = bits(vector[i + 2]) | (bits(vector[i + 3]) << 32);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int i = blocks * 4;
+        switch (vector.length - i) {
+            case 3:
+                h2 ^= mixK2(bits(vector[i + 2]));
+                h1 ^= mixK1(bits(vector[i]) | (bits(vector[i + 1]) << 32));
+                break;
+            case 2:
+                h1 ^= mixK1(bits(vector[i]) | (bits(vector[i + 1]) << 32));
+                break;
+            case 1:
+                h1 ^= mixK1(bits(vector[i]));
+                break;
+            default:
+        }
+
+        long length = (long) vector.length * Float.BYTES;
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return StringUtils.toHex(h1, h2);
+    }
+
+    private static long bits(float value) {
+        return Float.floatToRawIntBits(value) & 0xffffffffL;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
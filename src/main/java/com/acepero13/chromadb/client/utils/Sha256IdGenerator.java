@@ -2,49 +2,75 @@ package com.acepero13.chromadb.client.utils;
 
 import com.acepero13.chromadb.client.model.Embedding;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Generates ids from the SHA-256 digest of the little-endian bytes of each vector, truncated to 50 hexadecimal
+ * characters. Digests and byte buffers are kept per thread. Batches of at least {@code parallelThreshold} vectors
+ * are hashed in parallel on the common fork-join pool.
+ */
 final class Sha256IdGenerator implements IdGenerator {
     private final static int MAX_LENGTH = 50;
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(Sha256IdGenerator::newDigest);
+    private static final ThreadLocal<ByteBuffer[]> BUFFER = ThreadLocal.withInitial(() -> new ByteBuffer[1]);
+    private final int parallelThreshold;
 
-    @Override
-    public List<String> generate(List<Embedding> embeddings) {
-        return embeddings.stream()
-                .map(this::generateUniqueIdFor)
-                .collect(Collectors.toList());
+    Sha256IdGenerator() {
+        this(Integer.MAX_VALUE);
     }
 
-    private String generateUniqueIdFor(Embedding embedding) {
-        String listAsString = embedding.raw().toString();
-        try {
-            return generateUsingSha256(listAsString);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Cannot generate unique ids because SHA-256 algorithm does not exist in the current classpath. Consider using  .add(List<String> ids, AddCriteria params) ");
+    Sha256IdGenerator(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be at least 1");
         }
-
-
+        this.parallelThreshold = parallelThreshold;
     }
 
+    @Override
+    public List<String> generate(List<Embedding> embeddings) {
+        String[] ids = new String[embeddings.size()];
+        if (ids.length >= parallelThreshold) {
+            Embedding[] vectors = embeddings.toArray(new Embedding[0]);
+            Arrays.parallelSetAll(ids, i -> generateUniqueIdFor(vectors[i]));
+        } else {
+            int i = 0;
+            for (Embedding embedding : embeddings) {
+                ids[i++] = generateUniqueIdFor(embedding);
+            }
+        }
+        return Arrays.asList(ids);
+    }
 
-    private String generateUsingSha256(String listAsString) throws NoSuchAlgorithmException {
-        MessageDigest digest;
-        digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(listAsString.getBytes());
+    private static String generateUniqueIdFor(Embedding embedding) {
+        float[] vector = embedding.vector();
+        ByteBuffer bytes = buffer(vector.length * Float.BYTES);
+        bytes.asFloatBuffer().put(vector);
+        MessageDigest digest = DIGEST.get();
+        digest.update(bytes.array(), 0, vector.length * Float.BYTES);
+        return StringUtils.toHex(digest.digest(), MAX_LENGTH / 2);
+    }
 
-        // Convert byte array to a hexadecimal string
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
+    private static ByteBuffer buffer(int capacity) {
+        ByteBuffer[] holder = BUFFER.get();
+        ByteBuffer buffer = holder[0];
+        if (buffer == null || buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(Math.max(capacity, 1024)).order(ByteOrder.LITTLE_ENDIAN);
+            holder[0] = buffer;
         }
+        buffer.clear();
+        return buffer;
+    }
 
-        // Ensure the length is between 3 and 50 characters
-        return hexString.length() > MAX_LENGTH ? hexString.substring(0, MAX_LENGTH) : hexString.toString();
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Cannot generate unique ids because SHA-256 algorithm does not exist in the current classpath. Consider using  .add(List<String> ids, AddCriteria params) ");
+        }
     }
 }
@@ -3,6 +3,7 @@ package com.acepero13.chromadb.client.utils;
 import java.util.regex.Pattern;
 
 public class StringUtils {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
     private StringUtils() {
 
     }
@@ -19,5 +20,37 @@ public class StringUtils {
         return Pattern.matches("^[a-z0-9].*[a-z0-9]$", name);
     }
 
+    /**
+     * Encodes the first bytes of an array as lowercase hexadecimal, two characters per byte.
+     *
+     * @param bytes  the bytes to encode
+     * @param length the number of bytes to encode
+     * @return the hexadecimal string
+     */
+    public static String toHex(byte[] bytes, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = bytes[i] & 0xff;
+            chars[i * 2] = HEX_DIGITS[b >>> 4];
+            chars[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(chars);
+    }
 
+    /**
+     * Encodes the given values as lowercase hexadecimal, most significant digit first, 16 characters per value.
+     *
+     * @param values the values to encode
+     * @return the hexadecimal string
+     */
+    public static String toHex(long... values) {
+        char[] chars = new char[values.length * 16];
+        int position = 0;
+        for (long value : values) {
+            for (int shift = 60; shift >= 0; shift -= 4) {
+                chars[position++] = HEX_DIGITS[(int) (value >>> shift) & 0x0f];
+            }
+        }
+        return new String(chars);
+    }
 }
@@ -0,0 +1,137 @@
+package com.acepero13.chromadb.client;
+
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.DefaultApi;
+import com.acepero13.chromadb.client.model.Collection;
+import com.acepero13.chromadb.client.model.CollectionName;
+import com.acepero13.chromadb.client.model.Metadata;
+import com.acepero13.chromadb.client.model.UpdateCollection;
+import com.google.gson.internal.LinkedTreeMap;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncDbClientTest {
+    private final DefaultApi api = Mockito.mock(DefaultApi.class);
+    private final AsyncDbClient client = new DbClient(api).async();
+
+    private static <T> Answer<okhttp3.Call> succeed(int callbackIndex, T result) {
+        return invocation -> {
+            ApiCallback<T> callback = invocation.getArgument(callbackIndex);
+            callback.onSuccess(result, 200, Map.of());
+            return null;
+        };
+    }
+
+    private static LinkedTreeMap<String, Object> collection(String name, String id) {
+        LinkedTreeMap<String, Object> response = new LinkedTreeMap<>();
+        response.put("name", name);
+        response.put("id", id);
+        response.put("metadata", new LinkedTreeMap<>());
+        return response;
+    }
+
+    @Test
+    void createsCollection() throws ApiException {
+        LinkedTreeMap<String, String> created = new LinkedTreeMap<>();
+        created.put("name", "test");
+        when(api.createCollectionAsync(any(), any())).thenAnswer(succeed(1, created));
+        when(api.getCollectionAsync(eq("test"), any())).thenAnswer(succeed(1, collection("test", "collectionId")));
+
+        Collection collection = client.createCollection("test").join();
+
+        assertEquals("test", collection.getNameAsString());
+        assertEquals("collectionId", collection.getId());
+    }
+
+    @Test
+    void listsCollections() throws ApiException {
+        when(api.listCollectionsAsync(any())).thenAnswer(succeed(0, List.of(collection("alpha", "1"), collection("beta", "2"))));
+        when(api.getCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, collection("alpha", "1")));
+        when(api.getCollectionAsync(eq("beta"), any())).thenAnswer(succeed(1, collection("beta", "2")));
+
+        List<Collection> collections = client.listCollections().join();
+
+        assertEquals(2, collections.size());
+        assertEquals(CollectionName.of("alpha"), collections.get(0).getName());
+        assertEquals(CollectionName.of("beta"), collections.get(1).getName());
+    }
+
+    @Test
+    void deletesCollection() throws ApiException {
+        when(api.getCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, collection("alpha", "1")));
+        when(api.deleteCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, null));
+
+        Collection collection = client.getCollection(CollectionName.of("alpha"), null).join();
+        client.deleteCollection(collection).join();
+
+        verify(api).deleteCollectionAsync(eq("alpha"), any());
+    }
+
+    @Test
+    void getsCollectionByName() throws ApiException {
+        when(api.getCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, collection("alpha", "1")));
+
+        Optional<Collection> collection = client.getCollection(CollectionName.of("alpha")).join();
+
+        assertTrue(collection.isPresent());
+        assertEquals("1", collection.get().getId());
+    }
+
+    @Test
+    void updatesCollection() throws ApiException {
+        when(api.getCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, collection("alpha", "1")));
+        when(api.getCollectionAsync(eq("beta"), any())).thenAnswer(succeed(1, collection("beta", "1")));
+        when(api.updateCollectionAsync(any(), eq("1"), any())).thenAnswer(succeed(2, null));
+        Collection old = client.getCollection(CollectionName.of("alpha"), null).join();
+
+        Collection updated = client.update(old, CollectionName.of("beta"), Metadata.SINGLE_EMPTY, null).join();
+
+        UpdateCollection expected = new UpdateCollection();
+        expected.setNewName("beta");
+        expected.setNewMetadata(Metadata.SINGLE_EMPTY.toMap());
+        verify(api).updateCollectionAsync(eq(expected), eq("1"), any());
+        assertEquals(CollectionName.of("beta"), updated.getName());
+    }
+
+    @Test
+    void deletesAllCollections() throws ApiException {
+        when(api.listCollectionsAsync(any())).thenAnswer(succeed(0, List.of(collection("alpha", "1"), collection("beta", "2"))));
+        when(api.getCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, collection("alpha", "1")));
+        when(api.getCollectionAsync(eq("beta"), any())).thenAnswer(succeed(1, collection("beta", "2")));
+        when(api.deleteCollectionAsync(any(), any())).thenAnswer(succeed(1, null));
+
+        client.deleteAllCollections().join();
+
+        verify(api).deleteCollectionAsync(eq("alpha"), any());
+        verify(api).deleteCollectionAsync(eq("beta"), any());
+    }
+
+    @Test
+    void deleteAllCollectionsFailsIfAnyDeletionFails() throws ApiException {
+        when(api.listCollectionsAsync(any())).thenAnswer(succeed(0, List.of(collection("alpha", "1"))));
+        when(api.getCollectionAsync(eq("alpha"), any())).thenAnswer(succeed(1, collection("alpha", "1")));
+        when(api.deleteCollectionAsync(eq("alpha"), any())).thenThrow(new ApiException(500, "Server error"));
+
+        assertThrows(CompletionException.class, () -> client.deleteAllCollections().join());
+    }
+
+    @Test
+    void version() throws ApiException {
+        when(api.versionAsync(any())).thenAnswer(succeed(0, "0.4.22"));
+
+        assertEquals("0.4.22", client.version().join());
+    }
+}
@@ -4,16 +4,23 @@ import com.acepero13.chromadb.client.handler.ApiException;
 import com.acepero13.chromadb.client.handler.DefaultApi;
 import com.acepero13.chromadb.client.model.*;
 import com.google.gson.internal.LinkedTreeMap;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -137,6 +144,48 @@ class DbClientTest {
         assertNotNull(client.getCollection(CollectionName.of("newName")));
     }
 
+    @Test
+    void createsClientWithDispatcherAndConnectionPool() throws MalformedURLException {
+        Dispatcher dispatcher = new Dispatcher();
+        ConnectionPool pool = new ConnectionPool(50, 1, TimeUnit.MINUTES);
+
+        DbClient custom = DbClient.create(new URL("http://localhost:8000"), dispatcher, pool);
+
+        assertSame(dispatcher, custom.httpClient().dispatcher());
+        assertSame(pool, custom.httpClient().connectionPool());
+    }
+
+    @Test
+    void builderConfiguresTheHttpLayer() throws MalformedURLException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        DbClient custom = DbClient.builder(new URL("http://localhost:8000"))
+                .withExecutor(executor)
+                .withMaxRequests(1000, 1000)
+                .withConnectionPool(100, Duration.ofMinutes(5))
+                .withReadTimeout(Duration.ofSeconds(30))
+                .build();
+
+        OkHttpClient http = custom.httpClient();
+        assertSame(executor, http.dispatcher().executorService());
+        assertEquals(1000, http.dispatcher().getMaxRequests());
+        assertEquals(1000, http.dispatcher().getMaxRequestsPerHost());
+        assertEquals(30_000, http.readTimeoutMillis());
+        executor.shutdown();
+    }
+
+    @Test
+    void builderKeepsTheGivenHttpClientUntouched() throws MalformedURLException {
+        OkHttpClient base = new OkHttpClient();
+
+        DbClient custom = DbClient.builder(new URL("http://localhost:8000"))
+                .withHttpClient(base)
+                .withMaxRequests(10, 10)
+                .build();
+
+        assertEquals(5, base.dispatcher().getMaxRequestsPerHost());
+        assertEquals(10, custom.httpClient().dispatcher().getMaxRequestsPerHost());
+    }
+
     private CreateCollection mockCreateCollection(String collectionName, String collectionId) throws ApiException {
         LinkedTreeMap<String, String> resp = new LinkedTreeMap<>();
         Map<String, String> metadata = Map.of("client", "java-client");
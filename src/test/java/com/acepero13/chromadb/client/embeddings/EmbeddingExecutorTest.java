@@ -0,0 +1,124 @@
+package com.acepero13.chromadb.client.embeddings;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingExecutorTest {
+
+    @Test
+    void keepsTheOrderOfTheBatches() {
+        List<Integer> batches = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+        try (EmbeddingExecutor executor = EmbeddingExecutor.create(4)) {
+            List<Integer> results = executor.map(batches, () -> batch -> batch * 2);
+
+            assertEquals(IntStream.range(0, 100).map(i -> i * 2).boxed().collect(Collectors.toList()), results);
+        }
+    }
+
+    @Test
+    void createsOneWorkerPerThread() {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> batches = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+
+        try (EmbeddingExecutor executor = EmbeddingExecutor.create(3)) {
+            executor.map(batches, () -> {
+                created.incrementAndGet();
+                return new EmbeddingExecutor.BatchWorker<Integer, Integer>() {
+                    @Override
+                    public Integer process(Integer batch) {
+                        threads.add(Thread.currentThread().getName());
+                        return batch;
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.incrementAndGet();
+                    }
+                };
+            });
+        }
+
+        assertEquals(3, created.get());
+        assertEquals(3, closed.get());
+        assertTrue(threads.stream().allMatch(name -> name.contains("worker")));
+    }
+
+    @Test
+    void neverStartsMoreWorkersThanBatches() {
+        AtomicInteger created = new AtomicInteger();
+
+        try (EmbeddingExecutor executor = EmbeddingExecutor.create(8)) {
+            executor.map(List.of(1, 2), () -> {
+                created.incrementAndGet();
+                return batch -> batch;
+            });
+        }
+
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void callerThreadRunsOnTheCurrentThread() {
+        String current = Thread.currentThread().getName();
+
+        List<String> results = EmbeddingExecutor.callerThread()
+                .map(List.of(1, 2, 3), () -> batch -> Thread.currentThread().getName());
+
+        assertEquals(List.of(current, current, current), results);
+    }
+
+    @Test
+    void propagatesFailures() {
+        try (EmbeddingExecutor executor = EmbeddingExecutor.create(2)) {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                    executor.map(List.of(1, 2, 3), () -> batch -> {
+                        if (batch == 2) {
+                            throw new Exception("Inference failed");
+                        }
+                        return batch;
+                    }));
+
+            assertEquals("Inference failed", error.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void splitsCoresBetweenWorkers() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        EmbeddingExecutor executor = EmbeddingExecutor.builder().withWorkers(2).build();
+
+        assertEquals(Math.max(1, cores / 2), executor.intraOpThreads());
+        assertEquals(1, executor.interOpThreads());
+        executor.close();
+    }
+
+    @Test
+    void customThreads() {
+        EmbeddingExecutor executor = EmbeddingExecutor.builder()
+                .withWorkers(4)
+                .withIntraOpThreads(8)
+                .withInterOpThreads(2)
+                .build();
+
+        assertEquals(4, executor.workers());
+        assertEquals(8, executor.intraOpThreads());
+        assertEquals(2, executor.interOpThreads());
+        executor.close();
+    }
+
+    @Test
+    void invalidWorkers() {
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingExecutor.create(0));
+    }
+}
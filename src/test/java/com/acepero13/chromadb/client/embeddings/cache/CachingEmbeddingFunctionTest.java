@@ -0,0 +1,155 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.EmbeddingFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingEmbeddingFunctionTest {
+    private final List<List<String>> calls = new ArrayList<>();
+    private final EmbeddingFunction lengths = new EmbeddingFunction() {
+        @Override
+        public List<Embedding> createEmbeddings(List<String> documents) {
+            calls.add(documents);
+            return documents.stream().map(doc -> Embedding.of(doc.length(), 1.0f)).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Embedding> createEmbeddings(List<String> documents, String model) {
+            calls.add(documents);
+            return documents.stream().map(doc -> Embedding.of(doc.length(), model.length())).collect(Collectors.toList());
+        }
+    };
+    private CachingEmbeddingFunction function;
+
+    @BeforeEach
+    void setUp() {
+        function = CachingEmbeddingFunction.builder(lengths).withModelId("lengths").build();
+    }
+
+    @Test
+    void onlyMissesAreSentToTheWrappedFunction() {
+        function.createEmbeddings(List.of("a", "bb"));
+        List<Embedding> result = function.createEmbeddings(List.of("bb", "ccc", "a"));
+
+        assertEquals(List.of(List.of("a", "bb"), List.of("ccc")), calls);
+        assertEquals(List.of(Embedding.of(2, 1), Embedding.of(3, 1), Embedding.of(1, 1)), result);
+        assertEquals(2, function.hitCount());
+        assertEquals(3, function.missCount());
+    }
+
+    @Test
+    void duplicatesAreEmbeddedOnce() {
+        List<Embedding> result = function.createEmbeddings(List.of("a", "a", "bb"));
+
+        assertEquals(List.of(List.of("a", "bb")), calls);
+        assertEquals(List.of(Embedding.of(1, 1), Embedding.of(1, 1), Embedding.of(2, 1)), result);
+    }
+
+    @Test
+    void mutatingAReturnedVectorDoesNotCorruptTheCache() {
+        function.createEmbeddings(List.of("a")).get(0).vector()[0] = 42;
+
+        assertEquals(List.of(Embedding.of(1, 1)), function.createEmbeddings(List.of("a")));
+    }
+
+    @Test
+    void modelIdDefaultsToTheOneOfTheWrappedFunction() {
+        EmbeddingFunction identified = new EmbeddingFunction() {
+            @Override
+            public List<Embedding> createEmbeddings(List<String> documents) {
+                return lengths.createEmbeddings(documents);
+            }
+
+            @Override
+            public List<Embedding> createEmbeddings(List<String> documents, String model) {
+                return lengths.createEmbeddings(documents, model);
+            }
+
+            @Override
+            public String modelId() {
+                return "identified";
+            }
+        };
+
+        assertEquals("identified", CachingEmbeddingFunction.builder(identified).build().modelId());
+    }
+
+    @Test
+    void modelIdIsRequiredWhenTheWrappedFunctionHasNone() {
+        CachingEmbeddingFunction.Builder builder = CachingEmbeddingFunction.builder(lengths);
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void modelIsPartOfTheKey() {
+        function.createEmbeddings(List.of("a"));
+        List<Embedding> result = function.createEmbeddings(List.of("a"), "other");
+
+        assertEquals(2, calls.size());
+        assertEquals(List.of(Embedding.of(1, 5)), result);
+    }
+
+    @Test
+    void explicitModelsAreKeyedByTheirQualifiedId() {
+        MemoryEmbeddingCache memory = MemoryEmbeddingCache.builder().build();
+        function = CachingEmbeddingFunction.builder(lengths)
+                .withModelId("lengths")
+                .withMemoryCache(memory)
+                .build();
+
+        function.createEmbeddings(List.of("a"), "other");
+
+        assertEquals(lengths.modelId("other"), function.modelId("other"));
+        assertNotNull(memory.get(CacheKey.of(lengths.modelId("other"), "a")));
+        assertNull(memory.get(CacheKey.of("other", "a")));
+    }
+
+    @Test
+    void diskTierIsPromotedToMemory() {
+        MemoryEmbeddingCache disk = MemoryEmbeddingCache.builder().build();
+        disk.put(CacheKey.of("lengths", "a"), new float[]{9, 9});
+        MemoryEmbeddingCache memory = MemoryEmbeddingCache.builder().build();
+        function = CachingEmbeddingFunction.builder(lengths)
+                .withModelId("lengths")
+                .withMemoryCache(memory)
+                .withDiskCache(disk)
+                .build();
+
+        List<Embedding> result = function.createEmbeddings(List.of("a", "bb"));
+
+        assertEquals(List.of(Embedding.of(9, 9), Embedding.of(2, 1)), result);
+        assertEquals(2, memory.size());
+        assertEquals(2, disk.size());
+        assertEquals(List.of(List.of("bb")), calls);
+    }
+
+    @Test
+    void emptyEmbeddingsAreNotCached() {
+        EmbeddingFunction failing = new EmbeddingFunction() {
+            @Override
+            public List<Embedding> createEmbeddings(List<String> documents) {
+                calls.add(documents);
+                return documents.stream().map(doc -> new Embedding(new ArrayList<>())).collect(Collectors.toList());
+            }
+
+            @Override
+            public List<Embedding> createEmbeddings(List<String> documents, String model) {
+                return createEmbeddings(documents);
+            }
+        };
+        function = CachingEmbeddingFunction.builder(failing).withModelId("failing").build();
+
+        function.createEmbeddings(List.of("a"));
+        function.createEmbeddings(List.of("a"));
+
+        assertEquals(2, calls.size());
+    }
+}
@@ -0,0 +1,159 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedEmbeddingCacheTest {
+    @TempDir
+    Path dir;
+
+    private MappedEmbeddingCache open(Path file) throws IOException {
+        return MappedEmbeddingCache.builder(file).withDimensions(3).withInitialCapacity(2).build();
+    }
+
+    @Test
+    void storesAndReadsVectors() throws IOException {
+        try (MappedEmbeddingCache cache = open(dir.resolve("cache.bin"))) {
+            cache.put(CacheKey.of("model", "a"), new float[]{1, 2, 3});
+            cache.put(CacheKey.of("model", "b"), new float[]{4, 5, 6});
+
+            assertArrayEquals(new float[]{1, 2, 3}, cache.get(CacheKey.of("model", "a")));
+            assertArrayEquals(new float[]{4, 5, 6}, cache.get(CacheKey.of("model", "b")));
+            assertNull(cache.get(CacheKey.of("model", "c")));
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Test
+    void growsBeyondTheInitialCapacity() throws IOException {
+        try (MappedEmbeddingCache cache = open(dir.resolve("cache.bin"))) {
+            for (int i = 0; i < 1000; i++) {
+                cache.put(CacheKey.of("model", "text" + i), new float[]{i, i + 1, i + 2});
+            }
+
+            assertEquals(1000, cache.size());
+            for (int i = 0; i < 1000; i++) {
+                assertArrayEquals(new float[]{i, i + 1, i + 2}, cache.get(CacheKey.of("model", "text" + i)));
+            }
+        }
+    }
+
+    @Test
+    void reopensExistingFile() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        try (MappedEmbeddingCache cache = open(file)) {
+            cache.put(CacheKey.of("model", "a"), new float[]{1, 2, 3});
+            cache.put(CacheKey.of("model", "a"), new float[]{7, 8, 9});
+        }
+
+        try (MappedEmbeddingCache cache = MappedEmbeddingCache.builder(file).build()) {
+            assertEquals(3, cache.dimensions());
+            assertEquals(1, cache.size());
+            assertEquals(1, cache.deletedRecords());
+            assertArrayEquals(new float[]{7, 8, 9}, cache.get(CacheKey.of("model", "a")));
+        }
+    }
+
+    @Test
+    void ignoresTornAppend() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        try (MappedEmbeddingCache cache = open(file)) {
+            cache.put(CacheKey.of("model", "a"), new float[]{1, 2, 3});
+            cache.put(CacheKey.of("model", "b"), new float[]{4, 5, 6});
+        }
+        int recordSize = 40 + 3 * Float.BYTES;
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(MappedEmbeddingCache.HEADER_SIZE + recordSize + 40);
+            raw.write(new byte[]{1, 2, 3, 4});
+        }
+
+        try (MappedEmbeddingCache cache = MappedEmbeddingCache.builder(file).build()) {
+            assertEquals(1, cache.size());
+            assertNull(cache.get(CacheKey.of("model", "b")));
+
+            cache.put(CacheKey.of("model", "c"), new float[]{7, 8, 9});
+            assertArrayEquals(new float[]{7, 8, 9}, cache.get(CacheKey.of("model", "c")));
+        }
+        try (MappedEmbeddingCache cache = MappedEmbeddingCache.builder(file).build()) {
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Test
+    void compactionDropsDeletedRecords() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        try (MappedEmbeddingCache cache = open(file)) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(CacheKey.of("model", "text" + i), new float[]{i, i, i});
+            }
+            for (int i = 0; i < 90; i++) {
+                assertTrue(cache.remove(CacheKey.of("model", "text" + i)));
+            }
+            long before = Files.size(file);
+
+            cache.compact();
+
+            assertEquals(10, cache.size());
+            assertEquals(0, cache.deletedRecords());
+            assertTrue(Files.size(file) < before);
+            assertArrayEquals(new float[]{95, 95, 95}, cache.get(CacheKey.of("model", "text95")));
+            assertNull(cache.get(CacheKey.of("model", "text5")));
+            cache.put(CacheKey.of("model", "new"), new float[]{1, 1, 1});
+            assertEquals(11, cache.size());
+        }
+    }
+
+    @Test
+    void failedCompactionKeepsTheCacheUsable() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        Files.createDirectories(dir.resolve("cache.bin.compact").resolve("blocked"));
+        try (MappedEmbeddingCache cache = open(file)) {
+            cache.put(CacheKey.of("model", "a"), new float[]{1, 2, 3});
+
+            assertThrows(UncheckedIOException.class, cache::compact);
+
+            cache.put(CacheKey.of("model", "b"), new float[]{4, 5, 6});
+            assertArrayEquals(new float[]{1, 2, 3}, cache.get(CacheKey.of("model", "a")));
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Test
+    void closedCacheRejectsCalls() throws IOException {
+        MappedEmbeddingCache cache = open(dir.resolve("cache.bin"));
+        cache.put(CacheKey.of("model", "a"), new float[]{1, 2, 3});
+        cache.close();
+
+        assertThrows(IllegalStateException.class, () -> cache.get(CacheKey.of("model", "a")));
+        assertThrows(IllegalStateException.class, () -> cache.put(CacheKey.of("model", "b"), new float[]{4, 5, 6}));
+        assertThrows(IllegalStateException.class, cache::compact);
+    }
+
+    @Test
+    void rejectsVectorsOfOtherDimensions() throws IOException {
+        try (MappedEmbeddingCache cache = open(dir.resolve("cache.bin"))) {
+            assertThrows(IllegalArgumentException.class, () -> cache.put(CacheKey.of("model", "a"), new float[]{1}));
+        }
+    }
+
+    @Test
+    void rejectsFilesOfOtherDimensions() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        open(file).close();
+
+        assertThrows(IllegalStateException.class, () -> MappedEmbeddingCache.builder(file).withDimensions(4).build());
+    }
+
+    @Test
+    void requiresDimensionsForNewFiles() {
+        assertThrows(IllegalStateException.class, () -> MappedEmbeddingCache.builder(dir.resolve("new.bin")).build());
+    }
+}
@@ -0,0 +1,60 @@
+package com.acepero13.chromadb.client.embeddings.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryEmbeddingCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        MemoryEmbeddingCache cache = MemoryEmbeddingCache.builder().withMaxEntries(2).build();
+        CacheKey a = CacheKey.of("model", "a");
+        CacheKey b = CacheKey.of("model", "b");
+        CacheKey c = CacheKey.of("model", "c");
+
+        cache.put(a, new float[]{1});
+        cache.put(b, new float[]{2});
+        cache.get(a);
+        cache.put(c, new float[]{3});
+
+        assertArrayEquals(new float[]{1}, cache.get(a));
+        assertNull(cache.get(b));
+        assertArrayEquals(new float[]{3}, cache.get(c));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void evictsBySize() {
+        MemoryEmbeddingCache cache = MemoryEmbeddingCache.builder().withMaxBytes(1024).build();
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(CacheKey.of("model", "text" + i), new float[64]);
+        }
+
+        assertTrue(cache.bytes() <= 1024);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(CacheKey.of("model", "text9")));
+    }
+
+    @Test
+    void replacingAnEntryKeepsTheSizeAccurate() {
+        MemoryEmbeddingCache cache = MemoryEmbeddingCache.builder().build();
+        CacheKey key = CacheKey.of("model", "a");
+
+        cache.put(key, new float[10]);
+        long bytes = cache.bytes();
+        cache.put(key, new float[10]);
+
+        assertEquals(bytes, cache.bytes());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void keysDependOnModelAndText() {
+        assertEquals(CacheKey.of("model", "a"), CacheKey.of("model", "a"));
+        assertNotEquals(CacheKey.of("model", "a"), CacheKey.of("other", "a"));
+        assertNotEquals(CacheKey.of("ab", "c"), CacheKey.of("a", "bc"));
+        assertEquals(64, CacheKey.of("model", "a").toString().length());
+    }
+}
@@ -0,0 +1,69 @@
+package com.acepero13.chromadb.client.embeddings.minilm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LengthBucketsTest {
+
+    @Test
+    void groupsTextsOfSimilarLength() {
+        List<String> texts = List.of("a very long text", "a", "medium", "b", "another long text", "middle");
+
+        List<int[]> batches = LengthBuckets.split(texts, 2);
+
+        assertEquals(3, batches.size());
+        assertEquals(List.of("a", "b"), textsOf(texts, batches.get(0)));
+        assertEquals(List.of("medium", "middle"), textsOf(texts, batches.get(1)));
+        assertEquals(List.of("a very long text", "another long text"), textsOf(texts, batches.get(2)));
+    }
+
+    @Test
+    void lastBatchHoldsTheRemainingTexts() {
+        List<int[]> batches = LengthBuckets.split(List.of("a", "bb", "ccc"), 2);
+
+        assertEquals(2, batches.size());
+        assertArrayEquals(new int[]{0, 1}, batches.get(0));
+        assertArrayEquals(new int[]{2}, batches.get(1));
+    }
+
+    @Test
+    void everyPositionIsInExactlyOneBatch() {
+        List<String> texts = List.of("xxxx", "x", "xxx", "xx", "xxxxx");
+
+        int[] positions = LengthBuckets.split(texts, 3).stream()
+                .flatMapToInt(Arrays::stream)
+                .sorted()
+                .toArray();
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, positions);
+    }
+
+    @Test
+    void usesTheGivenLengthEstimate() {
+        List<int[]> batches = LengthBuckets.split(List.of("one two three", "four", "five six"), 1,
+                text -> text.split(" ").length);
+
+        assertArrayEquals(new int[]{1}, batches.get(0));
+        assertArrayEquals(new int[]{2}, batches.get(1));
+        assertArrayEquals(new int[]{0}, batches.get(2));
+    }
+
+    @Test
+    void emptyInput() {
+        assertTrue(LengthBuckets.split(List.of(), 4).isEmpty());
+    }
+
+    @Test
+    void invalidBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> LengthBuckets.split(List.of("a"), 0));
+    }
+
+    private static List<String> textsOf(List<String> texts, int[] batch) {
+        return Arrays.stream(batch).mapToObj(texts::get).collect(Collectors.toList());
+    }
+}
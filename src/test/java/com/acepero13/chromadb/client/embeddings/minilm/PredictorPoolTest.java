@@ -0,0 +1,99 @@
+package com.acepero13.chromadb.client.embeddings.minilm;
+
+import ai.djl.inference.Predictor;
+import ai.djl.translate.TranslateException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PredictorPoolTest {
+
+    @SuppressWarnings("unchecked")
+    private static Predictor<String, float[]> mockPredictor() throws TranslateException {
+        Predictor<String, float[]> predictor = Mockito.mock(Predictor.class);
+        when(predictor.predict(Mockito.anyString())).thenReturn(new float[]{1.0f});
+        return predictor;
+    }
+
+    @Test
+    void reusesPredictorForSequentialCalls() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Predictor<String, float[]> predictor = mockPredictor();
+        PredictorPool<String, float[]> pool = new PredictorPool<>(4, () -> {
+            created.incrementAndGet();
+            return predictor;
+        });
+
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(new float[]{1.0f}, pool.apply(p -> p.predict("text")));
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(1, pool.created());
+    }
+
+    @Test
+    void neverCreatesMorePredictorsThanItsSize() throws Exception {
+        PredictorPool<String, float[]> pool = new PredictorPool<>(2, () -> {
+            try {
+                return mockPredictor();
+            } catch (TranslateException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        CountDownLatch inUse = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 32; i++) {
+            executor.submit(() -> pool.apply(p -> {
+                inUse.countDown();
+                return p.predict("text");
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, inUse.getCount());
+        assertTrue(pool.created() <= 2);
+    }
+
+    @Test
+    void closesAllCreatedPredictors() throws Exception {
+        Predictor<String, float[]> predictor = mockPredictor();
+        PredictorPool<String, float[]> pool = new PredictorPool<>(1, () -> predictor);
+        pool.apply(p -> p.predict("text"));
+
+        pool.close();
+
+        verify(predictor).close();
+        assertEquals(0, pool.created());
+    }
+
+    @Test
+    void releasesPermitWhenPredictorCannotBeCreated() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Predictor<String, float[]> predictor = mockPredictor();
+        PredictorPool<String, float[]> pool = new PredictorPool<>(1, () -> {
+            if (attempts.getAndIncrement() == 0) {
+                throw new IllegalStateException("Cannot create predictor");
+            }
+            return predictor;
+        });
+
+        assertThrows(IllegalStateException.class, () -> pool.apply(p -> p.predict("text")));
+        assertArrayEquals(new float[]{1.0f}, pool.apply(p -> p.predict("text")));
+    }
+
+    @Test
+    void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PredictorPool<String, float[]>(0, () -> null));
+    }
+}
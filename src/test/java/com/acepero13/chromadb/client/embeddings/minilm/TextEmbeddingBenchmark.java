@@ -0,0 +1,89 @@
+package com.acepero13.chromadb.client.embeddings.minilm;
+
+import com.acepero13.chromadb.client.embeddings.EmbeddingExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the throughput and memory of the PyTorch and ONNX Runtime backends.
+ * <p>
+ * The ONNX variants load the model from the directory given by the {@code embedding.onnx.dir} system property,
+ * which must contain {@code model.onnx}, {@code model_quantized.onnx} and {@code tokenizer.json}. Run with
+ * {@code -prof gc} to get allocation rates; the resident set size after the model is loaded is printed once per
+ * trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TextEmbeddingBenchmark {
+    private static final String ONNX_DIR = "embedding.onnx.dir";
+
+    @Param({"PYTORCH", "ONNX_RUNTIME", "ONNX_RUNTIME_INT8"})
+    public String variant;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    @Param({"256"})
+    public int documents;
+
+    private EmbeddingExecutor executor;
+    private TextEmbedding embedding;
+    private List<String> texts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        executor = EmbeddingExecutor.create(workers);
+        TextEmbedding.Builder builder = TextEmbedding.builder()
+                .withModel(Model.BGE_SMALL_EN_v1_5)
+                .withExecutor(executor);
+        if (!"PYTORCH".equals(variant)) {
+            builder.withBackend(Backend.ONNX_RUNTIME).withLocalModel(Paths.get(System.getProperty(ONNX_DIR, "models/bge-small-en-v1.5")));
+            if (variant.endsWith("INT8")) {
+                builder.withQuantizedModel();
+            }
+        }
+        embedding = builder.build();
+        texts = IntStream.range(0, documents)
+                .mapToObj(i -> "Document number " + i + " talks about " + "vector databases ".repeat(1 + i % 16))
+                .collect(Collectors.toList());
+
+        embedding.createEmbeddings(texts.subList(0, 1));
+        System.out.println(variant + " resident memory after load: " + residentMemory());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        embedding.close();
+        executor.close();
+    }
+
+    @Benchmark
+    public void embed(Blackhole blackhole) {
+        blackhole.consume(embedding.createEmbeddings(texts));
+    }
+
+    private static String residentMemory() throws IOException {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.exists(status)) {
+            return "n/a";
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.substring("VmRSS:".length()).trim())
+                .findFirst()
+                .orElse("n/a");
+    }
+}
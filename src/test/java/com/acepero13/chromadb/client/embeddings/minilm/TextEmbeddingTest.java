@@ -3,6 +3,7 @@ package com.acepero13.chromadb.client.embeddings.minilm;
 import com.acepero13.chromadb.client.model.Embedding;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Paths;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,4 +24,58 @@ class TextEmbeddingTest {
 
         assertTrue(error.getMessage().contains("Invalid djl URL:"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void quantizedModelRequiresOnnxRuntime() {
+        TextEmbedding.Builder builder = TextEmbedding.builder()
+                .withLocalModel(Paths.get("models/bge-small-en-v1.5"))
+                .withQuantizedModel();
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void modelIdTellsModelsApart() {
+        TextEmbedding pytorch = TextEmbedding.builder().withModelPath("sentence-transformers/all-MiniLM-L6-v2").build();
+        TextEmbedding onnx = TextEmbedding.builder()
+                .withModelPath("sentence-transformers/all-MiniLM-L6-v2")
+                .withBackend(Backend.ONNX_RUNTIME)
+                .build();
+        TextEmbedding quantized = TextEmbedding.builder()
+                .withBackend(Backend.ONNX_RUNTIME)
+                .withLocalModel(Paths.get("models/all-MiniLM-L6-v2"))
+                .withQuantizedModel()
+                .build();
+
+        assertEquals("sentence-transformers/all-MiniLM-L6-v2@PyTorch", pytorch.modelId());
+        assertEquals("sentence-transformers/all-MiniLM-L6-v2@OnnxRuntime", onnx.modelId());
+        assertTrue(quantized.modelId().endsWith("all-MiniLM-L6-v2@OnnxRuntime/model_quantized"));
+    }
+
+    @Test
+    void poolSizeMustBePositive() {
+        TextEmbedding.Builder builder = TextEmbedding.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.withPoolSize(0));
+    }
+
+    @Test
+    void quantizedModelRequiresLocalModel() {
+        TextEmbedding.Builder builder = TextEmbedding.builder()
+                .withBackend(Backend.ONNX_RUNTIME)
+                .withQuantizedModel();
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void localModelDoesNotExist() {
+        TextEmbedding embedding = TextEmbedding.builder()
+                .withBackend(Backend.ONNX_RUNTIME)
+                .withLocalModel(Paths.get("does-not-exist"))
+                .withQuantizedModel()
+                .build();
+
+        assertThrows(IllegalStateException.class, () -> embedding.createEmbeddings("Hello world"));
+    }
+}
@@ -2,6 +2,8 @@ package com.acepero13.chromadb.client.embeddings.openai;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CreateEmbeddingRequestTest {
@@ -11,7 +13,7 @@ class CreateEmbeddingRequestTest {
         CreateEmbeddingRequest.Builder builder = CreateEmbeddingRequest.builder(input);
         CreateEmbeddingRequest request = builder.build();
 
-        assertEquals(input, request.getInput());
+        assertEquals(List.of(input), request.getInput());
         assertEquals("text-embedding-ada-002", request.getModel());
         assertEquals("java-client=0.0.1", request.getUser());
     }
@@ -28,7 +30,7 @@ class CreateEmbeddingRequestTest {
 
         CreateEmbeddingRequest request = builder.build();
 
-        assertEquals(input, request.getInput());
+        assertEquals(List.of(input), request.getInput());
         assertEquals(customModel, request.getModel());
         assertEquals(customUser, request.getUser());
     }
@@ -46,9 +48,20 @@ class CreateEmbeddingRequestTest {
         CreateEmbeddingRequest request = builder.build();
         String json = request.json();
 
-        String expectedJson = "{\"input\":\"test input\",\"model\":\"custom-model\",\"user\":\"custom-user\"}";
+        String expectedJson = "{\"input\":[\"test input\"],\"model\":\"custom-model\",\"user\":\"custom-user\"}";
 
         assertEquals(expectedJson, json);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testJsonSerializationWithManyInputs() {
+        CreateEmbeddingRequest request = CreateEmbeddingRequest.builder(List.of("first", "second"))
+                .withModel("custom-model")
+                .withUser("custom-user")
+                .build();
+
+        String expectedJson = "{\"input\":[\"first\",\"second\"],\"model\":\"custom-model\",\"user\":\"custom-user\"}";
+
+        assertEquals(expectedJson, request.json());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 import static com.acepero13.chromadb.client.embeddings.openai.OpenAiClient.JSON;
@@ -40,6 +41,11 @@ class OpenAiEmbeddingsFunctionTest {
                 "      ],\n" +
                 "      \"index\": 0,\n" +
                 "      \"object\": \"embedding\"\n" +
+                "    },\n" +
+                "    {\n" +
+                "      \"embedding\": [1.0, 2.0, 3.0, 4.0],\n" +
+                "      \"index\": 1,\n" +
+                "      \"object\": \"embedding\"\n" +
                 "    }\n" +
                 "  ],\n" +
                 "  \"model\": \"text-embedding-ada-002\",\n" +
@@ -50,7 +56,7 @@ class OpenAiEmbeddingsFunctionTest {
                 "  }\n" +
                 "}";
         Call call = Mockito.mock(Call.class);
-        Mockito.when(call.execute()).thenReturn(new Response.Builder()
+        respondWith(call, new Response.Builder()
                 .code(200)
                 .message("Ok")
                 .request(expected)
@@ -62,6 +68,8 @@ class OpenAiEmbeddingsFunctionTest {
 
         List<Float> expectedEmbedding = List.of(-0.0069292835f, -0.005336422f, -4.5471323E-5f, -0.024047505f);
         assertEquals(expectedEmbedding, embeddings.get(0).raw());
+        assertEquals(List.of(1.0f, 2.0f, 3.0f, 4.0f), embeddings.get(1).raw());
+        Mockito.verify(mockClient, Mockito.times(1)).newCall(any());
 
 
     }
@@ -107,6 +115,11 @@ class OpenAiEmbeddingsFunctionTest {
                 "      ],\n" +
                 "      \"index\": 0,\n" +
                 "      \"object\": \"embedding\"\n" +
+                "    },\n" +
+                "    {\n" +
+                "      \"embedding\": [1.0, 2.0, 3.0, 4.0],\n" +
+                "      \"index\": 1,\n" +
+                "      \"object\": \"embedding\"\n" +
                 "    }\n" +
                 "  ],\n" +
                 "  \"model\": \"text-embedding-ada-002\",\n" +
@@ -117,7 +130,7 @@ class OpenAiEmbeddingsFunctionTest {
                 "  }\n" +
                 "}";
         Call call = Mockito.mock(Call.class);
-        Mockito.when(call.execute()).thenReturn(new Response.Builder()
+        respondWith(call, new Response.Builder()
                 .code(200)
                 .message("Ok")
                 .request(expected)
@@ -129,8 +142,106 @@ class OpenAiEmbeddingsFunctionTest {
 
         List<Float> expectedEmbedding = List.of(-0.0069292835f, -0.005336422f, -4.5471323E-5f, -0.024047505f);
         assertEquals(expectedEmbedding, embeddings.get(0).raw());
+        assertEquals(List.of(1.0f, 2.0f, 3.0f, 4.0f), embeddings.get(1).raw());
+        Mockito.verify(mockClient, Mockito.times(1)).newCall(any());
+
+
+    }
+
+    @Test
+    void packsDocumentsIntoRequestsAndKeepsTheirOrder() {
+        OpenAiEmbeddingsFunction function = OpenAiEmbeddingsFunction.builder(API_KEY)
+                .withBaseUrl(BASE_URL)
+                .withHttpClient(mockClient)
+                .withMaxInputsPerRequest(2)
+                .build();
+        Call first = callReturning("{\"data\":[" +
+                "{\"embedding\":[2.0],\"index\":1,\"object\":\"embedding\"}," +
+                "{\"embedding\":[1.0],\"index\":0,\"object\":\"embedding\"}]}");
+        Call second = callReturning("{\"data\":[{\"embedding\":[3.0],\"index\":0,\"object\":\"embedding\"}]}");
+        Mockito.when(mockClient.newCall(any())).thenReturn(first, second);
 
+        List<Embedding> embeddings = function.createEmbeddings(List.of("a", "b", "c"));
 
+        assertEquals(List.of(Embedding.of(1.0f), Embedding.of(2.0f), Embedding.of(3.0f)), embeddings);
+        Mockito.verify(mockClient, Mockito.times(2)).newCall(any());
     }
 
-}
\ No newline at end of file
+    @Test
+    void missingEmbeddingsAreReported() {
+        OpenAiEmbeddingsFunction function = OpenAiEmbeddingsFunction.create(API_KEY, BASE_URL, mockClient);
+        Call call = callReturning("{\"data\":[{\"embedding\":[1.0],\"index\":0,\"object\":\"embedding\"}]}");
+        Mockito.when(mockClient.newCall(any())).thenReturn(call);
+
+        assertThrows(IllegalStateException.class, () -> function.createEmbeddings(List.of("a", "b")));
+    }
+
+    @Test
+    void retriesRateLimitedRequests() {
+        OpenAiEmbeddingsFunction function = OpenAiEmbeddingsFunction.create(API_KEY, BASE_URL, mockClient);
+        Call limited = callReturning(429, "{}", "0");
+        Call accepted = callReturning("{\"data\":[{\"embedding\":[1.0],\"index\":0,\"object\":\"embedding\"}]}");
+        Mockito.when(mockClient.newCall(any())).thenReturn(limited, accepted);
+
+        List<Embedding> embeddings = function.createEmbeddings(List.of("a"));
+
+        assertEquals(List.of(Embedding.of(1.0f)), embeddings);
+        Mockito.verify(mockClient, Mockito.times(2)).newCall(any());
+    }
+
+    @Test
+    void failsOnceRetriesAreExhausted() {
+        OpenAiEmbeddingsFunction function = OpenAiEmbeddingsFunction.builder(API_KEY)
+                .withBaseUrl(BASE_URL)
+                .withHttpClient(mockClient)
+                .withMaxRetries(1)
+                .withRetryBackoff(Duration.ZERO, Duration.ZERO)
+                .build();
+        Call limited = callReturning(503, "{}", null);
+        Mockito.when(mockClient.newCall(any())).thenReturn(limited);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> function.createEmbeddings(List.of("a")));
+
+        assertTrue(error.getMessage().contains("Unexpected code"));
+        Mockito.verify(mockClient, Mockito.times(2)).newCall(any());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        OpenAiEmbeddingsFunction function = OpenAiEmbeddingsFunction.create(API_KEY, BASE_URL, mockClient);
+        Call rejected = callReturning(400, "{}", null);
+        Mockito.when(mockClient.newCall(any())).thenReturn(rejected);
+
+        assertThrows(RuntimeException.class, () -> function.createEmbeddings(List.of("a")));
+        Mockito.verify(mockClient, Mockito.times(1)).newCall(any());
+    }
+
+    private static Call callReturning(String body) {
+        return callReturning(200, body, null);
+    }
+
+    private static Call callReturning(int code, String body, String retryAfter) {
+        Call call = Mockito.mock(Call.class);
+        Mockito.doAnswer(invocation -> {
+            Response.Builder response = new Response.Builder()
+                    .code(code)
+                    .message("Status " + code)
+                    .request(new Request.Builder().url(BASE_URL + "embeddings").build())
+                    .protocol(okhttp3.Protocol.HTTP_1_1)
+                    .body(ResponseBody.create(body, okhttp3.MediaType.parse("application/json")));
+            if (retryAfter != null) {
+                response.header("Retry-After", retryAfter);
+            }
+            invocation.<Callback>getArgument(0).onResponse(call, response.build());
+            return null;
+        }).when(call).enqueue(any());
+        return call;
+    }
+
+    private static void respondWith(Call call, Response response) {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Callback>getArgument(0).onResponse(call, response);
+            return null;
+        }).when(call).enqueue(any());
+    }
+}
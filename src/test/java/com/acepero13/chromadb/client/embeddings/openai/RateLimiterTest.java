@@ -0,0 +1,52 @@
+package com.acepero13.chromadb.client.embeddings.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void admitsRequestsWithinTheQuota() {
+        RateLimiter limiter = new RateLimiter(2, 0, now::get);
+
+        assertEquals(0, limiter.reserve(100));
+        assertEquals(0, limiter.reserve(100));
+        assertEquals(TimeUnit.SECONDS.toNanos(30), limiter.reserve(100), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    void refillsOverTime() {
+        RateLimiter limiter = new RateLimiter(60, 0, now::get);
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve(1);
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, limiter.reserve(1));
+        assertTrue(limiter.reserve(1) > 0);
+    }
+
+    @Test
+    void limitsTokens() {
+        RateLimiter limiter = new RateLimiter(0, 1000, now::get);
+
+        assertEquals(0, limiter.reserve(600));
+        long wait = limiter.reserve(600);
+
+        assertEquals(TimeUnit.SECONDS.toNanos(12), wait, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    void unlimitedNeverWaits() {
+        RateLimiter limiter = RateLimiter.unlimited();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, limiter.reserve(1_000_000));
+        }
+    }
+}
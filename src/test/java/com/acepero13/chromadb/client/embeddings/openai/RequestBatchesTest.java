@@ -0,0 +1,49 @@
+package com.acepero13.chromadb.client.embeddings.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBatchesTest {
+
+    @Test
+    void splitsByNumberOfItems() {
+        List<int[]> batches = RequestBatches.split(List.of("a", "b", "c", "d", "e"), 2, 1000, String::length);
+
+        assertEquals(3, batches.size());
+        assertArrayEquals(new int[]{0, 2}, batches.get(0));
+        assertArrayEquals(new int[]{2, 4}, batches.get(1));
+        assertArrayEquals(new int[]{4, 5}, batches.get(2));
+    }
+
+    @Test
+    void splitsByNumberOfTokens() {
+        List<int[]> batches = RequestBatches.split(List.of("aaa", "bbb", "cc", "d"), 100, 6, String::length);
+
+        assertEquals(2, batches.size());
+        assertArrayEquals(new int[]{0, 2}, batches.get(0));
+        assertArrayEquals(new int[]{2, 4}, batches.get(1));
+    }
+
+    @Test
+    void oversizedDocumentGoesAlone() {
+        List<int[]> batches = RequestBatches.split(List.of("a", "bbbbbbbbbb", "c"), 100, 5, String::length);
+
+        assertEquals(3, batches.size());
+        assertArrayEquals(new int[]{1, 2}, batches.get(1));
+    }
+
+    @Test
+    void emptyDocuments() {
+        assertTrue(RequestBatches.split(List.of(), 10, 10, String::length).isEmpty());
+    }
+
+    @Test
+    void estimatesOneTokenEveryFourCharacters() {
+        assertEquals(0, RequestBatches.estimateTokens(""));
+        assertEquals(1, RequestBatches.estimateTokens("abcd"));
+        assertEquals(2, RequestBatches.estimateTokens("abcde"));
+    }
+}
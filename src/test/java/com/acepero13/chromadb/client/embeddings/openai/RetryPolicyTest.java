@@ -0,0 +1,77 @@
+package com.acepero13.chromadb.client.embeddings.openai;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+    private final RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(100), Duration.ofSeconds(10));
+
+    private static Response response(String name, String value) {
+        Response.Builder builder = new Response.Builder()
+                .code(429)
+                .message("Too Many Requests")
+                .request(new Request.Builder().url("http://fake-open.ai/embeddings").build())
+                .protocol(Protocol.HTTP_1_1);
+        if (name != null) {
+            builder.header(name, value);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void honorsRetryAfterSeconds() {
+        assertEquals(2000, policy.delayMillis(0, response("Retry-After", "2")));
+    }
+
+    @Test
+    void honorsRetryAfterMilliseconds() {
+        assertEquals(250, policy.delayMillis(0, response("retry-after-ms", "250")));
+    }
+
+    @Test
+    void honorsRetryAfterDate() {
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(5));
+
+        long delay = policy.delayMillis(0, response("Retry-After", date));
+
+        assertTrue(delay > 3000 && delay <= 5000, "delay was " + delay);
+    }
+
+    @Test
+    void capsRetryAfter() {
+        assertEquals(10_000, policy.delayMillis(0, response("Retry-After", "3600")));
+    }
+
+    @Test
+    void backsOffExponentiallyWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.delayMillis(0, response(null, null)) <= 100);
+            assertTrue(policy.delayMillis(3, null) <= 800);
+            assertTrue(policy.delayMillis(30, null) <= 10_000);
+        }
+    }
+
+    @Test
+    void limitsAttempts() {
+        assertTrue(policy.canRetry(2));
+        assertFalse(policy.canRetry(3));
+        assertFalse(RetryPolicy.none().canRetry(0));
+    }
+
+    @Test
+    void retryableStatusCodes() {
+        assertTrue(RetryPolicy.isRetryable(429));
+        assertTrue(RetryPolicy.isRetryable(503));
+        assertFalse(RetryPolicy.isRetryable(400));
+        assertFalse(RetryPolicy.isRetryable(401));
+    }
+}
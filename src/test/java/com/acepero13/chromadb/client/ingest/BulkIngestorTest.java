@@ -0,0 +1,196 @@
+package com.acepero13.chromadb.client.ingest;
+
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.DefaultApi;
+import com.acepero13.chromadb.client.model.*;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class BulkIngestorTest {
+    private static final String COLLECTION_ID = "id";
+    private final DefaultApi mockApi = Mockito.mock(DefaultApi.class);
+    private final List<List<String>> embedded = new CopyOnWriteArrayList<>();
+    private final EmbeddingFunction embeddings = new EmbeddingFunction() {
+        @Override
+        public List<Embedding> createEmbeddings(List<String> documents) {
+            embedded.add(documents);
+            return documents.stream().map(doc -> Embedding.of(doc.length())).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Embedding> createEmbeddings(List<String> documents, String model) {
+            return createEmbeddings(documents);
+        }
+    };
+    private final Collection collection = new Collection(mockApi, COLLECTION_ID, new Metadata(), CollectionName.of("name"), embeddings);
+    private final List<AddEmbedding> sent = new CopyOnWriteArrayList<>();
+
+    private void acceptEverything() throws ApiException {
+        when(mockApi.addAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            invocation.<ApiCallback<Object>>getArgument(2).onSuccess(true, 201, Map.of());
+            return null;
+        });
+    }
+
+    private static Stream<IngestRecord> records(int count) {
+        return IntStream.range(0, count).mapToObj(i -> IngestRecord.of("id" + i, "document " + i));
+    }
+
+    @Test
+    void ingestsInBatches() throws ApiException {
+        acceptEverything();
+
+        List<IngestSummary.BatchResult> batches = new CopyOnWriteArrayList<>();
+        IngestSummary summary = BulkIngestor.builder(collection)
+                .withBatchSize(4)
+                .withListener(batches::add)
+                .build()
+                .ingest(records(10));
+
+        assertTrue(summary.isSuccess());
+        assertEquals(3, summary.batchCount());
+        assertEquals(10, summary.succeededRecords());
+        assertEquals(List.of(4, 4, 2), sent.stream().map(req -> req.getIds().size()).collect(Collectors.toList()));
+        assertEquals(8, batches.get(2).offset());
+        assertEquals(List.of("id8", "id9"), batches.get(2).ids());
+    }
+
+    @Test
+    void embedsOnlyRecordsWithoutEmbeddings() throws ApiException {
+        acceptEverything();
+
+        BulkIngestor.builder(collection).build().ingest(Stream.of(
+                IngestRecord.builder().withId("1").withDocument("a").withEmbedding(9.0f).build(),
+                IngestRecord.of("2", "bb")));
+
+        assertEquals(List.of(List.of("bb")), embedded);
+        assertEquals(List.of(List.of(9.0f), List.of(2.0f)), sent.get(0).getEmbeddings());
+    }
+
+    @Test
+    void generatesMissingIds() throws ApiException {
+        acceptEverything();
+
+        List<IngestSummary.BatchResult> batches = new CopyOnWriteArrayList<>();
+        BulkIngestor.builder(collection)
+                .withIdGenerator(vectors -> vectors.stream().map(v -> "generated-" + v.raw().get(0)).collect(Collectors.toList()))
+                .withListener(batches::add)
+                .build()
+                .ingest(Stream.of(IngestRecord.of("given", "a"), IngestRecord.builder().withDocument("bbb").build()));
+
+        assertEquals(List.of("given", "generated-3.0"), batches.get(0).ids());
+    }
+
+    @Test
+    void fillsMissingMetadata() throws ApiException {
+        acceptEverything();
+
+        BulkIngestor.builder(collection).build().ingest(Stream.of(
+                IngestRecord.of("1", "a", Metadata.of("type", "x")),
+                IngestRecord.of("2", "b")));
+
+        assertEquals(List.of(Map.of("type", "x"), Map.of()), sent.get(0).getMetadatas());
+    }
+
+    @Test
+    void reportsFailedBatchesAndContinues() throws ApiException {
+        AtomicInteger calls = new AtomicInteger();
+        when(mockApi.addAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            ApiCallback<Object> callback = invocation.getArgument(2);
+            if (calls.incrementAndGet() == 2) {
+                callback.onFailure(new ApiException("Payload too large"), 413, Map.of());
+            } else {
+                callback.onSuccess(true, 201, Map.of());
+            }
+            return null;
+        });
+
+        IngestSummary summary = BulkIngestor.builder(collection)
+                .withBatchSize(2)
+                .withMaxInFlight(1)
+                .build()
+                .ingest(records(6));
+
+        assertFalse(summary.isSuccess());
+        assertEquals(4, summary.succeededRecords());
+        assertEquals(2, summary.failedRecords());
+        assertEquals(3, summary.batchCount());
+        assertEquals(1, summary.failures().size());
+        assertEquals(1, summary.failures().get(0).index());
+        assertEquals(List.of("id2", "id3"), summary.failures().get(0).ids());
+        assertEquals("Payload too large", summary.failures().get(0).error());
+    }
+
+    @Test
+    void upsertsWhenRequested() throws ApiException {
+        when(mockApi.upsertAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            invocation.<ApiCallback<Object>>getArgument(2).onSuccess(null, 200, Map.of());
+            return null;
+        });
+
+        IngestSummary summary = BulkIngestor.builder(collection).withUpsert().build().ingest(records(3));
+
+        assertTrue(summary.isSuccess());
+        Mockito.verify(mockApi, Mockito.never()).addAsync(any(), any(), any());
+    }
+
+    @Test
+    void readsNoFurtherThanTheBatchesInFlight() throws ApiException {
+        List<ApiCallback<Object>> pending = new CopyOnWriteArrayList<>();
+        when(mockApi.addAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            pending.add(invocation.getArgument(2));
+            return null;
+        });
+        AtomicInteger read = new AtomicInteger();
+        List<IngestRecord> input = records(100).collect(Collectors.toList());
+        Thread ingestion = new Thread(() -> BulkIngestor.builder(collection)
+                .withBatchSize(10)
+                .withMaxInFlight(2)
+                .build()
+                .ingest(input.stream().peek(record -> read.incrementAndGet())));
+        ingestion.start();
+
+        List<ApiCallback<Object>> completed = new ArrayList<>();
+        try {
+            while (completed.size() < 10) {
+                waitUntil(() -> pending.size() > completed.size());
+                // Two batches in flight, plus the record the stream iterator reads ahead in hasNext()
+                assertTrue(read.get() <= (completed.size() + 2) * 10 + 1, "read " + read.get() + " records");
+                ApiCallback<Object> next = pending.get(completed.size());
+                completed.add(next);
+                next.onSuccess(true, 201, Map.of());
+            }
+            ingestion.join(5_000);
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+        assertFalse(ingestion.isAlive());
+        assertEquals(100, read.get());
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.exceptions.PartialWriteException;
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiClient;
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.DefaultApi;
+import com.acepero13.chromadb.client.model.query.criteria.AddCriteria;
+import com.acepero13.chromadb.client.model.query.criteria.QueryCriteria;
+import com.acepero13.chromadb.client.result.GetResult;
+import com.acepero13.chromadb.client.result.QueryResponse;
+import com.acepero13.chromadb.client.result.QueryResult;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AsyncCollectionTest {
+    private static final String COLLECTION_ID = "id";
+    private final DefaultApi mockApi = Mockito.mock(DefaultApi.class);
+    private final EmbeddingFunction mockEmbeddings = Mockito.mock(EmbeddingFunction.class);
+    private final AsyncCollection collection = new Collection(mockApi, COLLECTION_ID, new Metadata(), CollectionName.of("name"), mockEmbeddings)
+            .async(Runnable::run);
+
+    private final ApiClient mockClient = Mockito.mock(ApiClient.class);
+
+    @BeforeEach
+    void setUp() {
+        when(mockApi.getApiClient()).thenReturn(mockClient);
+    }
+
+    private <T> void respondWith(Class<T> type, String json) {
+        doAnswer(succeed(2, new Gson().fromJson(json, type))).when(mockClient).executeAsync(any(), eq(type), any());
+    }
+
+    private static <T> Answer<okhttp3.Call> succeed(int callbackIndex, T result) {
+        return invocation -> {
+            ApiCallback<T> callback = invocation.getArgument(callbackIndex);
+            callback.onSuccess(result, 200, Map.of());
+            return null;
+        };
+    }
+
+    @Test
+    void addsEmbeddings() throws ApiException {
+        when(mockApi.addAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(succeed(2, true));
+
+        QueryResponse<Boolean> response = collection.add(List.of("1"), AddCriteria.builder()
+                .withDocuments(Documents.single("text"))
+                .withEmbeddings(1.0f, 2.0f)
+                .build()).join();
+
+        assertTrue(response.isSuccess());
+        assertEquals(true, response.payload().orElseThrow());
+    }
+
+    @Test
+    void addsWithGeneratedIds() throws ApiException {
+        when(mockApi.addAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(succeed(2, true));
+
+        QueryResponse<List<String>> response = collection.add(AddCriteria.builder()
+                .withDocuments(Documents.single("text"))
+                .withEmbeddings(1.0f, 2.0f)
+                .withIdGenerator(embeddings -> List.of("generated"))
+                .build()).join();
+
+        assertEquals(List.of("generated"), response.payload().orElseThrow());
+    }
+
+    @Test
+    void splitsLargeWritesIntoChunks() throws ApiException {
+        AsyncCollection limited = collection.blocking()
+                .withRequestLimits(RequestLimits.builder().withMaxRecords(2).build())
+                .async(Runnable::run);
+        when(mockApi.upsertAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(succeed(2, null));
+
+        QueryResponse<Boolean> response = limited.upsert(List.of("1", "2", "3"), AddCriteria.builder()
+                .withDocuments(Documents.of("a", "b", "c"))
+                .withEmbeddings(List.of(Embedding.of(1.0f), Embedding.of(2.0f), Embedding.of(3.0f)))
+                .build()).join();
+
+        assertTrue(response.isSuccess());
+        verify(mockApi).upsertAsync(argThat(req -> req.getIds().equals(List.of("1", "2"))), eq(COLLECTION_ID), any());
+        verify(mockApi).upsertAsync(argThat(req -> req.getIds().equals(List.of("3"))), eq(COLLECTION_ID), any());
+    }
+
+    @Test
+    void reportsFailedChunks() throws ApiException {
+        AsyncCollection limited = collection.blocking()
+                .withRequestLimits(RequestLimits.builder().withMaxRecords(1).build())
+                .async(Runnable::run);
+        when(mockApi.deleteAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            DeleteEmbedding request = invocation.getArgument(0);
+            ApiCallback<Object> callback = invocation.getArgument(2);
+            if (request.getIds().contains("1")) {
+                callback.onFailure(new ApiException("Timeout"), 0, null);
+            } else {
+                callback.onSuccess(request.getIds(), 200, Map.of());
+            }
+            return null;
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, () -> limited.delete(List.of("1", "2", "3")).join());
+
+        PartialWriteException partial = assertInstanceOf(PartialWriteException.class, error.getCause());
+        assertEquals(List.of(0), partial.getFailedChunks());
+        assertEquals(List.of("2", "3"), partial.getWrittenIds());
+        verify(mockApi, times(3)).deleteAsync(any(), eq(COLLECTION_ID), any());
+    }
+
+    @Test
+    void queriesWithEmbeddingsFromTheFunction() throws ApiException {
+        when(mockEmbeddings.createEmbeddingsAsObject(List.of("text"))).thenReturn(List.of(List.of(1.0f, 2.0f)));
+        respondWith(QueryResult.class, "{\"ids\":[[\"1\"]],\"distances\":[[0.5]]}");
+
+        QueryResponse<QueryResult> response = collection.query(List.of("text"), QueryCriteria.builder().build()).join();
+
+        assertTrue(response.isSuccess());
+        assertEquals(List.of("1"), response.payload().orElseThrow().getIds().get(0));
+        QueryEmbedding expected = new QueryEmbedding();
+        expected.queryEmbeddings(List.of(List.of(1.0f, 2.0f)));
+        verify(mockApi).getNearestNeighborsCall(argThat(req -> req.getQueryEmbeddings().equals(expected.getQueryEmbeddings())), eq(COLLECTION_ID), isNull(), isNull());
+    }
+
+    @Test
+    void getsAllEmbeddings() throws ApiException {
+        respondWith(GetResult.class, "{\"ids\":[\"1\",\"2\"]}");
+
+        QueryResponse<GetResult> response = collection.getAll().join();
+
+        assertEquals(List.of("1", "2"), response.payload().orElseThrow().getIds());
+    }
+
+    @Test
+    void getsAllEmbeddingsMatchingThePredicate() throws ApiException {
+        respondWith(GetResult.class, "{\"ids\":[\"1\",\"2\"]}");
+
+        QueryResponse<GetResult> response = collection.getAll(result -> result.getIds().contains("2")).join();
+
+        assertEquals(List.of("1", "2"), response.payload().orElseThrow().getIds());
+    }
+
+    @Test
+    void getAllFailsWhenThePredicateDoesNotMatch() throws ApiException {
+        respondWith(GetResult.class, "{\"ids\":[\"1\",\"2\"]}");
+
+        QueryResponse<GetResult> response = collection.getAll(result -> result.getIds().isEmpty()).join();
+
+        assertFalse(response.isSuccess());
+    }
+
+    @Test
+    void queriesDocumentsWithTheDefaultCriteria() throws ApiException {
+        when(mockEmbeddings.createEmbeddingsAsObject(List.of("text"))).thenReturn(List.of(List.of(1.0f, 2.0f)));
+        respondWith(QueryResult.class, "{\"ids\":[[\"1\"]],\"distances\":[[0.5]]}");
+
+        QueryResponse<QueryResult> response = collection.query(Documents.of("text")).join();
+
+        assertEquals(List.of("1"), response.payload().orElseThrow().getIds().get(0));
+    }
+
+    @Test
+    void countsDocuments() throws ApiException {
+        when(mockApi.countAsync(eq(COLLECTION_ID), any())).thenAnswer(succeed(1, 10));
+
+        assertEquals(10, collection.count().join().payload().orElseThrow());
+    }
+
+    @Test
+    void deletesEverything() throws ApiException {
+        when(mockApi.countAsync(eq(COLLECTION_ID), any())).thenAnswer(succeed(1, 2));
+        respondWith(GetResult.class, "{\"ids\":[\"1\",\"2\"]}");
+        when(mockApi.deleteAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(succeed(2, List.of("1", "2")));
+
+        QueryResponse<List<String>> response = collection.delete().join();
+
+        assertEquals(List.of("1", "2"), response.payload().orElseThrow());
+        verify(mockApi).deleteAsync(argThat(req -> req.getIds().equals(List.of("1", "2"))), eq(COLLECTION_ID), any());
+    }
+
+    @Test
+    void deletesLargeCollectionsPageByPage() throws ApiException {
+        AsyncCollection limited = collection.blocking()
+                .withRequestLimits(RequestLimits.builder().withMaxRecords(2).build())
+                .async(Runnable::run);
+        when(mockApi.countAsync(eq(COLLECTION_ID), any())).thenAnswer(succeed(1, 5));
+        when(mockApi.getCall(any(), eq(COLLECTION_ID), isNull(), isNull())).thenAnswer(invocation -> {
+            GetEmbedding request = invocation.getArgument(0);
+            okhttp3.Call call = mock(okhttp3.Call.class);
+            GetResult page = new Gson().fromJson(request.getOffset() == 4 ? "{\"ids\":[\"5\"]}"
+                    : request.getOffset() == 2 ? "{\"ids\":[\"3\",\"4\"]}" : "{\"ids\":[\"1\",\"2\"]}", GetResult.class);
+            doAnswer(succeed(2, page)).when(mockClient).executeAsync(eq(call), eq(GetResult.class), any());
+            return call;
+        });
+        when(mockApi.deleteAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation ->
+                succeed(2, invocation.<DeleteEmbedding>getArgument(0).getIds()).answer(invocation));
+
+        QueryResponse<List<String>> response = limited.delete().join();
+
+        assertEquals(List.of("5", "3", "4", "1", "2"), response.payload().orElseThrow());
+        verify(mockApi, times(3)).deleteAsync(any(), eq(COLLECTION_ID), any());
+        verify(mockApi, times(3)).getCall(argThat(req -> req.getInclude().isEmpty() && req.getLimit() == 2), eq(COLLECTION_ID), isNull(), isNull());
+    }
+
+    @Test
+    void failuresCompleteTheFutureExceptionally() throws ApiException {
+        when(mockApi.countAsync(eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            ApiCallback<Integer> callback = invocation.getArgument(1);
+            callback.onFailure(new ApiException("Connection refused"), 0, null);
+            return null;
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, () -> collection.count().join());
+
+        assertInstanceOf(ApiException.class, error.getCause());
+    }
+
+    @Test
+    void invalidRequestsFailWithoutCallingTheApi() {
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> collection.add(List.of(), AddCriteria.builder().build()).join());
+
+        assertEquals("Ids cannot be empty", error.getCause().getMessage());
+        verifyNoInteractions(mockApi);
+    }
+}
@@ -1,13 +1,20 @@
 package com.acepero13.chromadb.client.model;
 
+import com.acepero13.chromadb.client.exceptions.PartialWriteException;
 import com.acepero13.chromadb.client.model.query.criteria.*;
 import com.acepero13.chromadb.client.model.query.matchers.Matchers;
 import com.acepero13.chromadb.client.result.GetResult;
 import com.acepero13.chromadb.client.result.QueryResponse;
+import com.acepero13.chromadb.client.result.QueryResult;
+import com.acepero13.chromadb.client.utils.CloseableIterator;
 import com.acepero13.chromadb.client.utils.IdGenerator;
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.handler.ApiClient;
 import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.ApiResponse;
 import com.acepero13.chromadb.client.handler.DefaultApi;
 import com.acepero13.chromadb.client.model.*;
+import com.google.gson.Gson;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.acepero13.chromadb.client.model.query.matchers.Matchers.isEqualTo;
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,10 +39,17 @@ class CollectionTest {
     public static final float[] FLOATS = {1.0f, 2.0f, 3.0f};
     private final DefaultApi mockApi = Mockito.mock(DefaultApi.class);
     private final EmbeddingFunction mockEmbeddings = Mockito.mock(EmbeddingFunction.class, RETURNS_DEEP_STUBS);
+    private final ApiClient mockClient = Mockito.mock(ApiClient.class);
+    private final okhttp3.Call getCall = Mockito.mock(okhttp3.Call.class);
+    private final okhttp3.Call queryCall = Mockito.mock(okhttp3.Call.class);
     private final Collection collection = new Collection(mockApi, COLLECTION_ID, new Metadata(), CollectionName.of("name"), mockEmbeddings);
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws ApiException {
+        when(mockApi.getApiClient()).thenReturn(mockClient);
+        when(mockApi.getCall(any(), any(), any(), any())).thenReturn(getCall);
+        when(mockApi.getNearestNeighborsCall(any(), any(), any(), any())).thenReturn(queryCall);
+        when(mockClient.execute(any(), any())).thenReturn(new ApiResponse<>(200, Map.of()));
         when(mockEmbeddings.createEmbeddings((Documents) any())).thenReturn(List.of(new Embedding(FLOATS)));
         when(mockEmbeddings.createEmbeddingsAsObject((Documents) any())).thenReturn(List.of(1.0f, 2.0f, 3.0f));
     }
@@ -91,7 +106,7 @@ class CollectionTest {
 
         AddEmbedding expectedRequest = new AddEmbedding();
         expectedRequest.incrementIndex(true);
-        expectedRequest.setIds(List.of("d4ab5ad55f1dc0ffe69d38b31485c73e876a35d927e8659d70", "6623e8e79ab4f7bd2ac6679a25749cd7d532b162c765de0e29"));
+        expectedRequest.setIds(List.of("8e628779e6a74ee0b36991c10158f63cafec7d340ad4e07559", "49701c83fa4be84982567c35baa67948a48672d536900f6d59"));
         expectedRequest.setMetadatas(List.of(map));
         expectedRequest.setDocuments(List.of("Hello", "World"));
         expectedRequest.setEmbeddings(List.of(List.of(1.0f, 2.0f, 3.0f), List.of(3.0f, 5.0f, 3.0f)));
@@ -206,7 +221,7 @@ class CollectionTest {
     @DisplayName("Delete all elements from collection")
     void deleteAll() throws ApiException {
         String jsonResponse = "{'ids' : ['id1', 'id2']}";
-        when(mockApi.get(eq(new GetEmbedding()), eq(COLLECTION_ID))).thenReturn(jsonResponse);
+        respondToGet(jsonResponse);
         collection.delete();
         DeleteEmbedding expected = new DeleteEmbedding();
         expected.ids(List.of("id1", "id2"));
@@ -226,7 +241,7 @@ class CollectionTest {
     @DisplayName("Cannot delete if collection is empty")
     void noIdsCollection() throws ApiException {
         String jsonResponse = "{'ids' : []}";
-        when(mockApi.get(eq(new GetEmbedding()), eq(COLLECTION_ID))).thenReturn(jsonResponse);
+        respondToGet(jsonResponse);
         ApiException thrown = assertThrows(ApiException.class, collection::delete);
         assertTrue(thrown.getMessage().contains("Collection is empty. Nothing to delete"));
     }
@@ -273,7 +288,7 @@ class CollectionTest {
                 .where(Map.of("key", Map.of("$eq", "value")))
                 .include(List.of(QueryEmbedding.IncludeEnum.DISTANCES, QueryEmbedding.IncludeEnum.METADATAS));
 
-        verify(mockApi).getNearestNeighbors(eq(expected), eq(COLLECTION_ID));
+        verify(mockApi).getNearestNeighborsCall(eq(expected), eq(COLLECTION_ID), isNull(), isNull());
     }
 
     @Test
@@ -297,7 +312,7 @@ class CollectionTest {
                 .whereDocument(new HashMap<>())
                 .include(List.of(QueryEmbedding.IncludeEnum.DOCUMENTS, QueryEmbedding.IncludeEnum.METADATAS, QueryEmbedding.IncludeEnum.DISTANCES));
 
-        verify(mockApi).getNearestNeighbors(eq(expected), eq(COLLECTION_ID));
+        verify(mockApi).getNearestNeighborsCall(eq(expected), eq(COLLECTION_ID), isNull(), isNull());
     }
 
     @Test
@@ -319,7 +334,7 @@ class CollectionTest {
                 .queryEmbeddings(List.of(List.of(6.0f, 7.0f, 8.0f)))
                 .include(List.of(QueryEmbedding.IncludeEnum.DISTANCES, QueryEmbedding.IncludeEnum.METADATAS));
 
-        verify(mockApi).getNearestNeighbors(eq(expected), eq(COLLECTION_ID));
+        verify(mockApi).getNearestNeighborsCall(eq(expected), eq(COLLECTION_ID), isNull(), isNull());
     }
 
     @Test
@@ -344,7 +359,7 @@ class CollectionTest {
         ;
 
 
-        verify(mockApi).get(expected, COLLECTION_ID);
+        verify(mockApi).getCall(eq(expected), eq(COLLECTION_ID), isNull(), isNull());
     }
 
     @Test
@@ -425,7 +440,7 @@ class CollectionTest {
     @Test
     void getAllWithFilter() throws ApiException {
         String json = "{\"documents\":[\"doc1\",\"doc2\"],\"embeddings\":[],\"ids\":[\"id1\", \"id2\"],\"metadatas\":[]}";
-        when(mockApi.get(any(), any())).thenReturn(json);
+        respondToGet(json);
 
         Predicate<GetResult> filter = result -> result.getIds().contains("id1");
         QueryResponse<GetResult> actual = collection.getAll(filter);
@@ -434,7 +449,7 @@ class CollectionTest {
         GetEmbedding expected = new GetEmbedding()
                 .ids(null)
                 .whereDocument(null);
-        verify(mockApi).get(expected, COLLECTION_ID);
+        verify(mockApi).getCall(eq(expected), eq(COLLECTION_ID), isNull(), isNull());
 
         assertEquals(2, actual.payload().orElseThrow().getDocuments().total());
     }
@@ -443,7 +458,7 @@ class CollectionTest {
     @Test
     void getAllWithFiltersOut() throws ApiException {
         String json = "{\"documents\":[\"doc1\",\"doc2\"],\"embeddings\":[],\"ids\":[\"id1\", \"id2\"],\"metadatas\":[]}";
-        when(mockApi.get(any(), any())).thenReturn(json);
+        respondToGet(json);
 
         Predicate<GetResult> filter = result -> result.getIds().contains("non-existing");
         QueryResponse<GetResult> actual = collection.getAll(filter);
@@ -452,7 +467,7 @@ class CollectionTest {
         GetEmbedding expected = new GetEmbedding()
                 .ids(null)
                 .whereDocument(null);
-        verify(mockApi).get(expected, COLLECTION_ID);
+        verify(mockApi).getCall(eq(expected), eq(COLLECTION_ID), isNull(), isNull());
 
         assertTrue(actual.payload().isEmpty());
     }
@@ -476,6 +491,77 @@ class CollectionTest {
         assertEquals(embeddingFunction, params.embeddingsFunction());
     }
 
+    private void respondToGet(String json) throws ApiException {
+        when(mockClient.execute(getCall, GetResult.class))
+                .thenReturn(new ApiResponse<>(200, Map.of(), new Gson().fromJson(json, GetResult.class)));
+    }
+
+    private static <T> org.mockito.stubbing.Answer<okhttp3.Call> respondWith(java.util.function.Function<Object, T> result) {
+        return invocation -> {
+            com.acepero13.chromadb.client.handler.ApiCallback<T> callback = invocation.getArgument(2);
+            callback.onSuccess(result.apply(invocation.getArgument(0)), 200, Map.of());
+            return null;
+        };
+    }
+
+    @Test
+    void splitsLargeAddsIntoChunks() throws ApiException {
+        Collection limited = collection.withRequestLimits(RequestLimits.builder().withMaxRecords(2).build());
+        when(mockApi.addAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(respondWith(req -> true));
+
+        QueryResponse<Boolean> response = limited.add(List.of("1", "2", "3"), AddCriteria.builder()
+                .withDocuments(Documents.of("a", "b", "c"))
+                .withEmbeddings(List.of(new Embedding(FLOATS), new Embedding(FLOATS), new Embedding(FLOATS)))
+                .build());
+
+        assertTrue(response.isSuccess());
+        verify(mockApi).addAsync(argThat(req -> req.getIds().equals(List.of("1", "2"))), eq(COLLECTION_ID), any());
+        verify(mockApi).addAsync(argThat(req -> req.getIds().equals(List.of("3"))), eq(COLLECTION_ID), any());
+        verify(mockApi, never()).add(any(), any());
+    }
+
+    @Test
+    void mergesDeletedIdsOfEveryChunk() throws ApiException {
+        Collection limited = collection.withRequestLimits(RequestLimits.builder().withMaxRecords(1).withConcurrency(2).build());
+        when(mockApi.deleteAsync(any(), eq(COLLECTION_ID), any()))
+                .thenAnswer(respondWith(req -> ((DeleteEmbedding) req).getIds()));
+
+        QueryResponse<List<String>> response = limited.delete(List.of("1", "2", "3"));
+
+        assertEquals(List.of("1", "2", "3"), response.payload().orElseThrow());
+        verify(mockApi, times(3)).deleteAsync(any(), eq(COLLECTION_ID), any());
+    }
+
+    @Test
+    void reportsFailedChunks() throws ApiException {
+        Collection limited = collection.withRequestLimits(RequestLimits.builder().withMaxRecords(1).withConcurrency(1).build());
+        when(mockApi.updateAsync(any(), eq(COLLECTION_ID), any())).thenAnswer(invocation -> {
+            ApiCallback<Object> callback = invocation.getArgument(2);
+            if (invocation.<UpdateEmbedding>getArgument(0).getIds().contains("2")) {
+                callback.onFailure(new ApiException(422, "Unprocessable Entity", Map.of(), "Invalid"), 422, Map.of());
+            } else {
+                callback.onSuccess(null, 200, Map.of());
+            }
+            return null;
+        });
+
+        PartialWriteException error = assertThrows(PartialWriteException.class, () -> limited.update(List.of("1", "2", "3"),
+                UpdateCriteria.builder().withDocuments(Documents.of("a", "b", "c")).build()));
+
+        verify(mockApi, times(3)).updateAsync(any(), eq(COLLECTION_ID), any());
+        assertEquals(3, error.getChunks());
+        assertEquals(List.of(1), error.getFailedChunks());
+        assertEquals(List.of("1", "3"), error.getWrittenIds());
+        assertEquals(422, error.getCode());
+        assertTrue(error.getMessage().contains("chunk 1: Invalid"), error.getMessage());
+    }
+
+    @Test
+    void defaultLimits() {
+        assertSame(RequestLimits.defaults(), collection.getRequestLimits());
+        assertEquals(5_000, RequestLimits.defaults().maxRecords());
+    }
+
     private CreateCollection createDefaultCollection(String name) {
         return new CreateCollection()
                 .getOrCreate(true)
@@ -484,4 +570,119 @@ class CollectionTest {
                 ;
     }
 
-}
\ No newline at end of file
+    @Test
+    void streamsPagesOfRecords() throws ApiException {
+        doAnswer(invocation -> {
+            ApiCallback<GetResult> callback = invocation.getArgument(2);
+            callback.onSuccess(new Gson().fromJson("{\"ids\":[\"1\",\"2\"]}", GetResult.class), 200, Map.of());
+            return null;
+        }).doAnswer(invocation -> {
+            ApiCallback<GetResult> callback = invocation.getArgument(2);
+            callback.onSuccess(new Gson().fromJson("{\"ids\":[\"3\"]}", GetResult.class), 200, Map.of());
+            return null;
+        }).when(mockClient).executeAsync(any(), eq(GetResult.class), any());
+
+        List<String> ids;
+        try (var pages = collection.stream(GetCriteria.builder().withLimit(2).build())) {
+            ids = pages.flatMap(page -> page.getIds().stream()).collect(Collectors.toList());
+        }
+
+        assertEquals(List.of("1", "2", "3"), ids);
+        verify(mockApi).getCall(argThat(req -> req.getOffset() == 2 && req.getLimit() == 2), eq(COLLECTION_ID), isNull(), isNull());
+    }
+
+    @Test
+    void closingTheIteratorStopsTheScan() throws ApiException {
+        doAnswer(invocation -> {
+            ApiCallback<GetResult> callback = invocation.getArgument(2);
+            callback.onSuccess(new Gson().fromJson("{\"ids\":[\"1\",\"2\"]}", GetResult.class), 200, Map.of());
+            return null;
+        }).doNothing().when(mockClient).executeAsync(any(), eq(GetResult.class), any());
+
+        CloseableIterator<GetResult> pages = collection.iterator(GetCriteria.builder().withLimit(2).build());
+        assertEquals(List.of("1", "2"), pages.next().getIds());
+        pages.close();
+
+        assertFalse(pages.hasNext());
+    }
+
+    @Test
+    void getAllPushesConditionsToTheServer() throws ApiException {
+        doAnswer(invocation -> {
+            ApiCallback<GetResult> callback = invocation.getArgument(2);
+            callback.onSuccess(new Gson().fromJson("{\"ids\":[\"1\",\"2\"],\"documents\":[\"short\",\"a long document\"],\"metadatas\":[{\"key\":\"value\"},{\"key\":\"value\"}]}", GetResult.class), 200, Map.of());
+            return null;
+        }).when(mockClient).executeAsync(any(), eq(GetResult.class), any());
+
+        QueryResponse<GetResult> actual = collection.getAll(RecordFilter.builder()
+                .whereMetadata("key", isEqualTo("value"))
+                .matching(row -> row.document().length() > 5)
+                .build());
+
+        assertEquals(List.of("2"), actual.payload().orElseThrow().getIds());
+        assertEquals(List.of(new Metadata(Map.of("key", "value"))), actual.payload().orElseThrow().getMetadatas());
+        verify(mockApi).getCall(argThat(req -> req.getWhere().equals(Map.of("key", Map.of("$eq", "value")))), eq(COLLECTION_ID), isNull(), isNull());
+    }
+
+    @Test
+    void deletesAllRecordsPageByPageFromTheEnd() throws ApiException {
+        Collection limited = collection.withRequestLimits(RequestLimits.builder().withMaxRecords(2).withConcurrency(2).build());
+        when(mockApi.count(COLLECTION_ID)).thenReturn(5);
+        when(mockClient.execute(getCall, GetResult.class))
+                .thenReturn(new ApiResponse<>(200, Map.of(), new Gson().fromJson("{'ids': ['5']}", GetResult.class)))
+                .thenReturn(new ApiResponse<>(200, Map.of(), new Gson().fromJson("{'ids': ['3', '4']}", GetResult.class)))
+                .thenReturn(new ApiResponse<>(200, Map.of(), new Gson().fromJson("{'ids': ['1', '2']}", GetResult.class)));
+        when(mockApi.deleteAsync(any(), eq(COLLECTION_ID), any()))
+                .thenAnswer(respondWith(req -> ((DeleteEmbedding) req).getIds()));
+
+        QueryResponse<List<String>> response = limited.delete();
+
+        assertEquals(List.of("5", "3", "4", "1", "2"), response.payload().orElseThrow());
+        for (int offset : new int[]{4, 2, 0}) {
+            verify(mockApi).getCall(argThat(req -> req.getOffset() == offset && req.getLimit() == 2 && req.getInclude().isEmpty()),
+                    eq(COLLECTION_ID), isNull(), isNull());
+        }
+        verify(mockApi, times(3)).deleteAsync(any(), eq(COLLECTION_ID), any());
+        verify(mockApi, never()).delete(any(), any());
+    }
+
+    @Test
+    void queriesByIdWithStoredEmbeddings() throws ApiException {
+        respondToGet("{'ids': ['b', 'a'], 'embeddings': [[3.0, 4.0], [1.0, 2.0]]}");
+        when(mockClient.execute(queryCall, QueryResult.class)).thenReturn(new ApiResponse<>(200, Map.of(),
+                QueryResult.of("{\"ids\": [[\"a\", \"c\"], [\"b\", \"d\"]], \"distances\": [[0.0, 0.5], [0.0, 0.7]]}")));
+
+        QueryResponse<QueryResult> response = collection.queryById(List.of("a", "b"), QueryCriteria.builder().withNumberOfResults(2).build());
+
+        assertEquals(List.of(List.of("a", "c"), List.of("b", "d")), response.payload().orElseThrow().getIds());
+        verify(mockApi).getCall(eq(new GetEmbedding().ids(List.of("a", "b")).include(List.of(GetEmbedding.IncludeEnum.EMBEDDINGS))),
+                eq(COLLECTION_ID), isNull(), isNull());
+        verify(mockApi).getNearestNeighborsCall(argThat(req -> req.getQueryEmbeddings().equals(List.of(List.of(1.0f, 2.0f), List.of(3.0f, 4.0f)))
+                && req.getNResults() == 2), eq(COLLECTION_ID), isNull(), isNull());
+        verifyNoInteractions(mockEmbeddings);
+    }
+
+    @Test
+    void queriesByIdExcludingSources() throws ApiException {
+        respondToGet("{'ids': ['a', 'b'], 'embeddings': [[1.0, 2.0], [3.0, 4.0]]}");
+        when(mockClient.execute(queryCall, QueryResult.class)).thenReturn(new ApiResponse<>(200, Map.of(),
+                QueryResult.of("{\"ids\": [[\"a\", \"b\", \"c\", \"d\"], [\"b\", \"e\", \"a\", \"f\"]], \"distances\": [[0.0, 0.1, 0.2, 0.3], [0.0, 0.4, 0.5, 0.6]]}")));
+
+        QueryResponse<QueryResult> response = collection.queryById(List.of("a", "b"), QueryCriteria.builder().withNumberOfResults(2).build(), true);
+
+        QueryResult result = response.payload().orElseThrow();
+        assertEquals(List.of(List.of("c", "d"), List.of("e", "f")), result.getIds());
+        assertEquals(List.of(List.of(0.2f, 0.3f), List.of(0.4f, 0.6f)), result.getDistances());
+        verify(mockApi).getNearestNeighborsCall(argThat(req -> req.getNResults() == 4), eq(COLLECTION_ID), isNull(), isNull());
+    }
+
+    @Test
+    void queryByIdFailsForMissingRecords() throws ApiException {
+        respondToGet("{'ids': ['a'], 'embeddings': [[1.0, 2.0]]}");
+
+        QueryResponse<QueryResult> response = collection.queryById(List.of("a", "missing"), QueryCriteria.builder().build());
+
+        assertTrue(response.isError());
+        verify(mockApi, never()).getNearestNeighborsCall(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,79 @@
+package com.acepero13.chromadb.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingTest {
+
+    @Test
+    void copiesTheArrayPassedToTheConstructor() {
+        float[] vector = {1.0f, 2.0f, 3.0f};
+
+        Embedding embedding = new Embedding(vector);
+        vector[0] = 9.0f;
+
+        assertNotSame(vector, embedding.vector());
+        assertArrayEquals(new float[]{1.0f, 2.0f, 3.0f}, embedding.vector());
+        assertEquals(3, embedding.dimensions());
+        assertEquals(2.0f, embedding.get(1));
+    }
+
+    @Test
+    void wrapsTheArrayWithoutCopying() {
+        float[] vector = {1.0f, 2.0f, 3.0f};
+
+        Embedding embedding = Embedding.wrap(vector);
+
+        assertSame(vector, embedding.vector());
+        assertNotSame(vector, embedding.toArray());
+        assertEquals(0, Embedding.wrap(null).dimensions());
+    }
+
+    @Test
+    void rawIsAReadOnlyListView() {
+        List<Float> raw = Embedding.of(1.0f, 2.0f).raw();
+
+        assertEquals(List.of(1.0f, 2.0f), raw);
+        assertEquals("[1.0, 2.0]", raw.toString());
+        assertThrows(UnsupportedOperationException.class, () -> raw.set(0, 5.0f));
+    }
+
+    @Test
+    void copiesListsIntoAnArray() {
+        List<Float> values = new ArrayList<>(List.of(1.0f, 2.0f));
+
+        Embedding embedding = new Embedding(values);
+        values.set(0, 9.0f);
+
+        assertArrayEquals(new float[]{1.0f, 2.0f}, embedding.vector());
+    }
+
+    @Test
+    void acceptsListsHoldingDoubles() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Float> deserialized = (List) List.of(1.5d, 2.5d);
+
+        assertArrayEquals(new float[]{1.5f, 2.5f}, new Embedding(deserialized).vector());
+    }
+
+    @Test
+    void equalityMatchesTheListRepresentation() {
+        Embedding fromArray = Embedding.of(1.0f, 2.0f);
+        Embedding fromList = new Embedding(List.of(1.0f, 2.0f));
+
+        assertEquals(fromArray, fromList);
+        assertEquals(fromArray.hashCode(), fromList.hashCode());
+        assertEquals(List.of(1.0f, 2.0f).hashCode(), fromArray.hashCode());
+        assertEquals("Embedding{embedding=[1.0, 2.0]}", fromArray.toString());
+    }
+
+    @Test
+    void nullAndEmptyListsAreEmpty() {
+        assertTrue(new Embedding((List<Float>) null).isEmpty());
+        assertTrue(new Embedding(new ArrayList<>()).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.model.query.criteria.GetCriteria;
+import com.acepero13.chromadb.client.result.GetResult;
+import com.acepero13.chromadb.client.serialization.Json;
+import com.acepero13.chromadb.client.utils.FutureUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageIteratorTest {
+    private final List<GetEmbedding> requests = new ArrayList<>();
+
+    @Test
+    void walksEveryPage() {
+        PageIterator pages = new PageIterator(GetCriteria.builder().withLimit(2).build(), null, records(5));
+
+        List<List<String>> ids = new ArrayList<>();
+        pages.forEachRemaining(page -> ids.add(page.getIds()));
+
+        assertEquals(List.of(List.of("id0", "id1"), List.of("id2", "id3"), List.of("id4")), ids);
+        assertEquals(List.of(0, 2, 4), requests.stream().map(GetEmbedding::getOffset).collect(Collectors.toList()));
+        assertTrue(requests.stream().allMatch(request -> request.getLimit() == 2));
+    }
+
+    @Test
+    void prefetchesTheNextPage() {
+        PageIterator pages = new PageIterator(GetCriteria.builder().withLimit(2).build(), null, records(5));
+        assertEquals(1, requests.size());
+
+        pages.next();
+
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void stopsOnEmptyPage() {
+        PageIterator pages = new PageIterator(GetCriteria.builder().withLimit(2).withOffset(2).build(), null, records(4));
+
+        assertEquals(List.of("id2", "id3"), pages.next().getIds());
+        assertFalse(pages.hasNext());
+        assertThrows(NoSuchElementException.class, pages::next);
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void failedPagesAreRethrown() {
+        PageIterator pages = new PageIterator(GetCriteria.builder().build(), null,
+                request -> FutureUtils.failed(new ApiException("boom")));
+
+        CompletionException error = assertThrows(CompletionException.class, pages::hasNext);
+        assertInstanceOf(ApiException.class, error.getCause());
+    }
+
+    @Test
+    void closeCancelsThePrefetchedPage() {
+        CompletableFuture<GetResult> pending = new CompletableFuture<>();
+        PageIterator pages = new PageIterator(GetCriteria.builder().build(), null, request -> pending);
+
+        pages.close();
+
+        assertTrue(pending.isCancelled());
+        assertFalse(pages.hasNext());
+    }
+
+    @Test
+    void rejectsEmptyPages() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PageIterator(GetCriteria.builder().withLimit(0).build(), null, records(1)));
+    }
+
+    private Function<GetEmbedding, CompletableFuture<GetResult>> records(int total) {
+        return request -> {
+            requests.add(request);
+            int from = Math.min(request.getOffset(), total);
+            int to = Math.min(from + request.getLimit(), total);
+            String ids = IntStream.range(from, to).mapToObj(i -> "\"id" + i + "\"").collect(Collectors.joining(","));
+            return CompletableFuture.completedFuture(Json.fromJson("{\"ids\":[" + ids + "]}", GetResult.class));
+        };
+    }
+}
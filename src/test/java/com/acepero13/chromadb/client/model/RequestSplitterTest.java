@@ -0,0 +1,124 @@
+package com.acepero13.chromadb.client.model;
+
+import com.acepero13.chromadb.client.serialization.Json;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestSplitterTest {
+
+    private static List<String> ranges(List<int[]> chunks) {
+        return chunks.stream().map(Arrays::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void splitsByNumberOfRecords() {
+        RequestLimits limits = RequestLimits.builder().withMaxRecords(2).build();
+
+        List<int[]> chunks = RequestSplitter.split(limits, List.of("1", "2", "3", "4", "5"));
+
+        assertEquals(List.of("[0, 2]", "[2, 4]", "[4, 5]"), ranges(chunks));
+    }
+
+    @Test
+    void splitsByEstimatedBytes() {
+        RequestLimits limits = RequestLimits.builder().withMaxBytes(100).build();
+        List<String> documents = List.of("a".repeat(60), "b".repeat(10), "c".repeat(10), "d".repeat(60));
+
+        List<int[]> chunks = RequestSplitter.split(limits, List.of("1", "2", "3", "4"), documents);
+
+        assertEquals(List.of("[0, 1]", "[1, 3]", "[3, 4]"), ranges(chunks));
+    }
+
+    @Test
+    void oversizedRecordGetsItsOwnChunk() {
+        RequestLimits limits = RequestLimits.builder().withMaxBytes(10).build();
+
+        List<int[]> chunks = RequestSplitter.split(limits, List.of("1", "2"), List.of("x".repeat(100), "y".repeat(100)));
+
+        assertEquals(List.of("[0, 1]", "[1, 2]"), ranges(chunks));
+    }
+
+    @Test
+    void requestsWhoseUpperBoundFitsAreNotEstimatedRecordByRecord() {
+        RequestLimits limits = RequestLimits.builder().withMaxBytes(1000).build();
+
+        List<int[]> chunks = RequestSplitter.split(limits, List.of("1", "2"), List.of("é".repeat(10), "b"));
+
+        assertEquals(List.of("[0, 2]"), ranges(chunks));
+        assertTrue(RequestSplitter.upperBound("é".repeat(10)) >= RequestSplitter.estimate("é".repeat(10)));
+    }
+
+    @Test
+    void sizesVectorsFromTheirDimensions() {
+        long expected = RequestSplitter.estimate(List.of(1.0f, 2.0f, 3.0f));
+
+        assertEquals(expected, RequestSplitter.estimate(Embedding.of(1, 2, 3)));
+        assertEquals(expected, RequestSplitter.estimate(Embedding.of(1, 2, 3).rawObject()));
+        assertEquals(expected, RequestSplitter.estimate(new float[]{1, 2, 3}));
+    }
+
+    @Test
+    void sizesMetadataFromItsEntries() {
+        Map<String, Object> metadata = Map.of("key", "value", "count", 3, "nested", List.of("a"));
+
+        assertTrue(RequestSplitter.estimate(metadata) >= Json.toJson(metadata).length());
+    }
+
+    @Test
+    void keepsRequestsWithinLimits() {
+        AddEmbedding request = new AddEmbedding().ids(List.of("1", "2")).documents(List.of("a", "b"));
+
+        List<AddEmbedding> chunks = RequestSplitter.split(request, RequestLimits.defaults());
+
+        assertEquals(1, chunks.size());
+        assertSame(request, chunks.get(0));
+    }
+
+    @Test
+    void slicesEveryColumnOfAnAddRequest() {
+        AddEmbedding request = new AddEmbedding()
+                .ids(List.of("1", "2", "3"))
+                .documents(List.of("a", "b", "c"))
+                .embeddings(List.of(List.of(1.0f), List.of(2.0f), List.of(3.0f)))
+                .metadatas(List.of())
+                .incrementIndex(true);
+
+        List<AddEmbedding> chunks = RequestSplitter.split(request, RequestLimits.builder().withMaxRecords(2).build());
+
+        assertEquals(2, chunks.size());
+        assertEquals(List.of("3"), chunks.get(1).getIds());
+        assertEquals(List.of("c"), chunks.get(1).getDocuments());
+        assertEquals(List.of(List.of(3.0f)), chunks.get(1).getEmbeddings());
+        assertEquals(List.of(), chunks.get(1).getMetadatas());
+        assertTrue(chunks.get(1).isIncrementIndex());
+    }
+
+    @Test
+    void deletesWithoutIdsAreNotSplit() {
+        DeleteEmbedding request = new DeleteEmbedding().where(java.util.Map.of("key", "value"));
+
+        List<DeleteEmbedding> chunks = RequestSplitter.split(request, RequestLimits.builder().withMaxRecords(1).build());
+
+        assertEquals(List.of(request), chunks);
+    }
+
+    @Test
+    void mergesSuccessfulResults() {
+        assertEquals(true, RequestSplitter.mergeResults(List.of(true, true)));
+        assertNull(RequestSplitter.mergeResults(Arrays.asList(null, null)));
+        assertEquals(List.of("1", "2", "3"), RequestSplitter.mergeIds(List.of(List.of("1", "2"), List.of("3"))));
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> RequestLimits.builder().withMaxRecords(0));
+        assertThrows(IllegalArgumentException.class, () -> RequestLimits.builder().withMaxBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> RequestLimits.builder().withConcurrency(0));
+    }
+}
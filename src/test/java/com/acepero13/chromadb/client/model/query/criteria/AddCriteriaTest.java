@@ -3,13 +3,16 @@ package com.acepero13.chromadb.client.model.query.criteria;
 import com.acepero13.chromadb.client.exceptions.RequestValidationException;
 import com.acepero13.chromadb.client.model.Documents;
 import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.EmbeddingFunction;
 import com.acepero13.chromadb.client.model.Metadata;
 import com.acepero13.chromadb.client.handler.ApiException;
 import com.acepero13.chromadb.client.model.AddEmbedding;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -122,5 +125,54 @@ class AddCriteriaTest {
         assertTrue(error.getMessage().contains("Embeddings were not specify, therefore, you need to specify an embedding function"));
     }
 
+    @Test
+    void testDeduplicateByIds() throws ApiException {
+        AddEmbedding actualRequest = AddCriteria.builder()
+                .withDocuments(Documents.of("text", "text again", "other"))
+                .withEmbeddings(List.of(new Embedding(1.0f), new Embedding(1.0f), new Embedding(2.0f)))
+                .withDeduplication()
+                .build()
+                .toRequest(List.of("id1", "id1", "id2"), FAKE_FUNCTION);
+
+        assertEquals(List.of("id1", "id2"), actualRequest.getIds());
+        assertEquals(List.of("text", "other"), actualRequest.getDocuments());
+        assertEquals(List.of(List.of(1.0f), List.of(2.0f)), actualRequest.getEmbeddings());
+    }
 
-}
\ No newline at end of file
+    @Test
+    void testDeduplicateEmbedsEachDistinctRecordOnce() throws ApiException {
+        List<List<String>> embedded = new ArrayList<>();
+        EmbeddingFunction function = new FakeFunction() {
+            @Override
+            public List<Embedding> createEmbeddings(List<String> documents) {
+                embedded.add(documents);
+                return documents.stream().map(doc -> new Embedding((float) doc.length())).collect(Collectors.toList());
+            }
+        };
+
+        AddEmbedding actualRequest = AddCriteria.builder()
+                .withDocuments(Documents.of("a", "bb", "a", "a"))
+                .withMetadata(Metadata.of("k", "1"), Metadata.of("k", "1"), Metadata.of("k", "1"), Metadata.of("k", "2"))
+                .withIdGenerator(vectors -> vectors.stream().map(v -> "id" + v.get(0)).collect(Collectors.toList()))
+                .withDeduplication()
+                .build()
+                .toRequest(new ArrayList<>(), function);
+
+        assertEquals(List.of(List.of("a", "bb", "a")), embedded);
+        assertEquals(List.of("id1.0", "id2.0"), actualRequest.getIds());
+        assertEquals(List.of("a", "bb"), actualRequest.getDocuments());
+        assertEquals(List.of(Map.of("k", "1"), Map.of("k", "1")), actualRequest.getMetadatas());
+    }
+
+    @Test
+    void testWithoutDeduplicationDuplicatesAreKept() throws ApiException {
+        AddEmbedding actualRequest = AddCriteria.builder()
+                .withDocuments(Documents.of("text", "text"))
+                .withEmbeddings(List.of(new Embedding(1.0f), new Embedding(1.0f)))
+                .build()
+                .toRequest(List.of("id1", "id1"), FAKE_FUNCTION);
+
+        assertEquals(List.of("id1", "id1"), actualRequest.getIds());
+        assertFalse(AddCriteria.builder().build().shouldDeduplicate());
+    }
+}
@@ -0,0 +1,72 @@
+package com.acepero13.chromadb.client.model.query.criteria;
+
+import com.acepero13.chromadb.client.model.GetEmbedding;
+import com.acepero13.chromadb.client.model.Metadata;
+import com.acepero13.chromadb.client.result.GetResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.acepero13.chromadb.client.model.query.matchers.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordFilterTest {
+    @Test void compilesSingleConditionsToWhereClauses(){
+        GetEmbedding request = RecordFilter.builder()
+                .whereMetadata("source", isEqualTo("web"))
+                .whereDocument(contains("java"))
+                .withPageSize(50)
+                .build()
+                .toCriteria()
+                .toRequest(List.of(), new FakeFunction());
+
+        assertEquals(Map.of("source", Map.of("$eq", "web")), request.getWhere());
+        assertEquals(Map.of("$contains", "java"), request.getWhereDocument());
+        assertEquals(50, request.getLimit());
+        assertEquals(List.of(GetEmbedding.IncludeEnum.DOCUMENTS, GetEmbedding.IncludeEnum.METADATAS), request.getInclude());
+    }
+
+    @Test void combinesConditionsWithAnd(){
+        GetEmbedding request = RecordFilter.builder()
+                .whereMetadata("source", isEqualTo("web"))
+                .whereMetadata("year", greaterThan(2020))
+                .whereDocument(contains("java"))
+                .whereDocument(notContains("kotlin"))
+                .build()
+                .toCriteria()
+                .toRequest(List.of(), new FakeFunction());
+
+        assertEquals(Map.of("$and", List.of(
+                Map.of("source", Map.of("$eq", "web")),
+                Map.of("year", Map.of("$gt", 2020)))), request.getWhere());
+        assertEquals(Map.of("$and", List.of(
+                Map.of("$contains", "java"),
+                Map.of("$not_contains", "kotlin"))), request.getWhereDocument());
+    }
+
+    @Test void residualPredicatesRunPerRecord(){
+        RecordFilter filter = RecordFilter.builder()
+                .whereMetadata("source", isEqualTo("web"))
+                .matching(row -> row.document().length() > 3)
+                .matching(row -> row.id().startsWith("a"))
+                .build();
+
+        assertTrue(filter.hasResidual());
+        assertTrue(filter.test(new GetResult.Row("a1", "long text", Metadata.of("source", "web"))));
+        assertFalse(filter.test(new GetResult.Row("a2", "no", null)));
+        assertFalse(filter.test(new GetResult.Row("b1", "long text", null)));
+    }
+
+    @Test void withoutResidualEverythingRunsOnTheServer(){
+        RecordFilter filter = RecordFilter.builder().whereDocument(contains("java")).build();
+
+        assertFalse(filter.hasResidual());
+        assertTrue(filter.test(new GetResult.Row("id", null, null)));
+        assertEquals(1000, filter.pageSize());
+    }
+
+    @Test void rejectsEmptyPages(){
+        assertThrows(IllegalArgumentException.class, () -> RecordFilter.builder().withPageSize(0));
+    }
+}
@@ -2,6 +2,7 @@ package com.acepero13.chromadb.client.model.query.criteria;
 
 import com.acepero13.chromadb.client.model.Documents;
 import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.model.EmbeddingFunction;
 import com.acepero13.chromadb.client.model.Metadata;
 import com.acepero13.chromadb.client.handler.ApiException;
 import com.acepero13.chromadb.client.model.UpdateEmbedding;
@@ -10,7 +11,9 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 class UpdateCriteriaTest {
     @Test
@@ -31,4 +34,49 @@ class UpdateCriteriaTest {
         assertEquals(expected, criteria.toRequest(ids, null));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testMetadataOnlyUpdateSkipsEmbedding() throws ApiException {
+        EmbeddingFunction function = mock(EmbeddingFunction.class);
+        UpdateCriteria criteria = UpdateCriteria.builder()
+                .withMetadata(List.of(Metadata.of("tag", "a"), Metadata.of("tag", "b")))
+                .build();
+
+        UpdateEmbedding expected = new UpdateEmbedding()
+                .ids(List.of("id1", "id2"))
+                .metadatas(List.of(Map.of("tag", "a"), Map.of("tag", "b")));
+
+        assertEquals(expected, criteria.toRequest(List.of("id1", "id2"), function));
+        verifyNoInteractions(function);
+    }
+
+    @Test
+    void testUntouchedFieldsAreNotSent() throws ApiException {
+        UpdateEmbedding request = UpdateCriteria.builder()
+                .withEmbeddings(1.0f, 2.0f)
+                .build()
+                .toRequest(List.of("id1"), null);
+
+        assertNull(request.getDocuments());
+        assertNull(request.getMetadatas());
+        assertEquals(List.of(List.of(1.0f, 2.0f)), request.getEmbeddings());
+    }
+
+    @Test
+    void testDocumentsAreEmbedded() throws ApiException {
+        UpdateEmbedding request = UpdateCriteria.builder()
+                .withDocuments(Documents.of("text"))
+                .build()
+                .toRequest(List.of("id1"), new FakeFunction());
+
+        assertEquals(List.of("text"), request.getDocuments());
+        assertEquals(List.of(), request.getEmbeddings());
+        assertNull(request.getMetadatas());
+    }
+
+    @Test
+    void testDocumentsWithoutEmbeddingFunction() {
+        UpdateCriteria criteria = UpdateCriteria.builder().withDocuments(Documents.of("text")).build();
+
+        assertThrows(NullPointerException.class, () -> criteria.toRequest(List.of("id1"), null));
+    }
+}
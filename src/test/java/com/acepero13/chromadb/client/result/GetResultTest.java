@@ -2,12 +2,14 @@ package com.acepero13.chromadb.client.result;
 
 import com.google.gson.Gson;
 import com.acepero13.chromadb.client.model.Documents;
+import com.acepero13.chromadb.client.model.Embedding;
 import com.acepero13.chromadb.client.model.Metadata;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class GetResultTest {
 
@@ -59,4 +61,36 @@ class GetResultTest {
 
         assertEquals(expectedJson, getResult.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRows() {
+        String json = "{\"documents\":[\"doc1\",\"doc2\"],\"ids\":[\"id1\",\"id2\"],\"metadatas\":[{\"key1\":\"value1\"}]}";
+        GetResult getResult = new Gson().fromJson(json, GetResult.class);
+
+        List<GetResult.Row> rows = getResult.rows();
+
+        assertEquals(2, rows.size());
+        assertEquals("id2", rows.get(1).id());
+        assertEquals("doc2", rows.get(1).document());
+        assertEquals(Metadata.of("key1", "value1"), rows.get(0).metadata());
+        assertNull(rows.get(1).metadata());
+    }
+
+    @Test
+    void testOfRows() {
+        GetResult getResult = GetResult.ofRows(List.of(new GetResult.Row("id1", "doc1", Metadata.of("key", "value"))));
+
+        assertEquals(List.of("id1"), getResult.getIds());
+        assertEquals(Documents.of("doc1"), getResult.getDocuments());
+        assertEquals(List.of(Metadata.of("key", "value")), getResult.getMetadatas());
+    }
+
+    @Test
+    void testGetEmbeddingVectors() {
+        String json = "{\"ids\":[\"id1\",\"id2\"],\"embeddings\":[[1.0,2.0],[3.0,4.0]]}";
+        GetResult getResult = new Gson().fromJson(json, GetResult.class);
+
+        assertEquals(List.of(Embedding.of(1.0f, 2.0f), Embedding.of(3.0f, 4.0f)), getResult.getEmbeddingVectors());
+        assertEquals(List.of(1.0f, 2.0f, 3.0f, 4.0f), getResult.getEmbeddings());
+    }
+}
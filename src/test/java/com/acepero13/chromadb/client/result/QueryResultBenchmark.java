@@ -0,0 +1,75 @@
+package com.acepero13.chromadb.client.result;
+
+import com.acepero13.chromadb.client.model.Documents;
+import com.acepero13.chromadb.client.model.Metadata;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures filtering a page of query results by distance and projecting ids, documents and metadata. The
+ * {@code boxed} benchmark evaluates a {@code Predicate<Float>} per field with nested streams, as the client used
+ * to do; {@code bitmap} goes through {@link QueryResult}, which evaluates the range once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryResultBenchmark {
+
+    @Param({"10000"})
+    public int results;
+
+    private QueryResult result;
+    private List<List<Float>> distances;
+    private List<List<String>> ids;
+    private List<Documents> documents;
+    private List<List<Metadata>> metadatas;
+    private final QueryResult.DistanceRange range = QueryResult.DistanceRange.between(0.25f, 0.75f);
+    private final Predicate<Float> predicate = distance -> distance > 0.25f && distance < 0.75f;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String ids = IntStream.range(0, results).mapToObj(i -> "\"id" + i + "\"").collect(Collectors.joining(","));
+        String documents = IntStream.range(0, results).mapToObj(i -> "\"doc" + i + "\"").collect(Collectors.joining(","));
+        String metadatas = IntStream.range(0, results).mapToObj(i -> "{\"n\":" + i + "}").collect(Collectors.joining(","));
+        String distances = IntStream.range(0, results).mapToObj(i -> String.valueOf((float) i / results)).collect(Collectors.joining(","));
+        result = QueryResult.of("{\"ids\":[[" + ids + "]],\"documents\":[[" + documents + "]],\"metadatas\":[["
+                + metadatas + "]],\"distances\":[[" + distances + "]]}");
+        this.distances = result.getDistances();
+        this.ids = result.getIds();
+        this.documents = result.getDocuments();
+        this.metadatas = result.getMetadatas();
+    }
+
+    @Benchmark
+    public void boxed(Blackhole blackhole) {
+        blackhole.consume(filterBoxed(ids));
+        blackhole.consume(filterBoxed(documents.stream().map(Documents::asList).collect(Collectors.toList())));
+        blackhole.consume(filterBoxed(metadatas));
+    }
+
+    @Benchmark
+    public void bitmap(Blackhole blackhole) {
+        blackhole.consume(result.getIds(range));
+        blackhole.consume(result.getDocuments(range));
+        blackhole.consume(result.getMetadatas(range));
+    }
+
+    private <T> List<List<T>> filterBoxed(List<List<T>> values) {
+        return IntStream.range(0, distances.size())
+                .mapToObj(q -> IntStream.range(0, distances.get(q).size())
+                        .filter(i -> predicate.test(distances.get(q).get(i)))
+                        .mapToObj(i -> values.get(q).get(i))
+                        .collect(Collectors.toList()))
+                .filter(query -> !query.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
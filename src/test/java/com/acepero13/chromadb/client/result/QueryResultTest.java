@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static com.acepero13.chromadb.client.result.QueryResult.DistanceRange.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,6 +45,11 @@ class QueryResultTest {
         assertEquals(List.of(List.of(0.0f, 1.0f), List.of(-1.0f, 5.0f)), result.getDistances());
     }
 
+    @Test void testGetDistanceArrays(){
+        var result = QueryResult.of(JSON);
+        assertArrayEquals(new float[]{-1.0f, 5.0f}, result.getDistanceArrays().get(1));
+    }
+
     @Test void testToJson(){
         var result = QueryResult.of(JSON);
         assertEquals("{\"embeddings\":[],\"ids\":[[\"id1\",\"id2\"],[\"d1\",\"d2\"]],\"distances\":[[0.0,1.0],[-1.0,5.0]]}", result.toString());
@@ -87,4 +93,74 @@ class QueryResultTest {
     @Test void testRangeToString(){
         assertEquals("DistanceRange{lowerBound=-0.5, upperBound=0.5}", QueryResult.DEFAULT_RANGE.toString());
     }
-}
\ No newline at end of file
+
+    @Test void readsColumnsByPosition(){
+        var result = QueryResult.of(FULL_JSON);
+
+        assertEquals(2, result.queryCount());
+        assertEquals(2, result.resultCount(1));
+        assertEquals("d2", result.id(1, 1));
+        assertEquals(5.0f, result.distance(1, 1));
+        assertEquals("one", result.document(1, 0));
+        assertEquals(Metadata.of("key", "value"), result.metadata(1, 0));
+        assertNull(result.metadata(1, 1));
+        assertEquals(-1, result.embeddingOffset(0, 0));
+    }
+
+    @Test void storesEmbeddingsContiguously(){
+        var result = QueryResult.of("{\"ids\": [[\"a\", \"b\"], [\"c\"]], \"embeddings\": [[[1.0, 2.0], [3.0, 4.0]], [[5.0, 6.0]]]}");
+
+        assertArrayEquals(new float[]{1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f}, result.embeddingData());
+        assertEquals(4, result.embeddingOffset(1, 0));
+        assertEquals(2, result.embeddingDimensions(1, 0));
+        assertEquals(Embedding.of(3.0f, 4.0f), result.embedding(0, 1));
+        assertEquals(List.of(Embedding.of(1.0f, 2.0f), Embedding.of(3.0f, 4.0f), Embedding.of(5.0f, 6.0f)), result.getEmbeddings());
+    }
+
+    @Test void missingColumnsAreAbsent(){
+        var result = QueryResult.of(JSON);
+
+        assertNull(result.document(0, 0));
+        assertNull(result.embedding(0, 0));
+        assertTrue(result.getDocuments().isEmpty());
+        assertTrue(result.getEmbeddings().isEmpty());
+    }
+
+    @Test void roundTripsThroughJson(){
+        var result = QueryResult.of(FULL_JSON);
+
+        assertEquals(result.toString(), QueryResult.of(result.toString()).toString());
+    }
+
+    @Test void projectsEveryFieldWithTheSameRange(){
+        var result = QueryResult.of(FULL_JSON);
+        var range = distanceIsBiggerThan(0.5f);
+
+        assertEquals(List.of(List.of("id2"), List.of("d2")), result.getIds(range));
+        assertEquals(List.of(Documents.of(List.of("second text")), Documents.of(List.of("two"))), result.getDocuments(range));
+        assertEquals(List.of(List.of("id1"), List.of("d1")), result.getIds(distanceIsLessThan(0.5f)));
+    }
+
+    @Test void selectsDistancesInRange(){
+        var selected = between(0.0f, 2.0f).select(new float[]{0.0f, 1.0f, 1.5f, 2.0f, Float.NaN});
+
+        assertEquals("{1, 2}", selected.toString());
+    }
+
+    @Test void unboundedRangeToString(){
+        assertEquals("DistanceRange{lowerBound=null, upperBound=0.5}", distanceIsLessThan(0.5f).toString());
+    }
+
+    @Test void excludesIdsAndKeepsColumnsAligned(){
+        var result = QueryResult.of("{\"ids\": [[\"a\", \"b\", \"c\"]], \"documents\": [[\"A\", \"B\", \"C\"]], \"distances\": [[0.1, 0.2, 0.3]], \"embeddings\": [[[1.0], [2.0, 2.5], [3.0]]]}");
+
+        var filtered = result.excluding(Set.of("a"), 5);
+
+        assertEquals(List.of(List.of("b", "c")), filtered.getIds());
+        assertEquals("C", filtered.document(0, 1));
+        assertEquals(0.2f, filtered.distance(0, 0));
+        assertEquals(Embedding.of(2.0f, 2.5f), filtered.embedding(0, 0));
+        assertEquals(Embedding.of(3.0f), filtered.embedding(0, 1));
+        assertEquals(List.of(List.of("b")), result.excluding(Set.of("a"), 1).getIds());
+    }
+}
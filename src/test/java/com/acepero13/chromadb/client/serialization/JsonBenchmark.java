@@ -0,0 +1,57 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.acepero13.chromadb.client.result.QueryResult;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the per-call cost of decoding and encoding a query result with a new {@link Gson} instance on every
+ * call, as the client used to do, against the shared instance held by {@link Json}. Run with {@code -prof gc}
+ * to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"1", "10"})
+    public int results;
+
+    private String json;
+    private QueryResult result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String ids = IntStream.range(0, results).mapToObj(i -> "\"id" + i + "\"").collect(Collectors.joining(","));
+        String distances = IntStream.range(0, results).mapToObj(i -> String.valueOf(i / 10.0)).collect(Collectors.joining(","));
+        json = "{\"ids\":[[" + ids + "]],\"distances\":[[" + distances + "]]}";
+        result = Json.fromJson(json, QueryResult.class);
+    }
+
+    @Benchmark
+    public QueryResult decodeWithNewGson() {
+        return new Gson().fromJson(json, QueryResult.class);
+    }
+
+    @Benchmark
+    public QueryResult decodeWithSharedGson() {
+        return Json.fromJson(json, QueryResult.class);
+    }
+
+    @Benchmark
+    public String encodeWithNewGson() {
+        return new Gson().toJson(result);
+    }
+
+    @Benchmark
+    public String encodeWithSharedGson() {
+        return Json.toJson(result);
+    }
+}
@@ -0,0 +1,71 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.acepero13.chromadb.client.model.Embedding;
+import com.acepero13.chromadb.client.result.QueryResult;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+
+    @AfterEach
+    void tearDown() {
+        Json.configure(builder -> {
+        });
+    }
+
+    @Test
+    void sharesOneInstance() {
+        assertSame(Json.gson(), Json.gson());
+    }
+
+    @Test
+    void writesVectorsAndArraysWithoutBoxing() {
+        assertEquals("[[1.0,2.5]]", Json.toJson(Embedding.rawList(List.of(Embedding.of(1.0f, 2.5f)))));
+        assertEquals("[1.0,2.5]", Json.toJson(new float[]{1.0f, 2.5f}));
+        assertArrayEquals(new float[]{1.0f, 2.5f}, Json.fromJson("[1.0,2.5]", float[].class));
+    }
+
+    @Test
+    void decodesResults() {
+        QueryResult result = Json.fromJson("{\"ids\":[[\"1\"]],\"distances\":[[0.5]]}", QueryResult.class);
+
+        assertEquals(List.of(List.of("1")), result.getIds());
+        assertEquals(List.of(List.of(0.5f)), result.getDistances());
+    }
+
+    @Test
+    void configureReplacesTheSharedInstance() {
+        Gson before = Json.gson();
+
+        Json.configure(builder -> builder.registerTypeAdapter(Point.class, new PointAdapter()));
+
+        assertNotSame(before, Json.gson());
+        assertEquals("\"1:2\"", Json.toJson(new Point()));
+        assertEquals("[1.0]", Json.toJson(new float[]{1.0f}));
+    }
+
+    private static final class Point {
+    }
+
+    private static final class PointAdapter extends TypeAdapter<Point> {
+        @Override
+        public void write(JsonWriter out, Point value) throws IOException {
+            out.value("1:2");
+        }
+
+        @Override
+        public Point read(JsonReader in) throws IOException {
+            in.nextString();
+            return new Point();
+        }
+    }
+}
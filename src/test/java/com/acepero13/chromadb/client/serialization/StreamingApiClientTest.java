@@ -0,0 +1,188 @@
+package com.acepero13.chromadb.client.serialization;
+
+import com.acepero13.chromadb.client.handler.ApiException;
+import com.acepero13.chromadb.client.handler.DefaultApi;
+import com.acepero13.chromadb.client.model.AddEmbedding;
+import com.acepero13.chromadb.client.model.Embedding;
+import com.google.gson.Gson;
+import com.acepero13.chromadb.client.handler.ApiCallback;
+import com.acepero13.chromadb.client.result.GetResult;
+import com.acepero13.chromadb.client.result.QueryResult;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+class StreamingApiClientTest {
+    private final StreamingApiClient client = new StreamingApiClient();
+    private final DefaultApi api = new DefaultApi(client);
+
+    @BeforeEach
+    void setUp() {
+        client.setBasePath("http://localhost:8000");
+    }
+
+    private static String read(RequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    @Test
+    void streamsJsonBodies() throws ApiException, IOException {
+        AddEmbedding request = new AddEmbedding()
+                .ids(List.of("1"))
+                .embeddings(Embedding.rawList(List.of(Embedding.of(1.5f, 2.0f))))
+                .documents(List.of("text"));
+
+        RequestBody body = api.addCall(request, "id", null, null).request().body();
+
+        assertInstanceOf(JsonRequestBody.class, body);
+        assertEquals(-1, body.contentLength());
+        assertEquals("application/json", body.contentType().type() + "/" + body.contentType().subtype());
+        assertEquals("{\"embeddings\":[[1.5,2.0]],\"documents\":[\"text\"],\"ids\":[\"1\"],\"increment_index\":true}", read(body));
+    }
+
+    @Test
+    void bodyCanBeWrittenMoreThanOnce() throws ApiException, IOException {
+        AddEmbedding request = new AddEmbedding().ids(List.of("1"));
+
+        RequestBody body = api.addCall(request, "id", null, null).request().body();
+
+        assertEquals(read(body), read(body));
+    }
+
+    @Test
+    void usesTheCurrentSharedConfiguration() throws ApiException, IOException {
+        AddEmbedding request = new AddEmbedding().ids(List.of("1"));
+
+        Json.configure(builder -> builder.serializeNulls());
+        try {
+            String body = read(api.addCall(request, "id", null, null).request().body());
+
+            assertTrue(body.contains("\"documents\":null"), body);
+        } finally {
+            Json.configure(builder -> {
+            });
+        }
+    }
+
+    @Test
+    void writesVectorsLikeBoxedLists() {
+        Gson gson = client.getJSON().getGson();
+        List<Object> vectors = Embedding.rawList(List.of(Embedding.of(0.1f, -3.25f, 1e-8f)));
+
+        assertEquals(new Gson().toJson(List.of(List.of(0.1f, -3.25f, 1e-8f))), gson.toJson(vectors));
+    }
+
+    @Test
+    void readsVectors() {
+        Gson gson = client.getJSON().getGson();
+        List<Object> vectors = Embedding.rawList(List.of(Embedding.of(1.0f, 2.0f)));
+
+        Object view = vectors.get(0);
+        assertEquals(List.of(1.0f, 2.0f), gson.fromJson("[1.0,2.0]", view.getClass()));
+    }
+
+    private static okhttp3.Call respondingWith(int code, String json) throws IOException {
+        Request request = new Request.Builder().url("http://localhost:8000").build();
+        Response response = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(code == 200 ? "OK" : "Unprocessable Entity")
+                .body(ResponseBody.create(json, MediaType.get("application/json")))
+                .build();
+        okhttp3.Call call = Mockito.mock(okhttp3.Call.class);
+        when(call.execute()).thenReturn(response);
+        doAnswer(invocation -> {
+            invocation.<Callback>getArgument(0).onResponse(call, response);
+            return null;
+        }).when(call).enqueue(any());
+        return call;
+    }
+
+    @Test
+    void decodesResponsesIntoTypedResults() throws Exception {
+        okhttp3.Call call = respondingWith(200, "{\"ids\":[[\"1\",\"2\"]],\"distances\":[[0.25,0.5]]}");
+
+        QueryResult result = client.<QueryResult>execute(call, QueryResult.class).getData();
+
+        assertEquals(List.of(List.of("1", "2")), result.getIds());
+        assertArrayEquals(new float[]{0.25f, 0.5f}, result.getDistanceArrays().get(0));
+    }
+
+    @Test
+    void decodesUntypedResponses() throws Exception {
+        okhttp3.Call call = respondingWith(200, "{\"ids\":[\"1\"]}");
+
+        Object result = client.execute(call, Object.class).getData();
+
+        assertEquals(Map.of("ids", List.of("1")), result);
+    }
+
+    @Test
+    void emptyResponsesDecodeToNull() throws Exception {
+        assertNull(client.execute(respondingWith(200, ""), GetResult.class).getData());
+    }
+
+    @Test
+    void failuresKeepTheResponseBody() throws Exception {
+        okhttp3.Call call = respondingWith(422, "{\"detail\":[]}");
+
+        ApiException error = assertThrows(ApiException.class, () -> client.execute(call, GetResult.class));
+
+        assertEquals(422, error.getCode());
+        assertEquals("{\"detail\":[]}", error.getResponseBody());
+    }
+
+    @Test
+    void decodesAsynchronousResponses() throws Exception {
+        okhttp3.Call call = respondingWith(200, "{\"ids\":[\"1\"]}");
+        CompletableFuture<GetResult> future = new CompletableFuture<>();
+
+        client.executeAsync(call, GetResult.class, new ApiCallback<GetResult>() {
+            @Override
+            public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onSuccess(GetResult result, int statusCode, Map<String, List<String>> responseHeaders) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {
+            }
+
+            @Override
+            public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {
+            }
+        });
+
+        assertEquals(List.of("1"), future.join().getIds());
+    }
+
+    @Test
+    void keepsBodiesWithoutContent() throws ApiException {
+        assertNull(api.heartbeatCall(null, null).request().body());
+    }
+}
@@ -0,0 +1,66 @@
+package com.acepero13.chromadb.client.utils;
+
+import com.acepero13.chromadb.client.handler.ApiException;
+import okhttp3.Call;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+class FutureUtilsTest {
+
+    @Test
+    void completesWithTheResult() {
+        CompletableFuture<String> future = FutureUtils.toFuture(callback -> {
+            callback.onSuccess("done", 200, Map.of());
+            return null;
+        });
+
+        assertEquals("done", future.join());
+    }
+
+    @Test
+    void completesExceptionallyOnFailure() {
+        CompletableFuture<String> future = FutureUtils.toFuture(callback -> {
+            callback.onFailure(new ApiException(500, "Server error"), 500, Map.of());
+            return null;
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        assertEquals(500, ((ApiException) error.getCause()).getCode());
+    }
+
+    @Test
+    void completesExceptionallyWhenTheCallCannotBeBuilt() {
+        CompletableFuture<String> future = FutureUtils.toFuture(callback -> {
+            throw new ApiException("Missing the required parameter");
+        });
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void completesExceptionallyWhenStartingTheCallThrows() {
+        CompletableFuture<String> future = FutureUtils.toFuture(callback -> {
+            throw new IllegalArgumentException("Invalid URL");
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+
+    @Test
+    void cancellingTheFutureCancelsTheCall() {
+        Call call = Mockito.mock(Call.class);
+        CompletableFuture<String> future = FutureUtils.toFuture(callback -> call);
+
+        future.cancel(true);
+
+        verify(call).cancel();
+    }
+}
@@ -0,0 +1,57 @@
+package com.acepero13.chromadb.client.utils;
+
+import com.acepero13.chromadb.client.model.Embedding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating ids for a batch of 384-dimensional vectors with each {@link IdGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Param({"1000"})
+    public int vectors;
+
+    private final IdGenerator sha256 = IdGenerator.defaultIdGenerator();
+    private final IdGenerator parallelSha256 = IdGenerator.sha256(256);
+    private final IdGenerator murmur3 = IdGenerator.murmur3();
+    private List<Embedding> embeddings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        embeddings = new ArrayList<>(vectors);
+        for (int i = 0; i < vectors; i++) {
+            float[] vector = new float[384];
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] = random.nextFloat();
+            }
+            embeddings.add(new Embedding(vector));
+        }
+    }
+
+    @Benchmark
+    public List<String> sha256() {
+        return sha256.generate(embeddings);
+    }
+
+    @Benchmark
+    public List<String> parallelSha256() {
+        return parallelSha256.generate(embeddings);
+    }
+
+    @Benchmark
+    public List<String> murmur3() {
+        return murmur3.generate(embeddings);
+    }
+}
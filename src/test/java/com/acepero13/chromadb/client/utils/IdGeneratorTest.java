@@ -63,4 +63,28 @@ class IdGeneratorTest {
         List<String> ids2 = idGenerator.generate(Collections.singletonList(embedding2));
         assertEquals(ids1.get(0), ids2.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void hashesLittleEndianFloatBytes() {
+        List<String> ids = idGenerator.generate(Embedding.single(1.0f, 2.0f, 3.0f));
+        assertEquals("8e628779e6a74ee0b36991c10158f63cafec7d340ad4e07559", ids.get(0));
+    }
+
+    @Test
+    public void parallelGenerationKeepsOrder() {
+        List<Embedding> embeddings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            embeddings.add(new Embedding(i, i + 1.0f));
+        }
+        assertEquals(idGenerator.generate(embeddings), IdGenerator.sha256(10).generate(embeddings));
+    }
+
+    @Test
+    public void murmur3MatchesReferenceHash() {
+        IdGenerator murmur3 = IdGenerator.murmur3();
+        assertEquals(List.of("4f732afec7493057d3e7443b584cfd94", "b47760d68908b4706309c16b8a2c5e95",
+                        "78a3fbe0a5718c29e91f8149d7be72e5", "00000000000000000000000000000000"),
+                murmur3.generate(List.of(Embedding.of(1.0f, 2.0f, 3.0f), Embedding.of(0.5f),
+                        Embedding.of(1, 2, 3, 4, 5, 6), Embedding.of())));
+    }
+}